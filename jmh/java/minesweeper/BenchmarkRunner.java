@@ -0,0 +1,29 @@
+package minesweeper;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+
+/*
+ * Runs the benchmarks with the GC profiler, which adds the allocation rate and
+ * the bytes allocated per operation (gc.alloc.rate.norm) to the results. The
+ * first argument is an optional regular expression for the benchmarks to run,
+ * for example "GameBenchmark.openTile". The results are also written as JSON to
+ * jmh-result.json, so they can be compared between releases.
+ */
+public class BenchmarkRunner {
+
+	public static void main(String[] args) throws RunnerException {
+		Options options = new OptionsBuilder()
+				.include(args.length > 0 ? args[0] : "minesweeper\\..*Benchmark")
+				.addProfiler(GCProfiler.class)
+				.resultFormat(ResultFormatType.JSON)
+				.result("jmh-result.json")
+				.build();
+		new Runner(options).run();
+	}
+}
@@ -0,0 +1,64 @@
+package minesweeper;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+
+/*
+ * Compares the memory of a Board with the layout it replaced, one object per tile
+ * in a Tile[][] array. Each benchmark makes one board, so gc.alloc.rate.norm from
+ * BenchmarkRunner is the bytes a board of that size takes: about one byte per tile
+ * for Board, and tens of bytes per tile for Tile[][].
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoardMemoryBenchmark {
+
+	@Param({"100", "1000"})
+	private int size;
+
+	/* The layout of a tile before Board was introduced. */
+	@SuppressWarnings("unused")
+	private static class ObjectTile {
+		private char type = 'e';
+		private int x, y;
+		private int bombCount;
+		private boolean isFlagged;
+		private boolean isOpen;
+
+		ObjectTile(int x, int y) {
+			this.x = x;
+			this.y = y;
+		}
+	}
+
+	@Benchmark
+	public Board packedBoard() {
+		return new Board(size, size);
+	}
+
+	@Benchmark
+	public ObjectTile[][] objectTiles() {
+		ObjectTile[][] tiles = new ObjectTile[size][size];
+		for (int y = 0; y < size; y++) {
+			for (int x = 0; x < size; x++) {
+				tiles[y][x] = new ObjectTile(x, y);
+			}
+		}
+		return tiles;
+	}
+}
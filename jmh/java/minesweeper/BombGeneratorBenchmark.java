@@ -0,0 +1,56 @@
+package minesweeper;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+
+/*
+ * Measures the time it takes to place bombs on a 1000x1000 board, for densities
+ * from 1 % to 99 % of the tiles. A new empty board is made before each call.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BombGeneratorBenchmark {
+
+	@Param({"1000"})
+	private int size;
+
+	@Param({"1", "10", "25", "50", "75", "90", "99"})
+	private int density;
+
+	private Board board;
+	private int bombs;
+	private long seed;
+
+	@Setup(Level.Invocation)
+	public void setup() {
+		board = new Board(size, size);
+		bombs = (int) ((long) size * size * density / 100);
+		if (bombs > size * size - 9) {
+			bombs = size * size - 9;
+		}
+		seed++;
+	}
+
+	@Benchmark
+	public Board generate() {
+		BombGenerator.generate(board, bombs, seed, size / 2, size / 2);
+		return board;
+	}
+}
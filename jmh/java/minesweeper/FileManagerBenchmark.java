@@ -0,0 +1,72 @@
+package minesweeper;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+
+/*
+ * Measures writing a game to a file and reading it back, in the text format of
+ * FileManager and the binary format of BinaryFileManager. The files are written
+ * to the usual save folder, under a name that is deleted after the run.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FileManagerBenchmark {
+
+	private static final String FILENAME = "jmh-benchmark";
+
+	@Param({"9", "100", "500", "2000"})
+	private int size;
+
+	@Param({"12", "20"})
+	private int density;
+
+	private final FileManager text = new FileManager();
+	private final BinaryFileManager binary = new BinaryFileManager();
+	private Game game;
+
+	@Setup
+	public void setup() {
+		game = new Game(size, size);
+		game.generateBombs((int) ((long) size * size * density / 100), 1L, size / 2, size / 2);
+		game.bombCount();
+		game.openTile(game.getTile(size / 2, size / 2));
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		Files.deleteIfExists(FileManager.getFullPath(FILENAME));
+		Files.deleteIfExists(BinaryFileManager.getFullPath(FILENAME));
+	}
+
+	@Benchmark
+	public Game textRoundTrip() throws FileNotFoundException {
+		text.writeGameToFile(FILENAME, game);
+		return text.readGameFromFile(FILENAME);
+	}
+
+	@Benchmark
+	public Game binaryRoundTrip() throws FileNotFoundException {
+		binary.writeGameToFile(FILENAME, game);
+		return binary.readGameFromFile(FILENAME);
+	}
+}
@@ -0,0 +1,58 @@
+package minesweeper;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+
+/*
+ * Measures how many copies of a started game can be made per second with
+ * Game.fork(), and with GameEngine.fork() followed by one move on the copy, as a
+ * solver would do to try a move. The copy is one array copy of the board, so the
+ * time grows with the number of tiles.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ForkBenchmark {
+
+	@Param({"9", "30", "100", "500", "2000"})
+	private int size;
+
+	private GameEngine engine;
+	private int flagX;
+
+	@Setup
+	public void setup() {
+		engine = new GameEngine(new GameConfig(size, size, size * size / 6, 1L));
+		engine.open(size / 2, size / 2);
+		while (engine.getGame().getTile(flagX, 0).getIsOpen()) {
+			flagX++;
+		}
+	}
+
+	@Benchmark
+	public Game forkGame() {
+		return engine.getGame().fork();
+	}
+
+	@Benchmark
+	public GameEngine forkAndFlag() {
+		GameEngine fork = engine.fork();
+		fork.flag(flagX, 0);
+		return fork;
+	}
+}
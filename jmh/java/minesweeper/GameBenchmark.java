@@ -0,0 +1,91 @@
+package minesweeper;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+
+/*
+ * Measures the hot paths of Game on square boards from 9x9 to 2000x2000, with
+ * bombs on the given percentage of the tiles. A board with few bombs has large
+ * cascades, a board with many bombs has small ones.
+ *
+ * The board is made once per trial, with the same seed each time. bombCount() and
+ * checkGameWon() do not change it, and generateBombs() makes its own game, since a
+ * board can only get bombs once. openTile() does change it, so it gets a copy of
+ * the board, made before each call by Unopened. The copy is not timed, but it is
+ * counted in gc.alloc.rate.norm of openTile().
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameBenchmark {
+
+	@Param({"9", "30", "100", "500", "2000"})
+	private int size;
+
+	@Param({"1", "12", "20"})
+	private int density;
+
+	private Game game;
+	private int bombs;
+
+	/* A copy of the board that no tile has been opened on, for openTile(). */
+	@State(Scope.Thread)
+	public static class Unopened {
+
+		private Game game;
+
+		@Setup(Level.Invocation)
+		public void setup(GameBenchmark benchmark) {
+			game = new Game(benchmark.game);
+		}
+	}
+
+	@Setup(Level.Trial)
+	public void setup() {
+		bombs = Math.min((int) ((long) size * size * density / 100), size * size - 9);
+		game = new Game(size, size);
+		game.generateBombs(bombs, 1L, size / 2, size / 2);
+		game.bombCount();
+	}
+
+	@Benchmark
+	public Game generateBombs() {
+		Game game = new Game(size, size);
+		game.generateBombs(bombs, 1L, size / 2, size / 2);
+		return game;
+	}
+
+	@Benchmark
+	public Game bombCount() {
+		game.bombCount();
+		return game;
+	}
+
+	/* Opens the first tile, which starts a cascade from the safe area around it. */
+	@Benchmark
+	public int openTile(Unopened unopened) {
+		return unopened.game.openTile(unopened.game.getTile(size / 2, size / 2));
+	}
+
+	@Benchmark
+	public boolean checkGameWon() {
+		game.checkGameWon();
+		return game.isGameWon();
+	}
+}
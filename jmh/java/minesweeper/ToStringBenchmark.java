@@ -0,0 +1,68 @@
+package minesweeper;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+
+/*
+ * Measures Game.toString() on a game where about half the tiles are open, and the
+ * binary snapshot and digest that can be used instead to compare games. All of
+ * them go through the board once, so the time grows with the number of tiles.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ToStringBenchmark {
+
+	@Param({"9", "30", "100", "200", "2000"})
+	private int size;
+
+	@Param({"12", "20"})
+	private int density;
+
+	private Game game;
+	private ByteBuffer buffer;
+
+	@Setup
+	public void setup() {
+		game = new Game(size, size);
+		game.generateBombs((int) ((long) size * size * density / 100), 1L, size / 2, size / 2);
+		game.bombCount();
+		for (int i = 0; i < size * size; i += 2) {
+			game.getPackedBoard().setOpen(i, true);
+		}
+		buffer = ByteBuffer.allocate((int) game.getSnapshotSize());
+	}
+
+	@Benchmark
+	public String toStringGame() {
+		return game.toString();
+	}
+
+	@Benchmark
+	public ByteBuffer writeSnapshot() {
+		buffer.clear();
+		game.writeSnapshot(buffer);
+		return buffer;
+	}
+
+	@Benchmark
+	public long digest() {
+		return game.getDigest();
+	}
+}
@@ -0,0 +1,384 @@
+package minesweeper;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.DoubleConsumer;
+import java.util.function.IntSupplier;
+
+
+/*
+ * Saves and reads games in the formats of JournalFileManager, on a background
+ * thread, so the caller never waits for the file. The board is copied when a save
+ * is started, so the game can be played on while it is written. A caller that
+ * should not wait for the copy either can make it on another thread, and hand it
+ * over as a future. Appending moves only copies the moves. Saves, appends and reads are done one at a time, in the
+ * order they were started.
+ *
+ * Snapshots are written with an AsynchronousFileChannel in chunks of CHUNK_SIZE
+ * bytes. While one chunk is being written, the next is packed, and while one chunk
+ * is being read, the last is unpacked. A snapshot is written to a temporary file
+ * next to the save, which is then moved over the save, so a save that fails or is
+ * cancelled leaves the old save as it was. The journal of the save is deleted after
+ * the move, as in JournalFileManager.writeGameToFile(). Cancelling a future stops
+ * the work at the next chunk.
+ */
+public class AsyncFileManager implements IAsyncFile {
+
+	static final int CHUNK_SIZE = 1 << 20;
+
+	private final JournalFileManager journal;
+	private final ExecutorService io = Executors.newSingleThreadExecutor(r -> {
+		Thread thread = new Thread(r, "file-io");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	public AsyncFileManager() {
+		this(new JournalFileManager());
+	}
+
+	public AsyncFileManager(JournalFileManager journal) {
+		this.journal = journal;
+	}
+
+	/* Task for the io thread that may throw, see run(). */
+	private interface IoTask<T> {
+		T call(CompletableFuture<T> result) throws IOException;
+	}
+
+	/*
+	 * Runs a task on the io thread, unless the future has been cancelled before it
+	 * starts, and completes the future with its result. IOExceptions are given as
+	 * FileNotFoundException or UncheckedIOException, as by IFile. The time the task
+	 * takes is kept in Metrics.SAVE_TIME or LOAD_TIME, and recorded as a FileEvent,
+	 * as by MeteredFileManager, before the future is completed. The number of tiles
+	 * is found when the task has run, since the game that is read, or the copy that is
+	 * saved, is only known then.
+	 */
+	private <T> CompletableFuture<T> run(IoTask<T> task, boolean save, String filename, IntSupplier tiles) {
+		CompletableFuture<T> result = new CompletableFuture<>();
+		io.execute(() -> {
+			if (result.isDone()) {
+				return;
+			}
+			FileEvent event = new FileEvent();
+			event.begin();
+			event.save = save;
+			event.filename = filename;
+			long start = System.nanoTime();
+			T value = null;
+			Throwable failure = null;
+			try {
+				value = task.call(result);
+			}catch (NoSuchFileException e) {
+				failure = new FileNotFoundException(e.getFile());
+			}catch (FileNotFoundException | CancellationException e) {
+				failure = e;
+			}catch (IOException e) {
+				failure = new UncheckedIOException(e);
+			}catch (RuntimeException e) {
+				failure = e;
+			}
+			event.tiles = value instanceof Game ? tiles((Game) value) : tiles.getAsInt();
+			(save ? Metrics.SAVE_TIME : Metrics.LOAD_TIME).record(System.nanoTime() - start);
+			event.commit();
+			if (failure instanceof CancellationException) {
+				result.cancel(false);
+			}else if (failure != null) {
+				result.completeExceptionally(failure);
+			}else {
+				result.complete(value);
+			}
+		});
+		return result;
+	}
+
+	@Override
+	public CompletableFuture<Void> writeGameToFileAsync(String filename, Game game, DoubleConsumer progress) {
+		return writeGameToFileAsync(filename, CompletableFuture.completedFuture(new Game(game)), progress);
+	}
+
+	/*
+	 * Saves a copy of a game that is made elsewhere, for example on another thread for
+	 * a large board. The io thread waits for the copy, and the save fails or is
+	 * cancelled if making the copy does. The copy must not be changed after it is made.
+	 */
+	public CompletableFuture<Void> writeGameToFileAsync(String filename, CompletableFuture<Game> copy,
+			DoubleConsumer progress) {
+		return run(result -> {
+			writeSnapshot(filename, copy.join(), progress, result);
+			return null;
+		}, true, filename, () -> copy.isDone() && !copy.isCompletedExceptionally() ? tiles(copy.join()) : 0);
+	}
+
+	private static int tiles(Game game) {
+		return game.getWidth() * game.getHeight();
+	}
+
+	/*
+	 * Appends the moves to the journal of the save, see JournalFileManager. Only the
+	 * moves are copied. If the journal is compacted into a new snapshot, the game is
+	 * read back from the file on the io thread, so the board is never copied here.
+	 */
+	public CompletableFuture<Void> appendMovesAsync(String filename, List<Move> moves) {
+		List<Move> appended = new ArrayList<>(moves);
+		return run(result -> {
+			journal.appendMoves(filename, appended);
+			return null;
+		}, true, filename, () -> 0);
+	}
+
+	/*
+	 * Reads the snapshot and makes the moves in the journal on it. A save in the text
+	 * format is read by JournalFileManager, and only reports progress at the end.
+	 */
+	@Override
+	public CompletableFuture<Game> readGameFromFileAsync(String filename, DoubleConsumer progress) {
+		return run(result -> {
+			Path path = BinaryFileManager.getFullPath(filename);
+			if (!Files.exists(path)) {
+				Game game = journal.readGameFromFile(filename);
+				progress.accept(1);
+				return game;
+			}
+			Game game = readSnapshot(path, progress, result);
+			for (Move move : journal.readJournal(filename)) {
+				move.apply(game);
+			}
+			game.checkGameWon();
+			return game;
+		}, false, filename, () -> 0);
+	}
+
+	/* Helper for writeGameToFileAsync(). Runs on the io thread. */
+	private static void writeSnapshot(String filename, Game game, DoubleConsumer progress,
+			CompletableFuture<?> result) throws IOException {
+		FileManager.ensureUserFolder();
+		Board board = game.getPackedBoard();
+		Path path = BinaryFileManager.getFullPath(filename);
+		Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+		long total = BinaryFileManager.planeOffset(BinaryFileManager.PLANE_BITS.length, board.size());
+		boolean moved = false;
+		try {
+			try (AsynchronousFileChannel channel = AsynchronousFileChannel.open(temp, StandardOpenOption.CREATE,
+					StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+				ByteBuffer[] buffers = {ByteBuffer.allocate(CHUNK_SIZE), ByteBuffer.allocate(CHUNK_SIZE)};
+				ByteBuffer buffer = buffers[0];
+				BinaryFileManager.putHeader(buffer, game);
+				Planes planes = new Planes(board);
+				PendingWrite pending = null;
+				long position = 0;
+				for (int chunk = 0; ; chunk++) {
+					boolean last = planes.pack(buffer);
+					buffer.flip();
+					if (pending != null) {
+						pending.finish();
+						progress.accept((double) position / total);
+					}
+					checkCancelled(result);
+					int length = buffer.remaining();
+					pending = new PendingWrite(channel, buffer, position);
+					position += length;
+					if (last) {
+						break;
+					}
+					buffer = buffers[(chunk + 1) % 2];
+					buffer.clear();
+				}
+				pending.finish();
+				channel.force(true);
+			}
+			checkCancelled(result);
+			try {
+				Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			}catch (AtomicMoveNotSupportedException e) {
+				Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+			}
+			moved = true;
+			Files.deleteIfExists(JournalFileManager.getJournalPath(filename));
+			progress.accept(1);
+		}finally {
+			if (!moved) {
+				Files.deleteIfExists(temp);
+			}
+		}
+	}
+
+	/* Helper for readGameFromFileAsync(). Runs on the io thread. */
+	private static Game readSnapshot(Path path, DoubleConsumer progress, CompletableFuture<?> result) throws IOException {
+		try (AsynchronousFileChannel channel = AsynchronousFileChannel.open(path, StandardOpenOption.READ)) {
+			ByteBuffer header = ByteBuffer.allocate(BinaryFileManager.HEADER_SIZE);
+			readFully(channel, header, 0);
+			header.flip();
+			BinaryFileManager.checkHeader(header);
+			int width = header.getInt();
+			int height = header.getInt();
+			int numberOfBombs = header.getInt();
+			int configuredBombs = header.getInt();
+			long seed = header.getLong();
+			BinaryFileManager.checkSize(width, height);
+			Game game = new Game(BinaryFileManager.readConfig(width, height, numberOfBombs, configuredBombs, seed));
+			Board board = game.getPackedBoard();
+			long total = BinaryFileManager.planeOffset(BinaryFileManager.PLANE_BITS.length, board.size());
+			Planes planes = new Planes(board);
+			ByteBuffer[] buffers = {ByteBuffer.allocate(CHUNK_SIZE), ByteBuffer.allocate(CHUNK_SIZE)};
+			long position = BinaryFileManager.HEADER_SIZE;
+			Future<Integer> pending = position < total ? read(channel, buffers[0], position, total) : null;
+			for (int chunk = 0; pending != null; chunk++) {
+				ByteBuffer buffer = buffers[chunk % 2];
+				finishRead(channel, buffer, position, pending);
+				position += buffer.limit();
+				checkCancelled(result);
+				pending = position < total ? read(channel, buffers[(chunk + 1) % 2], position, total) : null;
+				buffer.flip();
+				planes.unpack(buffer);
+				progress.accept((double) position / total);
+			}
+			game.bombCount();
+			BinaryFileManager.setPlaced(game, numberOfBombs, seed);
+			return game;
+		}
+	}
+
+	/* Starts reading the next chunk, up to the end of the planes. */
+	private static Future<Integer> read(AsynchronousFileChannel channel, ByteBuffer buffer, long position, long total) {
+		buffer.clear();
+		buffer.limit((int) Math.min(buffer.capacity(), total - position));
+		return channel.read(buffer, position);
+	}
+
+	/* Waits for a read, and reads again until the buffer is full. */
+	private static void finishRead(AsynchronousFileChannel channel, ByteBuffer buffer, long position,
+			Future<Integer> pending) throws IOException {
+		while (true) {
+			int read = await(pending);
+			if (read < 0) {
+				throw new IOException("Save file ends too early");
+			}
+			if (!buffer.hasRemaining()) {
+				return;
+			}
+			pending = channel.read(buffer, position + buffer.position());
+		}
+	}
+
+	private static void readFully(AsynchronousFileChannel channel, ByteBuffer buffer, long position) throws IOException {
+		finishRead(channel, buffer, position, channel.read(buffer, position));
+	}
+
+	/* A write that has been started, see finish(). */
+	private static class PendingWrite {
+
+		private final AsynchronousFileChannel channel;
+		private final ByteBuffer buffer;
+		private final long position;
+		private Future<Integer> future;
+
+		PendingWrite(AsynchronousFileChannel channel, ByteBuffer buffer, long position) {
+			this.channel = channel;
+			this.buffer = buffer;
+			this.position = position;
+			this.future = channel.write(buffer, position);
+		}
+
+		/* Waits for the write, and writes the rest if only some of the buffer was written. */
+		void finish() throws IOException {
+			await(future);
+			while (buffer.hasRemaining()) {
+				future = channel.write(buffer, position + buffer.position());
+				await(future);
+			}
+		}
+	}
+
+	private static int await(Future<Integer> future) throws IOException {
+		try {
+			return future.get();
+		}catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted", e);
+		}catch (ExecutionException e) {
+			if (e.getCause() instanceof IOException) {
+				throw (IOException) e.getCause();
+			}
+			throw new IOException(e.getCause());
+		}
+	}
+
+	private static void checkCancelled(CompletableFuture<?> result) {
+		if (result.isCancelled()) {
+			throw new CancellationException();
+		}
+	}
+
+	/*
+	 * Packs the tiles of a board into the three planes of the binary format, or
+	 * unpacks them, a chunk at a time. See BinaryFileManager.
+	 */
+	private static class Planes {
+
+		private final Board board;
+		private int plane;
+		private int index;
+
+		Planes(Board board) {
+			this.board = board;
+		}
+
+		/* Packs bytes until the buffer is full or the planes end. Returns true at the end. */
+		boolean pack(ByteBuffer buffer) {
+			while (buffer.hasRemaining() && next()) {
+				int bit = BinaryFileManager.PLANE_BITS[plane];
+				int packed = 0;
+				for (int j = 0; j < 8 && index + j < board.size(); j++) {
+					if ((board.get(index + j) & bit) != 0) {
+						packed |= 1 << j;
+					}
+				}
+				buffer.put((byte) packed);
+				index += 8;
+			}
+			return !next();
+		}
+
+		/* Unpacks every byte in the buffer. */
+		void unpack(ByteBuffer buffer) {
+			while (buffer.hasRemaining() && next()) {
+				int bit = BinaryFileManager.PLANE_BITS[plane];
+				int packed = buffer.get();
+				for (int j = 0; j < 8 && index + j < board.size(); j++) {
+					if ((packed & (1 << j)) != 0) {
+						BinaryFileManager.setBit(board, index + j, bit);
+					}
+				}
+				index += 8;
+			}
+		}
+
+		/* Moves on to the next plane at the end of one, and returns false after the last. */
+		private boolean next() {
+			while (plane < BinaryFileManager.PLANE_BITS.length && index >= board.size()) {
+				plane++;
+				index = 0;
+			}
+			return plane < BinaryFileManager.PLANE_BITS.length;
+		}
+	}
+}
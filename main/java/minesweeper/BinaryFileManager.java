@@ -0,0 +1,376 @@
+package minesweeper;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+
+/*
+ * Saves games in a binary format, which is much smaller and faster to read than
+ * the text format of FileManager. A save file starts with a header of HEADER_SIZE
+ * bytes:
+ *
+ * magic (4 bytes), version (4), width (4), height (4), numberOfBombs (4),
+ * configured bombs (4), seed (8)
+ *
+ * numberOfBombs is 0 until the bombs are placed, so the number of bombs in the
+ * config of the game is kept as well, and the game is read with that config. Until
+ * then the seed is the seed of the config, and after that the seed the bombs were
+ * placed from. Files saved before the configured bombs were kept have 0 there, see
+ * readConfig().
+ *
+ * After the header comes one plane of bits for each of bomb, open and flagged, in
+ * that order. Tile number i (y*width + x) is bit i % 8 of byte i / 8 in a plane.
+ * Numbers are big-endian.
+ *
+ * Reading a game also accepts saves in the text format, so games saved before this
+ * format was added can still be loaded. Binary saves can also be memory-mapped
+ * instead of read, see mapGameFromFile(), or read through a cache of limited
+ * size, see openCachedGame().
+ */
+public class BinaryFileManager implements IFile {
+
+	static final int MAGIC = 0x4D535742;
+	static final int VERSION = 1;
+	static final int HEADER_SIZE = 32;
+	static final int BOMB_PLANE = 0;
+	static final int OPEN_PLANE = 1;
+	static final int FLAGGED_PLANE = 2;
+	static final int[] PLANE_BITS = {Board.BOMB, Board.OPEN, Board.FLAGGED};
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	public static Path getFullPath(String filename) {
+		return FileManager.getUserFolderPath().resolve(filename + ".msb");
+	}
+
+	/* Returns the number of bytes in a plane for a board with the given number of tiles. */
+	static long planeSize(int tiles) {
+		return (tiles + 7) / 8;
+	}
+
+	/* Returns the position in the file of the first byte of a plane. */
+	static long planeOffset(int plane, int tiles) {
+		return HEADER_SIZE + plane * planeSize(tiles);
+	}
+
+	/*
+	 * Writes the header and the three planes of the game. The planes are packed into
+	 * a buffer that is written to the file each time it is full.
+	 */
+	@Override
+	public void writeGameToFile(String filename, Game game) throws FileNotFoundException {
+		FileManager.ensureUserFolder();
+		Path path = getFullPath(filename);
+		if (game.getPackedBoard() instanceof MappedBoard && ((MappedBoard) game.getPackedBoard()).writesTo(path)) {
+			((MappedBoard) game.getPackedBoard()).force(game.getNumberOfBombs(), configuredBombs(game), headerSeed(game));
+			return;
+		}
+		if (game.getPackedBoard() instanceof CachedBoard && ((CachedBoard) game.getPackedBoard()).writesTo(path)) {
+			((CachedBoard) game.getPackedBoard()).flush(game.getNumberOfBombs(), configuredBombs(game), headerSeed(game));
+			return;
+		}
+		write(path, game);
+	}
+
+	static void write(Path path, Game game) throws FileNotFoundException {
+		try (FileChannel channel = open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+			putHeader(buffer, game);
+
+			Board board = game.getPackedBoard();
+			for (int bit : PLANE_BITS) {
+				for (int i = 0; i < board.size(); i += 8) {
+					int packed = 0;
+					for (int j = 0; j < 8 && i + j < board.size(); j++) {
+						if ((board.get(i + j) & bit) != 0) {
+							packed |= 1 << j;
+						}
+					}
+					if (!buffer.hasRemaining()) {
+						flush(channel, buffer);
+					}
+					buffer.put((byte) packed);
+				}
+			}
+			flush(channel, buffer);
+		}catch (FileNotFoundException e) {
+			throw e;
+		}catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/* Puts the header of the game in the buffer, see the class comment. */
+	static void putHeader(ByteBuffer buffer, Game game) {
+		buffer.putInt(MAGIC);
+		buffer.putInt(VERSION);
+		buffer.putInt(game.getWidth());
+		buffer.putInt(game.getHeight());
+		buffer.putInt(game.getNumberOfBombs());
+		buffer.putInt(configuredBombs(game));
+		buffer.putLong(headerSeed(game));
+	}
+
+	/* Returns the number of bombs in the config of the game, which is kept in the header. */
+	static int configuredBombs(Game game) {
+		return game.getConfig() == null ? 0 : game.getConfig().getBombs();
+	}
+
+	/* Returns the seed for the header: that of the config until the bombs are placed. */
+	static long headerSeed(Game game) {
+		return game.getNumberOfBombs() > 0 || game.getConfig() == null ? game.getSeed() : game.getConfig().getSeed();
+	}
+
+	/* Sets numberOfBombs and seed from the header on a game made with readConfig(). */
+	static void setPlaced(Game game, int numberOfBombs, long seed) {
+		game.setNumberOfBombs(numberOfBombs);
+		if (numberOfBombs > 0) {
+			game.setSeed(seed);
+		}
+	}
+
+	private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		buffer.clear();
+	}
+
+	/*
+	 * Reads a game saved in either format. The binary save is used if it exists.
+	 * Otherwise the text save is checked for the binary header, and read by
+	 * FileManager if it does not have one.
+	 */
+	@Override
+	public Game readGameFromFile(String filename) throws FileNotFoundException {
+		Path path = getFullPath(filename);
+		if (!Files.exists(path)) {
+			path = FileManager.getFullPath(filename);
+			if (!isBinary(path)) {
+				return new FileManager().readGameFromFile(filename);
+			}
+		}
+		return read(path);
+	}
+
+	/* Returns true if the file exists and starts with the binary header. */
+	static boolean isBinary(Path path) {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			ByteBuffer magic = ByteBuffer.allocate(4);
+			while (magic.hasRemaining()) {
+				if (channel.read(magic) < 0) {
+					return false;
+				}
+			}
+			return magic.getInt(0) == MAGIC;
+		}catch (IOException e) {
+			return false;
+		}
+	}
+
+	static Game read(Path path) throws FileNotFoundException {
+		try (FileChannel channel = open(path, StandardOpenOption.READ)) {
+			ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+			fill(channel, buffer, HEADER_SIZE);
+			checkHeader(buffer);
+			int width = buffer.getInt();
+			int height = buffer.getInt();
+			int numberOfBombs = buffer.getInt();
+			int configuredBombs = buffer.getInt();
+			long seed = buffer.getLong();
+			checkSize(width, height);
+			if (channel.size() < planeOffset(PLANE_BITS.length, width * height)) {
+				throw new IOException("Save file ends too early");
+			}
+			Game game = new Game(readConfig(width, height, numberOfBombs, configuredBombs, seed));
+
+			Board board = game.getPackedBoard();
+			long end = planeOffset(PLANE_BITS.length, board.size());
+			for (int bit : PLANE_BITS) {
+				for (int i = 0; i < board.size(); i += 8) {
+					if (!buffer.hasRemaining()) {
+						fill(channel, buffer, (int) Math.min(BUFFER_SIZE, end - channel.position()));
+					}
+					int packed = buffer.get();
+					for (int j = 0; j < 8 && i + j < board.size(); j++) {
+						if ((packed & (1 << j)) != 0) {
+							setBit(board, i + j, bit);
+						}
+					}
+				}
+			}
+			game.bombCount();
+			setPlaced(game, numberOfBombs, seed);
+			return game;
+		}catch (FileNotFoundException e) {
+			throw e;
+		}catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/*
+	 * Memory-maps a binary save and returns a game backed by the mapped file, see
+	 * MappedBoard. Opening the game does not depend on the size of the board. If
+	 * writeThrough is true, changes to the game are written to the file, and saving
+	 * the game to the same filename only has to force() the changes out. Otherwise
+	 * the file is mapped copy-on-write, and is not changed by the game. A save in
+	 * the text format can not be mapped, and is read as usual.
+	 */
+	public Game mapGameFromFile(String filename, boolean writeThrough) throws FileNotFoundException {
+		Path path = getFullPath(filename);
+		if (!Files.exists(path)) {
+			return readGameFromFile(filename);
+		}
+		try (FileChannel channel = open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+			fill(channel, header, HEADER_SIZE);
+			checkHeader(header);
+			int width = header.getInt();
+			int height = header.getInt();
+			int numberOfBombs = header.getInt();
+			int configuredBombs = header.getInt();
+			long seed = header.getLong();
+			checkSize(width, height);
+			long length = planeOffset(PLANE_BITS.length, width * height);
+			if (channel.size() < length) {
+				throw new IOException("Save file ends too early");
+			}
+			MappedByteBuffer buffer = channel.map(writeThrough ? MapMode.READ_WRITE : MapMode.PRIVATE, 0, length);
+			Game game = new Game(new MappedBoard(width, height, buffer, path, writeThrough),
+					readConfig(width, height, numberOfBombs, configuredBombs, seed));
+			setPlaced(game, numberOfBombs, seed);
+			return game;
+		}catch (FileNotFoundException e) {
+			throw e;
+		}catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/*
+	 * Opens a binary save as a game that reads the tiles through a cache of about
+	 * budget bytes, see CachedBoard, for boards that do not fit in memory. Changes to
+	 * the game are written to the file as chunks leave the cache, and saving the game
+	 * to the same filename writes the rest. The file stays open until closeCachedGame().
+	 */
+	public Game openCachedGame(String filename, long budget) throws FileNotFoundException {
+		Path path = getFullPath(filename);
+		FileChannel channel = null;
+		try {
+			channel = open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+			ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+			fill(channel, header, HEADER_SIZE);
+			checkHeader(header);
+			int width = header.getInt();
+			int height = header.getInt();
+			int numberOfBombs = header.getInt();
+			int configuredBombs = header.getInt();
+			long seed = header.getLong();
+			checkSize(width, height);
+			if (channel.size() < planeOffset(PLANE_BITS.length, width * height)) {
+				throw new IOException("Save file ends too early");
+			}
+			Game game = new Game(new CachedBoard(width, height, channel, path, budget),
+					readConfig(width, height, numberOfBombs, configuredBombs, seed));
+			setPlaced(game, numberOfBombs, seed);
+			return game;
+		}catch (FileNotFoundException e) {
+			throw e;
+		}catch (IOException e) {
+			try {
+				if (channel != null) {
+					channel.close();
+				}
+			}catch (IOException suppressed) {
+				e.addSuppressed(suppressed);
+			}
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/* Saves a game opened by openCachedGame() to its file, and closes the file. */
+	public void closeCachedGame(Game game) {
+		((CachedBoard) game.getPackedBoard()).close(game.getNumberOfBombs(), configuredBombs(game), headerSeed(game));
+	}
+
+	/* Checks the magic number and version at the start of the buffer. */
+	static void checkHeader(ByteBuffer buffer) throws IOException {
+		if (buffer.getInt() != MAGIC) {
+			throw new IOException("Not a binary minesweeper save");
+		}
+		int version = buffer.getInt();
+		if (version != VERSION) {
+			throw new IOException("Unsupported save version " + version);
+		}
+	}
+
+	/*
+	 * Checks the width and height from a header, so that a broken file gives an
+	 * IOException instead of a board that can not be made.
+	 */
+	static void checkSize(int width, int height) throws IOException {
+		if (width < 1 || height < 1 || (long) width * height > Integer.MAX_VALUE - 8) {
+			throw new IOException("Save file has an invalid board size");
+		}
+	}
+
+	/*
+	 * Returns the config of a game read from a header whose size has been checked.
+	 * Files saved before the configured number of bombs was kept have 0 there, and
+	 * get the number of bombs that were placed, or the number of Game(width, height)
+	 * if none were. A number of bombs that does not fit the board gives an IOException.
+	 */
+	static GameConfig readConfig(int width, int height, int numberOfBombs, int configuredBombs, long seed)
+			throws IOException {
+		int bombs = configuredBombs;
+		if (bombs == 0) {
+			bombs = numberOfBombs > 0 ? numberOfBombs : (int) Math.min(Game.NUMBER_OF_BOMBS, (long) width * height - 1);
+		}
+		if (bombs < 0 || bombs >= (long) width * height) {
+			throw new IOException("Save file has an invalid number of bombs");
+		}
+		return new GameConfig(width, height, bombs, seed);
+	}
+
+	static void setBit(Board board, int index, int bit) {
+		if (bit == Board.BOMB) {
+			board.setBomb(index, true);
+		}else if (bit == Board.OPEN) {
+			board.setOpen(index, true);
+		}else {
+			board.setFlagged(index, true);
+		}
+	}
+
+	/* Reads the given number of bytes from the channel into the cleared buffer. */
+	private static void fill(FileChannel channel, ByteBuffer buffer, int bytes) throws IOException {
+		buffer.clear();
+		buffer.limit(bytes);
+		while (buffer.hasRemaining()) {
+			if (channel.read(buffer) < 0) {
+				throw new IOException("Save file ends too early");
+			}
+		}
+		buffer.flip();
+	}
+
+	/* Opens a channel, and turns a missing file into the FileNotFoundException of IFile. */
+	private static FileChannel open(Path path, StandardOpenOption... options) throws IOException {
+		try {
+			return FileChannel.open(path, options);
+		}catch (NoSuchFileException e) {
+			throw new FileNotFoundException(path.toString());
+		}
+	}
+}
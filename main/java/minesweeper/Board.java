@@ -0,0 +1,367 @@
+package minesweeper;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/*
+ * Storage for the tiles of a board. Every tile is packed into one byte in a flat
+ * array, indexed by y*width + x. The lowest four bits hold the bombCount (0-8),
+ * and the bits above hold if the tile is a bomb, open or flagged. A 20x15 board
+ * therefore takes 300 bytes, instead of 300 Tile objects. Tile objects handed out
+ * by Game are only views into this array.
+ * 
+ * The board also counts bombs, open tiles that are not bombs and flagged bombs as
+ * the tiles change, so that Game can check if the game is won without going
+ * through every tile. It can also keep track of which tiles have changed, so that
+ * only those have to be drawn again, see setTrackChanges(). WriteListeners can
+ * be told about every write as well, see History and Solver.
+ */
+public class Board {
+
+	static final int COUNT = 0x0F;
+	static final int BOMB = 0x10;
+	static final int OPEN = 0x20;
+	static final int FLAGGED = 0x40;
+
+	/*
+	 * Boards with at least this many tiles get their bombCounts computed in
+	 * parallel, in bands of about BAND_TILES tiles.
+	 */
+	static final int PARALLEL_TILES = 1 << 20;
+	static final int BAND_TILES = 1 << 16;
+
+	private final int width, height;
+	private final byte[] cells;
+	private int bombs;
+	private int openedSafe;
+	private int flaggedBombs;
+	private boolean trackChanges;
+	private boolean allChanged;
+	private int[] changed = new int[0];
+	private int changedCount;
+	private WriteListener[] writeListeners = new WriteListener[0];
+	
+	/* Is told the index of every tile that is written, see addWriteListener(). */
+	interface WriteListener {
+		
+		void written(int index);
+		
+		/* Any tile may have been written, without written() being called for it. */
+		void allWritten();
+	}
+
+	public Board(int width, int height) {
+		this(width, height, true);
+	}
+
+	/*
+	 * Constructor for subclasses that store the tiles somewhere else, and therefore
+	 * override get() and set(). No array is made if allocate is false.
+	 */
+	Board(int width, int height, boolean allocate) {
+		if (width < 0 || height < 0 || (long) width * height > Integer.MAX_VALUE - 8) {
+			throw new IllegalArgumentException("Board can not have " + width + "x" + height + " tiles");
+		}
+		this.width = width;
+		this.height = height;
+		this.cells = allocate ? new byte[width * height] : null;
+	}
+
+	/*
+	 * Reads and writes the packed byte of a tile. Every other method goes through
+	 * these two.
+	 */
+	int get(int index) {
+		return cells[index];
+	}
+
+	void set(int index, int value) {
+		cells[index] = (byte) value;
+	}
+
+	public boolean isBomb(int index) {
+		return (get(index) & BOMB) != 0;
+	}
+
+	public boolean isOpen(int index) {
+		return (get(index) & OPEN) != 0;
+	}
+
+	public boolean isFlagged(int index) {
+		return (get(index) & FLAGGED) != 0;
+	}
+
+	public int getBombCount(int index) {
+		return get(index) & COUNT;
+	}
+
+	/*
+	 * The setters below only write the tile if its state changes, and keep the
+	 * counters up to date when they do.
+	 */
+	public void setBomb(int index, boolean bomb) {
+		int cell = get(index);
+		if (((cell & BOMB) != 0) == bomb) {
+			return;
+		}
+		int change = bomb ? 1 : -1;
+		bombs += change;
+		if ((cell & OPEN) != 0) {
+			openedSafe -= change;
+		}
+		if ((cell & FLAGGED) != 0) {
+			flaggedBombs += change;
+		}
+		set(index, cell ^ BOMB);
+		changed(index);
+	}
+
+	public void setOpen(int index, boolean open) {
+		int cell = get(index);
+		if (((cell & OPEN) != 0) == open) {
+			return;
+		}
+		if ((cell & BOMB) == 0) {
+			openedSafe += open ? 1 : -1;
+		}
+		set(index, cell ^ OPEN);
+		changed(index);
+	}
+
+	public void setFlagged(int index, boolean flagged) {
+		int cell = get(index);
+		if (((cell & FLAGGED) != 0) == flagged) {
+			return;
+		}
+		if ((cell & BOMB) != 0) {
+			flaggedBombs += flagged ? 1 : -1;
+		}
+		set(index, cell ^ FLAGGED);
+		changed(index);
+	}
+
+	/*
+	 * Writes the whole packed byte of a tile, for example one copied from another
+	 * board, and keeps the counters up to date.
+	 */
+	void put(int index, int value) {
+		int cell = get(index);
+		if ((byte) cell == (byte) value) {
+			return;
+		}
+		bombs += bit(value, BOMB) - bit(cell, BOMB);
+		openedSafe += (bit(value, OPEN) & ~bit(value, BOMB)) - (bit(cell, OPEN) & ~bit(cell, BOMB));
+		flaggedBombs += (bit(value, FLAGGED) & bit(value, BOMB)) - (bit(cell, FLAGGED) & bit(cell, BOMB));
+		set(index, value);
+		changed(index);
+	}
+
+	private static int bit(int cell, int mask) {
+		return (cell & mask) != 0 ? 1 : 0;
+	}
+
+	public void incBombCount(int index) {
+		int cell = get(index);
+		if ((cell & COUNT) >= 8) {
+			throw new IllegalStateException("bombCount can not exceed maximum number of surrounding tiles.");
+		}
+		set(index, cell + 1);
+		changed(index);
+	}
+
+	/*
+	 * Sets the bombCount of every tile to the number of bombs around it, and to zero
+	 * on bombs. Large boards are split into bands of rows that are counted in
+	 * parallel, see countRows().
+	 */
+	public void computeBombCounts() {
+		allChanged = true;
+		for (WriteListener listener : writeListeners) {
+			listener.allWritten();
+		}
+		if (size() < PARALLEL_TILES) {
+			countRows(0, height);
+		}else {
+			ForkJoinPool.commonPool().invoke(new CountTask(0, height));
+		}
+	}
+
+	/*
+	 * Helper for computeBombCounts(). Counts the rows from (including) top to
+	 * (excluding) bottom in one pass. columns[x] holds the number of bombs in column x
+	 * of the row above, the row itself and the row below, and is moved one row down
+	 * by adding the next row and removing the one that falls out. The bombCount of a
+	 * tile is then the sum of three columns, which is slid along the row the same
+	 * way. Only the bombCount bits of the rows are written, so bands can be counted
+	 * at the same time.
+	 */
+	void countRows(int top, int bottom) {
+		int[] columns = new int[width + 2];
+		for (int x = 0; x < width; x++) {
+			columns[x+1] = bomb(x, top-2) + bomb(x, top-1) + bomb(x, top);
+		}
+		for (int y = top; y < bottom; y++) {
+			for (int x = 0; x < width; x++) {
+				columns[x+1] += bomb(x, y+1) - bomb(x, y-2);
+			}
+			int sum = columns[0] + columns[1];
+			for (int x = 0; x < width; x++) {
+				sum += columns[x+2];
+				int index = y*width + x;
+				int cell = get(index);
+				int count = (cell & BOMB) != 0 ? 0 : sum;
+				if ((cell & COUNT) != count) {
+					set(index, (cell & ~COUNT) | count);
+				}
+				sum -= columns[x];
+			}
+		}
+	}
+
+	/* Helper for countRows(). Returns 1 if (x, y) is on the board and a bomb. */
+	private int bomb(int x, int y) {
+		if (y < 0 || y >= height) {
+			return 0;
+		}
+		return (get(y*width + x) & BOMB) >> 4;
+	}
+
+	/* Splits the rows in two until a band is small enough to count directly. */
+	private class CountTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+		private final int top, bottom;
+
+		CountTask(int top, int bottom) {
+			this.top = top;
+			this.bottom = bottom;
+		}
+
+		@Override
+		protected void compute() {
+			if ((long) (bottom - top) * width <= BAND_TILES || bottom - top == 1) {
+				countRows(top, bottom);
+				return;
+			}
+			int middle = (top + bottom) >>> 1;
+			invokeAll(new CountTask(top, middle), new CountTask(middle, bottom));
+		}
+	}
+
+	/*
+	 * Turns tracking of changed tiles on or off. When it is turned on, every tile
+	 * counts as changed until takeChanges() is called.
+	 */
+	public void setTrackChanges(boolean trackChanges) {
+		this.trackChanges = trackChanges;
+		this.allChanged = trackChanges;
+		this.changedCount = 0;
+	}
+
+	/*
+	 * Returns the indices of the tiles that have changed since the last call, or null
+	 * if changes are not tracked or so many tiles have changed that all of them should
+	 * be treated as changed. A tile can be in the array more than once.
+	 */
+	public int[] takeChanges() {
+		int[] changes = !trackChanges || allChanged ? null : Arrays.copyOf(changed, changedCount);
+		allChanged = false;
+		changedCount = 0;
+		return changes;
+	}
+
+	/*
+	 * Helper for the setters. Remembers that the tile changed. When more than a
+	 * quarter of the board has changed, the indices are no longer kept, since it is
+	 * then about as cheap to handle the whole board.
+	 */
+	private void changed(int index) {
+		for (WriteListener listener : writeListeners) {
+			listener.written(index);
+		}
+		if (!trackChanges || allChanged) {
+			return;
+		}
+		if (changedCount == changed.length) {
+			if (changedCount >= size() / 4 + 16) {
+				allChanged = true;
+				changedCount = 0;
+				return;
+			}
+			changed = Arrays.copyOf(changed, Math.max(16, changedCount * 2));
+		}
+		changed[changedCount++] = index;
+	}
+
+	/*
+	 * Adds a listener that is told about writes. There are seldom more than one or
+	 * two, so they are kept in an array that is made again when one is added.
+	 */
+	void addWriteListener(WriteListener listener) {
+		writeListeners = Arrays.copyOf(writeListeners, writeListeners.length + 1);
+		writeListeners[writeListeners.length - 1] = listener;
+	}
+
+	/* Removes a listener added with addWriteListener(), if it is there. */
+	void removeWriteListener(WriteListener listener) {
+		for (int i = 0; i < writeListeners.length; i++) {
+			if (writeListeners[i] == listener) {
+				WriteListener[] listeners = new WriteListener[writeListeners.length - 1];
+				System.arraycopy(writeListeners, 0, listeners, 0, i);
+				System.arraycopy(writeListeners, i + 1, listeners, i, listeners.length - i);
+				writeListeners = listeners;
+				return;
+			}
+		}
+	}
+
+	/*
+	 * Returns a new board in memory with the same tiles and counters, which shares
+	 * nothing with this one. Changes are not tracked on the copy.
+	 */
+	Board copy() {
+		Board copy = new Board(width, height);
+		if (cells != null) {
+			System.arraycopy(cells, 0, copy.cells, 0, cells.length);
+		}else {
+			for (int index = 0; index < size(); index++) {
+				copy.cells[index] = (byte) get(index);
+			}
+		}
+		copy.setCounters(bombs, openedSafe, flaggedBombs);
+		return copy;
+	}
+
+	/* Used by subclasses that already know the counters when they are made. */
+	void setCounters(int bombs, int openedSafe, int flaggedBombs) {
+		this.bombs = bombs;
+		this.openedSafe = openedSafe;
+		this.flaggedBombs = flaggedBombs;
+	}
+
+	/* Getters for the Board class. */
+	public int getWidth() {
+		return width;
+	}
+
+	public int getHeight() {
+		return height;
+	}
+
+	public int size() {
+		return width * height;
+	}
+
+	public int getBombs() {
+		return bombs;
+	}
+
+	public int getOpenedSafe() {
+		return openedSafe;
+	}
+
+	public int getFlaggedBombs() {
+		return flaggedBombs;
+	}
+}
@@ -0,0 +1,87 @@
+package minesweeper;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+
+/*
+ * Places bombs on a board. Uses Floyd's algorithm for picking a random set of
+ * tiles, which draws exactly one random number per bomb and never has to retry on
+ * a tile that already has a bomb. Placing bombs therefore takes the same time per
+ * bomb on a nearly full board as on an empty one. The bomb bits of the board are
+ * used as the set of picked tiles, so no extra memory is needed.
+ *
+ * The same seed and safe tile always gives the same bombs.
+ */
+public class BombGenerator {
+
+	/*
+	 * Places the given number of bombs on a board without bombs. No bombs are placed
+	 * on the 3x3 area around the safe tile (safeX, safeY), so that the first click
+	 * opens an area. If the board is too full for that, only the safe tile itself is
+	 * kept free. A safe tile outside the board gives no safe area.
+	 */
+	public static void generate(Board board, int bombs, long seed, int safeX, int safeY) {
+		int[] safe = safeTiles(board, safeX, safeY, 1);
+		if (bombs > board.size() - safe.length) {
+			safe = safeTiles(board, safeX, safeY, 0);
+		}
+		generate(board, bombs, seed, safe);
+	}
+
+	/*
+	 * Places the given number of bombs on a board without bombs, on any tile but the
+	 * blocked ones. The indices of the blocked tiles must be sorted. Every bomb takes
+	 * one step per blocked tile in front of it, see toIndex(), so this is meant for
+	 * few blocked tiles, such as the safe area or the tiles opened before the bombs.
+	 */
+	public static void generate(Board board, int bombs, long seed, int[] blocked) {
+		if (board.getBombs() != 0) {
+			throw new IllegalStateException("Board already has bombs");
+		}
+		int free = board.size() - blocked.length;
+		if (bombs < 0 || bombs > free) {
+			throw new IllegalArgumentException("Can not place " + bombs + " bombs on " + free + " free tiles");
+		}
+		SplittableRandom rnd = new SplittableRandom(seed);
+		for (int j = free - bombs; j < free; j++) {
+			int index = toIndex(rnd.nextInt(j + 1), blocked);
+			if (board.isBomb(index)) {
+				index = toIndex(j, blocked);
+			}
+			board.setBomb(index, true);
+		}
+	}
+
+	/*
+	 * Helper for generate(). Returns the sorted indices of the tiles within the given
+	 * distance from (x, y) that are on the board.
+	 */
+	private static int[] safeTiles(Board board, int x, int y, int distance) {
+		int[] safe = new int[9];
+		int length = 0;
+		for (int row = y - distance; row <= y + distance; row++) {
+			for (int col = x - distance; col <= x + distance; col++) {
+				if (col >= 0 && row >= 0 && col < board.getWidth() && row < board.getHeight()) {
+					safe[length++] = row*board.getWidth() + col;
+				}
+			}
+		}
+		return Arrays.copyOf(safe, length);
+	}
+
+	/*
+	 * Helper for generate(). The random numbers count only the tiles that are not
+	 * blocked. This turns such a number into the index of the tile on the board, by
+	 * skipping past the blocked tiles in front of it.
+	 */
+	private static int toIndex(int number, int[] blocked) {
+		for (int index : blocked) {
+			if (index > number) {
+				break;
+			}
+			number++;
+		}
+		return number;
+	}
+}
@@ -0,0 +1,343 @@
+package minesweeper;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+
+/*
+ * A board that reads the tiles of a save file in the format of BinaryFileManager
+ * through a cache of chunks, so that a board larger than memory can be played.
+ * A chunk is CHUNK_TILES tiles in a row (index / CHUNK_TILES), which is one
+ * stretch of bytes in each plane of the file. It is decoded into one byte per tile
+ * when it is first used, as in Board, and kept in one of a fixed number of slots
+ * that fit in the byte budget given to the constructor.
+ *
+ * When every slot is taken, the slot to reuse is picked with the CLOCK algorithm,
+ * which is close to least recently used: every slot has a bit that is set when it
+ * is used, and a hand goes round the slots, clearing the bits, until it finds a
+ * slot whose bit is already clear. A chunk that has been changed is written back
+ * to the file before its slot is reused, so the file is the save of the game, as
+ * with a MappedBoard mapped for writing. flush() writes the rest.
+ *
+ * As in MappedBoard, bombCounts are not stored but counted from the bombs around
+ * a tile when it is read. The hits, misses, evictions and write-backs of the cache
+ * are counted, so the budget can be tuned.
+ *
+ * The stack of a cascade is kept by Game, and has a fixed size, see
+ * Game.MAX_CASCADE_STACK, so a cascade over the whole board fits in memory as well.
+ * A copy would be an ordinary Board with every tile in memory, so copy(), and with
+ * it Game(Game) and fork(), is not supported. The game is saved by flush() instead.
+ */
+public class CachedBoard extends Board {
+
+	static final int CHUNK_BITS = 12;
+	static final int CHUNK_TILES = 1 << CHUNK_BITS;
+	static final int MIN_SLOTS = 3;
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	private final FileChannel channel;
+	private final Path path;
+	private final long[] planes = new long[BinaryFileManager.PLANE_BITS.length];
+	private final int[] chunkSlot;
+	private final int[] slotChunk;
+	private final byte[][] slotCells;
+	private final boolean[] referenced;
+	private final boolean[] dirty;
+	private final ByteBuffer buffer = ByteBuffer.allocate((CHUNK_TILES / 8) * BinaryFileManager.PLANE_BITS.length);
+	private int hand;
+	private long hits, misses, evictions, writeBacks;
+
+	/*
+	 * Makes a board on an open save file, with as many slots as fit in budget bytes,
+	 * but at least MIN_SLOTS. The channel must be open for reading and writing, and
+	 * is closed by close().
+	 */
+	CachedBoard(int width, int height, FileChannel channel, Path path, long budget) throws IOException {
+		super(width, height, false);
+		this.channel = channel;
+		this.path = path;
+		for (int plane = 0; plane < planes.length; plane++) {
+			planes[plane] = BinaryFileManager.planeOffset(plane, size());
+		}
+		this.chunkSlot = new int[(size() + CHUNK_TILES - 1) >> CHUNK_BITS];
+		Arrays.fill(chunkSlot, -1);
+		int slots = (int) Math.max(MIN_SLOTS, Math.min(budget / CHUNK_TILES, chunkSlot.length));
+		this.slotChunk = new int[slots];
+		Arrays.fill(slotChunk, -1);
+		this.slotCells = new byte[slots][];
+		this.referenced = new boolean[slots];
+		this.dirty = new boolean[slots];
+		countTiles();
+	}
+
+	/*
+	 * Helper for the constructor. Finds the counters of the board by reading the
+	 * three planes side by side, BUFFER_SIZE bytes of each at a time.
+	 */
+	private void countTiles() throws IOException {
+		long planeSize = BinaryFileManager.planeSize(size());
+		ByteBuffer[] buffers = new ByteBuffer[planes.length];
+		for (int plane = 0; plane < planes.length; plane++) {
+			buffers[plane] = ByteBuffer.allocate(BUFFER_SIZE);
+		}
+		int bombs = 0;
+		int openedSafe = 0;
+		int flaggedBombs = 0;
+		for (long position = 0; position < planeSize; position += BUFFER_SIZE) {
+			int length = (int) Math.min(BUFFER_SIZE, planeSize - position);
+			for (int plane = 0; plane < planes.length; plane++) {
+				buffers[plane].clear().limit(length);
+				read(buffers[plane], planes[plane] + position);
+			}
+			for (int i = 0; i < length; i++) {
+				int bomb = buffers[BinaryFileManager.BOMB_PLANE].get(i) & 0xFF;
+				bombs += Integer.bitCount(bomb);
+				openedSafe += Integer.bitCount(buffers[BinaryFileManager.OPEN_PLANE].get(i) & 0xFF & ~bomb);
+				flaggedBombs += Integer.bitCount(buffers[BinaryFileManager.FLAGGED_PLANE].get(i) & bomb);
+			}
+		}
+		setCounters(bombs, openedSafe, flaggedBombs);
+	}
+
+	@Override
+	int get(int index) {
+		int cell = cell(index);
+		if ((cell & BOMB) == 0) {
+			cell |= countAround(index);
+		}
+		return cell;
+	}
+
+	/*
+	 * The bits are read without counting the bombs around the tile, which a cascade
+	 * and Game.rescan() check on every tile around the ones they open.
+	 */
+	@Override
+	public boolean isBomb(int index) {
+		return (cell(index) & BOMB) != 0;
+	}
+
+	@Override
+	public boolean isOpen(int index) {
+		return (cell(index) & OPEN) != 0;
+	}
+
+	@Override
+	public boolean isFlagged(int index) {
+		return (cell(index) & FLAGGED) != 0;
+	}
+
+	/* Writes the bomb, open and flagged bits. The bombCount bits are ignored. */
+	@Override
+	void set(int index, int value) {
+		int slot = slot(index >> CHUNK_BITS);
+		slotCells[slot][index & (CHUNK_TILES - 1)] = (byte) (value & (BOMB | OPEN | FLAGGED));
+		dirty[slot] = true;
+	}
+
+	/* Not supported, since the copy would have every tile of the board in memory. */
+	@Override
+	Board copy() {
+		throw new UnsupportedOperationException("A CachedBoard can not be copied");
+	}
+
+	/* The bombCounts are counted when a tile is read, so there is nothing to do. */
+	@Override
+	public void computeBombCounts() {
+	}
+
+	/* Helper for get(). Counts the bombs around the tile with the given index. */
+	private int countAround(int index) {
+		int x = index % getWidth();
+		int y = index / getWidth();
+		int count = 0;
+		for (int row = Math.max(0, y-1); row <= Math.min(getHeight()-1, y+1); row++) {
+			for (int col = Math.max(0, x-1); col <= Math.min(getWidth()-1, x+1); col++) {
+				if ((cell(row*getWidth() + col) & BOMB) != 0) {
+					count++;
+				}
+			}
+		}
+		return count;
+	}
+
+	/* Returns the bomb, open and flagged bits of a tile, from the cache. */
+	private int cell(int index) {
+		return slotCells[slot(index >> CHUNK_BITS)][index & (CHUNK_TILES - 1)];
+	}
+
+	/*
+	 * Returns the slot that holds the chunk, and reads the chunk into a slot first if
+	 * it is not in the cache. See the class comment for how the slot is picked.
+	 */
+	private int slot(int chunk) {
+		int slot = chunkSlot[chunk];
+		if (slot >= 0) {
+			hits++;
+			referenced[slot] = true;
+			return slot;
+		}
+		misses++;
+		while (slotChunk[hand] >= 0 && referenced[hand]) {
+			referenced[hand] = false;
+			hand = (hand + 1) % slotChunk.length;
+		}
+		slot = hand;
+		hand = (hand + 1) % slotChunk.length;
+		try {
+			if (slotChunk[slot] >= 0) {
+				if (dirty[slot]) {
+					writeBack(slot);
+				}
+				chunkSlot[slotChunk[slot]] = -1;
+				evictions++;
+			}
+			load(chunk, slot);
+		}catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		chunkSlot[chunk] = slot;
+		slotChunk[slot] = chunk;
+		referenced[slot] = true;
+		dirty[slot] = false;
+		return slot;
+	}
+
+	/* Helper for slot(). Reads the three planes of a chunk and decodes them into the slot. */
+	private void load(int chunk, int slot) throws IOException {
+		if (slotCells[slot] == null) {
+			slotCells[slot] = new byte[CHUNK_TILES];
+		}
+		byte[] cells = slotCells[slot];
+		int first = chunk << CHUNK_BITS;
+		int tiles = Math.min(CHUNK_TILES, size() - first);
+		int bytes = (tiles + 7) / 8;
+		for (int plane = 0; plane < planes.length; plane++) {
+			buffer.clear().position(plane * bytes).limit((plane + 1) * bytes);
+			read(buffer, planes[plane] + first / 8);
+		}
+		for (int i = 0; i < tiles; i++) {
+			int cell = 0;
+			for (int plane = 0; plane < planes.length; plane++) {
+				if ((buffer.get(plane * bytes + (i >>> 3)) & (1 << (i & 7))) != 0) {
+					cell |= BinaryFileManager.PLANE_BITS[plane];
+				}
+			}
+			cells[i] = (byte) cell;
+		}
+	}
+
+	/* Packs the tiles of a slot into the three planes, and writes them to the file. */
+	private void writeBack(int slot) throws IOException {
+		byte[] cells = slotCells[slot];
+		int first = slotChunk[slot] << CHUNK_BITS;
+		int tiles = Math.min(CHUNK_TILES, size() - first);
+		for (int plane = 0; plane < planes.length; plane++) {
+			int bit = BinaryFileManager.PLANE_BITS[plane];
+			buffer.clear();
+			for (int i = 0; i < tiles; i += 8) {
+				int packed = 0;
+				for (int j = 0; j < 8 && i + j < tiles; j++) {
+					if ((cells[i + j] & bit) != 0) {
+						packed |= 1 << j;
+					}
+				}
+				buffer.put((byte) packed);
+			}
+			buffer.flip();
+			long position = planes[plane] + first / 8;
+			while (buffer.hasRemaining()) {
+				position += channel.write(buffer, position);
+			}
+		}
+		dirty[slot] = false;
+		writeBacks++;
+	}
+
+	private void read(ByteBuffer target, long position) throws IOException {
+		while (target.hasRemaining()) {
+			int read = channel.read(target, position);
+			if (read < 0) {
+				throw new IOException("Save file ends too early");
+			}
+			position += read;
+		}
+	}
+
+	/*
+	 * Writes the changed chunks, numberOfBombs, the configured number of bombs and
+	 * seed to the file, and makes sure they are on disk.
+	 */
+	void flush(int numberOfBombs, int configuredBombs, long seed) {
+		try {
+			for (int slot = 0; slot < slotChunk.length; slot++) {
+				if (slotChunk[slot] >= 0 && dirty[slot]) {
+					writeBack(slot);
+				}
+			}
+			ByteBuffer header = ByteBuffer.allocate(16);
+			header.putInt(numberOfBombs);
+			header.putInt(configuredBombs);
+			header.putLong(seed);
+			header.flip();
+			while (header.hasRemaining()) {
+				channel.write(header, 16 + header.position());
+			}
+			channel.force(false);
+		}catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/* Writes the changed chunks to the file, and closes it. The board can not be used after this. */
+	void close(int numberOfBombs, int configuredBombs, long seed) {
+		flush(numberOfBombs, configuredBombs, seed);
+		try {
+			channel.close();
+		}catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/* Returns true if changes go to the file at the given path. */
+	boolean writesTo(Path path) {
+		return this.path.equals(path);
+	}
+
+	/* Statistics of the cache. */
+	public long getHits() {
+		return hits;
+	}
+
+	public long getMisses() {
+		return misses;
+	}
+
+	public long getEvictions() {
+		return evictions;
+	}
+
+	public long getWriteBacks() {
+		return writeBacks;
+	}
+
+	/* Returns the number of slots, which is the most chunks the cache holds at once. */
+	public int getSlots() {
+		return slotChunk.length;
+	}
+
+	/* Returns the number of chunks in the cache now. */
+	public int getCachedChunks() {
+		int cached = 0;
+		for (int chunk : slotChunk) {
+			if (chunk >= 0) {
+				cached++;
+			}
+		}
+		return cached;
+	}
+}
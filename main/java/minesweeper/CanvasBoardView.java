@@ -0,0 +1,205 @@
+package minesweeper;
+
+import javafx.geometry.VPos;
+import javafx.scene.SnapshotParameters;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.Image;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.input.ScrollEvent;
+import javafx.scene.layout.Pane;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.FontWeight;
+import javafx.scene.text.TextAlignment;
+
+
+/*
+ * Draws a game on a single Canvas instead of one node per tile, for boards that
+ * are too large for the GridPane in GameController. Only the tiles inside the
+ * visible part of the board (the viewport) are painted. Scrolling moves the
+ * viewport, and scrolling while holding Ctrl zooms around the mouse pointer. The
+ * digits, the flag and the bomb are drawn from images that are made once, so a
+ * tile is painted with one fillRect() and at most one drawImage().
+ *
+ * Clicks are turned into tile coordinates by dividing by the tile size, and given
+ * to the ClickHandler with the mouse event.
+ */
+public class CanvasBoardView extends Pane {
+
+	/* Called with the tile that was clicked, and the mouse event of the click. */
+	public interface ClickHandler {
+		void handle(int x, int y, MouseEvent event);
+	}
+
+	private static final Color OPEN_COLOR = Color.web("#b0e0e6");
+	private static final Color CLOSED_COLOR = Color.web("#000080");
+	private static final Color BORDER_COLOR = Color.web("#7b68ee");
+	private static final double GLYPH_SIZE = 64.0;
+	private static final double MIN_TILE_SIZE = 2.0;
+	private static final double MAX_TILE_SIZE = 64.0;
+	private static final double DEFAULT_TILE_SIZE = 16.0;
+
+	private final Canvas canvas = new Canvas();
+	private final Image[] digits = new Image[9];
+	private final Image flag;
+	private final Image bomb;
+	private Game game;
+	private double tileSize = DEFAULT_TILE_SIZE;
+	private double offsetX, offsetY;
+
+	public CanvasBoardView(ClickHandler clickHandler) {
+		getChildren().add(canvas);
+		for (int count = 1; count <= 8; count++) {
+			digits[count] = renderDigit(count);
+		}
+		flag = new Image(getClass().getResource("flag.png").toString(), GLYPH_SIZE, GLYPH_SIZE, true, true);
+		bomb = new Image(getClass().getResource("smiley.png").toString(), GLYPH_SIZE, GLYPH_SIZE, true, true);
+
+		widthProperty().addListener(e -> resize());
+		heightProperty().addListener(e -> resize());
+		canvas.setOnMouseClicked(e -> {
+			int x = (int) Math.floor((e.getX() + offsetX) / tileSize);
+			int y = (int) Math.floor((e.getY() + offsetY) / tileSize);
+			if (game != null && game.isTile(x, y)) {
+				clickHandler.handle(x, y, e);
+			}
+		});
+		canvas.setOnScroll(this::handleOnScroll);
+	}
+
+	/* Helper for the constructor. Draws a digit once, so it can be copied to tiles. */
+	private static Image renderDigit(int count) {
+		Canvas glyph = new Canvas(GLYPH_SIZE, GLYPH_SIZE);
+		GraphicsContext gc = glyph.getGraphicsContext2D();
+		gc.setFill(Color.BLACK);
+		gc.setFont(Font.font("Tahoma", FontWeight.BOLD, GLYPH_SIZE * 0.75));
+		gc.setTextAlign(TextAlignment.CENTER);
+		gc.setTextBaseline(VPos.CENTER);
+		gc.fillText(String.valueOf(count), GLYPH_SIZE / 2, GLYPH_SIZE / 2);
+		SnapshotParameters parameters = new SnapshotParameters();
+		parameters.setFill(Color.TRANSPARENT);
+		return glyph.snapshot(parameters, null);
+	}
+
+	/* Shows a new game, from the top left corner of the board. */
+	public void setGame(Game game) {
+		this.game = game;
+		this.offsetX = 0;
+		this.offsetY = 0;
+		double fit = Math.min(getWidth() / game.getWidth(), getHeight() / game.getHeight());
+		this.tileSize = clamp(fit > 0 ? fit : DEFAULT_TILE_SIZE, MIN_TILE_SIZE, MAX_TILE_SIZE);
+		draw(null);
+	}
+
+	/*
+	 * Paints the tiles with the given indices (y*width + x) that are in the viewport,
+	 * or every tile in the viewport if changed is null.
+	 */
+	public void draw(int[] changed) {
+		if (game == null) {
+			return;
+		}
+		GraphicsContext gc = canvas.getGraphicsContext2D();
+		if (changed == null) {
+			gc.setFill(Color.WHITE);
+			gc.fillRect(0, 0, canvas.getWidth(), canvas.getHeight());
+			int firstX = Math.max(0, (int) (offsetX / tileSize));
+			int firstY = Math.max(0, (int) (offsetY / tileSize));
+			int lastX = Math.min(game.getWidth() - 1, (int) ((offsetX + canvas.getWidth()) / tileSize));
+			int lastY = Math.min(game.getHeight() - 1, (int) ((offsetY + canvas.getHeight()) / tileSize));
+			for (int y = firstY; y <= lastY; y++) {
+				for (int x = firstX; x <= lastX; x++) {
+					drawTile(gc, x, y);
+				}
+			}
+			return;
+		}
+		for (int index : changed) {
+			int x = index % game.getWidth();
+			int y = index / game.getWidth();
+			if (isVisible(x, y)) {
+				drawTile(gc, x, y);
+			}
+		}
+	}
+
+	/* Helper for draw(). Returns true if some of the tile is inside the viewport. */
+	private boolean isVisible(int x, int y) {
+		return (x + 1) * tileSize > offsetX && x * tileSize < offsetX + canvas.getWidth()
+				&& (y + 1) * tileSize > offsetY && y * tileSize < offsetY + canvas.getHeight();
+	}
+
+	/* Helper for draw(). Paints one tile. */
+	private void drawTile(GraphicsContext gc, int x, int y) {
+		Tile tile = game.getTile(x, y);
+		double left = x * tileSize - offsetX;
+		double top = y * tileSize - offsetY;
+		boolean border = tileSize >= 6;
+		gc.setFill(border ? BORDER_COLOR : (tile.getIsOpen() ? OPEN_COLOR : CLOSED_COLOR));
+		gc.fillRect(left, top, tileSize, tileSize);
+		if (border) {
+			gc.setFill(tile.getIsOpen() ? OPEN_COLOR : CLOSED_COLOR);
+			gc.fillRect(left + 1, top + 1, tileSize - 2, tileSize - 2);
+		}
+		if (tileSize < 6) {
+			return;
+		}
+		Image glyph = null;
+		if (tile.getIsFlagged()) {
+			glyph = flag;
+		}else if (tile.getIsOpen() && tile.isBomb()) {
+			glyph = bomb;
+		}else if (tile.getIsOpen() && tile.getBombCount() != 0) {
+			glyph = digits[tile.getBombCount()];
+		}
+		if (glyph != null) {
+			gc.drawImage(glyph, left + 1, top + 1, tileSize - 2, tileSize - 2);
+		}
+	}
+
+	/*
+	 * Moves the viewport when scrolling, or zooms when Ctrl is held. Zooming keeps
+	 * the point of the board under the mouse pointer in place.
+	 */
+	private void handleOnScroll(ScrollEvent e) {
+		if (game == null) {
+			return;
+		}
+		if (e.isControlDown()) {
+			double zoomed = clamp(tileSize * Math.pow(1.1, e.getDeltaY() / 40), MIN_TILE_SIZE, MAX_TILE_SIZE);
+			offsetX = (offsetX + e.getX()) * zoomed / tileSize - e.getX();
+			offsetY = (offsetY + e.getY()) * zoomed / tileSize - e.getY();
+			tileSize = zoomed;
+		}else if (e.isShiftDown()) {
+			offsetX -= e.getDeltaY();
+		}else {
+			offsetX -= e.getDeltaX();
+			offsetY -= e.getDeltaY();
+		}
+		clampOffsets();
+		draw(null);
+		e.consume();
+	}
+
+	/* Makes the canvas as large as the view, and paints it again. */
+	private void resize() {
+		canvas.setWidth(getWidth());
+		canvas.setHeight(getHeight());
+		clampOffsets();
+		draw(null);
+	}
+
+	/* Keeps the viewport from moving past the edges of the board. */
+	private void clampOffsets() {
+		if (game == null) {
+			return;
+		}
+		offsetX = clamp(offsetX, 0, Math.max(0, game.getWidth() * tileSize - canvas.getWidth()));
+		offsetY = clamp(offsetY, 0, Math.max(0, game.getHeight() * tileSize - canvas.getHeight()));
+	}
+
+	private static double clamp(double value, double min, double max) {
+		return Math.max(min, Math.min(max, value));
+	}
+}
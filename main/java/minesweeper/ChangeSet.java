@@ -0,0 +1,129 @@
+package minesweeper;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+
+/*
+ * The changes one or more moves made to a game, copied so they can be handed from
+ * the thread that plays the game to the thread that draws it. A change set is not
+ * changed after it is made, so it can be read from any thread.
+ *
+ * It holds the indices (y*width + x) and packed bytes of the tiles that changed,
+ * or of every tile if tiles is null, the state of the game after the moves, and
+ * the moves themselves, and if the moves started the game. See GameExecutor.
+ */
+public final class ChangeSet {
+
+	private final int[] tiles;
+	private final byte[] states;
+	private final int numberOfBombs;
+	private final long seed;
+	private final boolean gameOver;
+	private final List<Move> moves;
+	private final boolean startsGame;
+
+	private ChangeSet(int[] tiles, byte[] states, int numberOfBombs, long seed, boolean gameOver, List<Move> moves,
+			boolean startsGame) {
+		this.tiles = tiles;
+		this.states = states;
+		this.numberOfBombs = numberOfBombs;
+		this.seed = seed;
+		this.gameOver = gameOver;
+		this.moves = Collections.unmodifiableList(moves);
+		this.startsGame = startsGame;
+	}
+
+	/*
+	 * Copies the tiles of the game with the given indices, or every tile if changed
+	 * is null, and the state of the game. startsGame tells if the moves placed the
+	 * bombs. Must be called on the thread that plays the game.
+	 */
+	static ChangeSet of(Game game, int[] changed, List<Move> moves, boolean startsGame) {
+		Board board = game.getPackedBoard();
+		byte[] states = new byte[changed == null ? board.size() : changed.length];
+		for (int i = 0; i < states.length; i++) {
+			states[i] = (byte) board.get(changed == null ? i : changed[i]);
+		}
+		return new ChangeSet(changed, states, game.getNumberOfBombs(), game.getSeed(), game.isGameOver(),
+				new ArrayList<>(moves), startsGame);
+	}
+
+	/*
+	 * Returns a change set with the changes of this one followed by the changes of a
+	 * later one, so that applying it gives the same game as applying both.
+	 */
+	ChangeSet merge(ChangeSet later) {
+		List<Move> merged = new ArrayList<>(moves);
+		merged.addAll(later.moves);
+		int[] mergedTiles;
+		byte[] mergedStates;
+		if (later.tiles == null) {
+			mergedTiles = null;
+			mergedStates = later.states;
+		}else if (tiles == null) {
+			mergedTiles = null;
+			mergedStates = states.clone();
+			for (int i = 0; i < later.tiles.length; i++) {
+				mergedStates[later.tiles[i]] = later.states[i];
+			}
+		}else {
+			mergedTiles = new int[tiles.length + later.tiles.length];
+			mergedStates = new byte[mergedTiles.length];
+			System.arraycopy(tiles, 0, mergedTiles, 0, tiles.length);
+			System.arraycopy(later.tiles, 0, mergedTiles, tiles.length, later.tiles.length);
+			System.arraycopy(states, 0, mergedStates, 0, states.length);
+			System.arraycopy(later.states, 0, mergedStates, states.length, later.states.length);
+		}
+		return new ChangeSet(mergedTiles, mergedStates, later.numberOfBombs, later.seed, later.gameOver, merged,
+				startsGame || later.startsGame);
+	}
+
+	/*
+	 * Makes the changes on a copy of the game, which must have the same size. The
+	 * tiles that change are tracked by the copy as usual, see Game.takeChangedTiles().
+	 */
+	public void applyTo(Game game) {
+		Board board = game.getPackedBoard();
+		if (tiles == null) {
+			if (states.length != board.size()) {
+				throw new IllegalArgumentException("Change set is for another board size");
+			}
+			for (int i = 0; i < states.length; i++) {
+				board.put(i, states[i]);
+			}
+		}else {
+			for (int i = 0; i < tiles.length; i++) {
+				board.put(tiles[i], states[i]);
+			}
+		}
+		game.setNumberOfBombs(numberOfBombs);
+		game.setSeed(seed);
+		game.setGameOver(gameOver);
+		game.checkGameWon();
+	}
+
+	/* Returns the moves that were made, in order. */
+	public List<Move> getMoves() {
+		return moves;
+	}
+
+	/* Returns the number of tiles in the change set. */
+	public int getTileCount() {
+		return states.length;
+	}
+
+	/* Returns true if the change set has every tile of the board. */
+	public boolean isFull() {
+		return tiles == null;
+	}
+
+	/*
+	 * Returns true if the moves placed the bombs. A game that is loaded has its bombs
+	 * already, so the first change set of it is full, but does not start the game.
+	 */
+	public boolean startsGame() {
+		return startsGame;
+	}
+}
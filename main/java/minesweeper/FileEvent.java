@@ -0,0 +1,27 @@
+package minesweeper;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+
+/* A JFR event for every game saved or loaded through a MeteredFileManager or an AsyncFileManager. */
+@Name("minesweeper.File")
+@Label("Save or Load")
+@Category("Minesweeper")
+@Description("A game saved to or loaded from a file")
+class FileEvent extends Event {
+
+	@Label("Save")
+	@Description("True for a save, false for a load")
+	boolean save;
+
+	@Label("Filename")
+	String filename;
+
+	@Label("Tiles")
+	@Description("The tiles of the board, or 0 for moves added to a journal in the background")
+	int tiles;
+}
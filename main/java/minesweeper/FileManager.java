@@ -17,7 +17,7 @@ public class FileManager implements IFile {
 	 * getUserFolderPath() + name of the file. Methods getUserFolderPath(), 
 	 * getFullPath() and ensureUserFolder() from TodoList example.
 	 */
-	private static Path getUserFolderPath() {
+	static Path getUserFolderPath() {
         return Path.of(System.getProperty("user.home"), "tdt4100", "minesweeper");
     }
 	
@@ -25,7 +25,7 @@ public class FileManager implements IFile {
 	        return getUserFolderPath().resolve(filename + ".txt");
 	}
 	 
-	private boolean ensureUserFolder() {
+	static boolean ensureUserFolder() {
 	        try {
 	            Files.createDirectories(getUserFolderPath());
 	            return true;
@@ -75,7 +75,8 @@ public class FileManager implements IFile {
 	 * This method locates the file with given filename in the path the file is saved
 	 * to. The Scanner reads the text file, which is the saved state of the game,
 	 * and instantiates a new Game object with the information from the text file.
-	 * The method then returns the game.
+	 * The number of bombs is the number of bombs on the saved board. The method then
+	 * returns the game.
 	 */
 	@Override
 	public Game readGameFromFile(String filename) throws FileNotFoundException {
@@ -108,7 +109,7 @@ public class FileManager implements IFile {
 				}
 			}
 			game.bombCount();
-			game.setNumberOfBombsToOriginal();
+			game.setNumberOfBombs(game.getPackedBoard().getBombs());
 			return game;
 		}
 	}
@@ -1,39 +1,96 @@
 package minesweeper;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 import java.util.Random;
 
 
 public class Game {
 
 	private int height, width;
-	private Tile[][] board;
+	private Board board;
+	private GameConfig config;
 	private int numberOfBombs;
+	private long seed;
 	private boolean gameWon = false;
 	private boolean gameOver = false;
+	private int[] cascadeStack = new int[0];
+	private byte[] cascadeNext = new byte[0];
+	private long[] cascadeMarked = new long[0];
+	private boolean cascadeOverflow;
 	public static final int NUMBER_OF_BOMBS = 55;
 	
-	/* Constructor from lecture. */
+	/*
+	 * The stack of cascade() never grows past this many tiles. Tiles that do not fit
+	 * mark their chunk of 1 << CASCADE_CHUNK_BITS tiles instead, see rescan().
+	 */
+	static final int MAX_CASCADE_STACK = 1 << 16;
+	private static final int CASCADE_CHUNK_BITS = 12;
+	
+	private static final int SNAPSHOT_HEADER_SIZE = 8;
+	private static final int SNAPSHOT_BUFFER_SIZE = 1 << 13;
+	private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+	private static final long FNV_PRIME = 0x100000001b3L;
+	
+	/*
+	 * Constructor from lecture. The game gets NUMBER_OF_BOMBS bombs, or one less
+	 * than the number of tiles if the board is too small for that.
+	 */
 	public Game(int width, int height) {
 		this.height = height;
 		this.width = width;
-		this.board = new Tile[height][width];
-
-		for (int y = 0; y < height; y++) {
-			for (int x = 0; x < width; x++) {
-				board[y][x] = new Tile(x, y);
-			}
+		this.board = new Board(width, height);
+		this.config = defaultConfig(width, height);
+	}
+	
+	/* Makes an empty game with the size, number of bombs and seed of the config. */
+	public Game(GameConfig config) {
+		this.height = config.getHeight();
+		this.width = config.getWidth();
+		this.board = new Board(width, height);
+		this.config = config;
+	}
+	
+	/* Makes a game on an existing board, with the number of bombs of Game(width, height). */
+	public Game(Board board) {
+		this(board, defaultConfig(board.getWidth(), board.getHeight()));
+	}
+	
+	/* Makes a game on an existing board with the given settings, for example a saved game. */
+	public Game(Board board, GameConfig config) {
+		this.height = board.getHeight();
+		this.width = board.getWidth();
+		this.board = board;
+		this.config = config;
+	}
+	
+	private static GameConfig defaultConfig(int width, int height) {
+		if (width <= 0 || height <= 0) {
+			return null;
 		}
+		return new GameConfig(width, height, (int) Math.min(NUMBER_OF_BOMBS, (long) width * height - 1), 0);
 	}
 	
 	/*
-	 * Clone-constructor made ONLY for test-purposes (FileManager)
+	 * Makes a copy of the game that shares nothing with it, so that either can be
+	 * played without changing the other. The tiles are copied in one array copy, see
+	 * Board.copy(). Changes are not tracked on the copy.
 	 */
 	public Game(Game game) {
-		this.height = game.getHeight();
-		this.width = game.getWidth();
-		this.board = game.getBoard();
+		this(game.getPackedBoard().copy(), game.config);
+		this.numberOfBombs = game.numberOfBombs;
+		this.seed = game.seed;
+		this.gameWon = game.gameWon;
+		this.gameOver = game.gameOver;
+	}
+	
+	/* Returns a copy of the game, for example to try a move without making it. */
+	public Game fork() {
+		return new Game(this);
 	}
 	
 	/*
@@ -52,7 +109,7 @@ public class Game {
 		if (!isTile(x, y)) {
 			throw new IllegalArgumentException("Coordinates out of bounds");
 		}
-		return this.board[y][x];
+		return new Tile(board, y*width + x, x, y);
 	}
 	
 	/*
@@ -67,96 +124,264 @@ public class Game {
 	}
 
 	/*
-	 * Generates bombs on random locations within the boards limits. If the board
-	 * location already has a bomb, or the tile on said location is open
-	 * (this prevents losing on first click) a new location will be generated for the
-	 * bomb.
+	 * Generates the number of bombs in the config of the game on random locations
+	 * within the boards limits. No bombs are placed on tiles that are already open,
+	 * so a tile opened before the bombs are generated is never a bomb.
 	 */
 	public void generateBombs() {
-		this.numberOfBombs = 0;
-		Random rnd = new Random();
-
-		while (this.numberOfBombs < NUMBER_OF_BOMBS) {
-			int x = rnd.nextInt(getWidth() - 1);
-			int y = rnd.nextInt(getHeight() - 1);
-
-			while (getTile(x, y).isBomb() || getTile(x, y).getIsOpen()) {
-				x = rnd.nextInt(getWidth() - 1);
-				y = rnd.nextInt(getHeight() - 1);
+		int[] open = new int[board.getOpenedSafe()];
+		int length = 0;
+		for (int i = 0; i < board.size() && length < open.length; i++) {
+			if (board.isOpen(i)) {
+				open[length++] = i;
 			}
-			board[y][x].setBomb();
-			this.numberOfBombs++;
 		}
+		long seed = new Random().nextLong();
+		BombGenerator.generate(board, config.getBombs(), seed, open);
+		this.numberOfBombs = config.getBombs();
+		this.seed = seed;
 	}
 	
 	/*
-	 * The bombCount field of a tile is incremented if there is a bomb in proximity 
-	 * to the  tile. This method uses the updateBombCount()-method as a helper. The
-	 * coordinates around the bombs that are checked are: 
+	 * Generates the given number of bombs on locations picked from the seed. No bombs
+	 * are placed on or around the tile (safeX, safeY), which is the tile of the first
+	 * click, so the player will not lose on first click. See BombGenerator.
+	 */
+	public void generateBombs(int numberOfBombs, long seed, int safeX, int safeY) {
+		BombGenerator.generate(board, numberOfBombs, seed, safeX, safeY);
+		this.numberOfBombs = numberOfBombs;
+		this.seed = seed;
+	}
+	
+	/*
+	 * Like generateBombs(), but places the bombs so that the game can be won from the
+	 * tile (safeX, safeY) without guessing, see NoGuessGenerator. Returns false if no
+	 * such board was found in time, and the bombs were placed at random instead.
+	 */
+	public boolean generateNoGuessBombs(int numberOfBombs, long seed, int safeX, int safeY) {
+		boolean noGuess = NoGuessGenerator.generate(board, numberOfBombs, seed, safeX, safeY);
+		this.numberOfBombs = numberOfBombs;
+		this.seed = seed;
+		return noGuess;
+	}
+	
+	/*
+	 * The bombCount field of a tile is set to the number of bombs in proximity
+	 * to the tile. The coordinates around a tile that are checked are: 
 	 * (-1, 1); (-1, 0); (-1, -1)
-	 * (0, 1);  (BOMB);  (0, -1) 
+	 * (0, 1);  (TILE);  (0, -1) 
 	 * (1, 1);  (1, 0);  (1, -1)
+	 * Tiles with a bomb get a bombCount of zero. The counting itself is done by
+	 * Board.computeBombCounts().
 	 */
 	public void bombCount() {
-		for (int y = 0; y < getHeight(); y++) {
-			for (int x = 0; x < getWidth(); x++) {
-				updateBombCount(x, y);
+		board.computeBombCounts();
+	}
+
+	/*
+	 * Opens a tile. If the tile is already open, nothing happens. If the
+	 * tile is a bomb, gameOver == true, and the game is lost. If the tile does not
+	 * contain a bomb and has a bombCount equal to zero, the tiles around it are
+	 * opened as well, see cascade(). Returns the number of tiles that were opened.
+	 */
+	public int openTile(Tile tile) {
+		if (tile.getIsOpen()) {
+			return 0;
+		}
+		tile.setIsOpen(true);
+		tile.setIsFlagged(false);
+		if (tile.isBomb()) {
+			gameOver = true;
+			revealAllBombs();
+			return 1;
+		}
+		return 1 + cascade(tile.getX(), tile.getY());
+	}
+	
+	/*
+	 * Helper for openTile(). Opens every tile reachable from the already opened tile
+	 * at (x, y) through tiles with a bombCount of zero. This used to be done by
+	 * openTile() calling itself, which overflows the stack on large boards. The
+	 * recursion is instead kept on an explicit stack of tile indices (y*width + x),
+	 * where cascadeNext holds which of the nine surrounding positions the tile on
+	 * that level should check next. This opens the tiles in the same order as the
+	 * recursive version did, and every tile is pushed at most once since it is
+	 * opened before it is pushed. The stack arrays are kept between calls.
+	 *
+	 * The stack is bounded by MAX_CASCADE_STACK, so that a cascade over a board
+	 * larger than memory, see CachedBoard, needs no more memory than a small one. A
+	 * tile that does not fit is already open, so only its chunk is marked, and the
+	 * cascade goes on from it when the marked chunks are scanned, see rescan(). The
+	 * tiles are then opened in another order, but the same tiles are opened.
+	 */
+	private int cascade(int x, int y) {
+		if (board.getBombCount(y*width + x) != 0) {
+			return 0;
+		}
+		return cascade(push(0, y*width + x));
+	}
+	
+	/*
+	 * Helper for cascade(x, y) and chord(). Runs the cascade from the tiles on the
+	 * stack, and then from the tiles that did not fit on it.
+	 */
+	private int cascade(int top) {
+		int opened = drain(top);
+		while (cascadeOverflow) {
+			cascadeOverflow = false;
+			opened += rescan();
+		}
+		return opened;
+	}
+	
+	/* Helper for cascade(). Runs the cascade until the stack is empty. */
+	private int drain(int top) {
+		int opened = 0;
+		while (top > 0) {
+			int next = cascadeNext[top-1];
+			if (next == 9) {
+				top--;
+				continue;
+			}
+			cascadeNext[top-1]++;
+			int col = cascadeStack[top-1] % width - 1 + next % 3;
+			int row = cascadeStack[top-1] / width - 1 + next / 3;
+			if (!isTile(col, row)) {
+				continue;
+			}
+			int index = row*width + col;
+			if (board.isBomb(index) || board.isOpen(index)) {
+				continue;
+			}
+			board.setOpen(index, true);
+			board.setFlagged(index, false);
+			opened++;
+			if (board.getBombCount(index) == 0) {
+				top = push(top, index);
 			}
 		}
+		return opened;
 	}
-
-	/* 
-	 * Helper for bombCount(). This method does the actual counting, incrementing the
-	 * bombCount field on tile positioned at (x, y).
+	
+	/*
+	 * Helper for cascade(). Pushes a tile index on the stack, growing it if needed.
+	 * If the stack is full, the chunk of the tile is marked instead.
 	 */
-	private void updateBombCount(int x, int y) {
-
-		if (!board[y][x].isBomb()) {
-			return; 
+	private int push(int top, int index) {
+		if (top == cascadeStack.length) {
+			if (top == MAX_CASCADE_STACK) {
+				int chunk = index >>> CASCADE_CHUNK_BITS;
+				if (cascadeMarked.length <= chunk >>> 6) {
+					cascadeMarked = new long[((board.size() - 1) >>> CASCADE_CHUNK_BITS >>> 6) + 1];
+				}
+				cascadeMarked[chunk >>> 6] |= 1L << chunk;
+				cascadeOverflow = true;
+				return top;
+			}
+			int length = Math.min(MAX_CASCADE_STACK, Math.max(16, cascadeStack.length * 2));
+			cascadeStack = Arrays.copyOf(cascadeStack, length);
+			cascadeNext = Arrays.copyOf(cascadeNext, length);
 		}
-		for (int row = y-1; row <= y+1; row++) {
-			for (int col = x-1; col <= x+1; col++) {
-				if (!isTile(col, row) || board[row][col].isBomb()) {
-					continue;
-				}else {
-					board[row][col].incBombCount();
+		cascadeStack[top] = index;
+		cascadeNext[top] = 0;
+		return top + 1;
+	}
+	
+	/*
+	 * Helper for cascade(). Runs the cascade from every open tile in the marked
+	 * chunks that has a bombCount of zero and a closed tile around it. Those are the
+	 * tiles that did not fit on the stack, as long as every tile with a bombCount of
+	 * zero that was open before had the tiles around it open, which is the case in
+	 * any game played through openTile() and chord(). Chunks that are marked again
+	 * while this runs are scanned by the next call.
+	 */
+	private int rescan() {
+		int opened = 0;
+		for (int word = 0; word < cascadeMarked.length; word++) {
+			while (cascadeMarked[word] != 0) {
+				int chunk = word*64 + Long.numberOfTrailingZeros(cascadeMarked[word]);
+				cascadeMarked[word] &= cascadeMarked[word] - 1;
+				int end = (int) Math.min(board.size(), (long) (chunk + 1) << CASCADE_CHUNK_BITS);
+				for (int index = chunk << CASCADE_CHUNK_BITS; index < end; index++) {
+					if (board.isOpen(index) && !board.isBomb(index) && board.getBombCount(index) == 0
+							&& closedAround(index)) {
+						opened += drain(push(0, index));
+					}
 				}
 			}
 		}
+		return opened;
 	}
-
+	
+	/* Helper for rescan(). Returns true if a tile around the tile is closed. */
+	private boolean closedAround(int index) {
+		int x = index % width;
+		int y = index / width;
+		for (int row = Math.max(0, y-1); row <= Math.min(height-1, y+1); row++) {
+			for (int col = Math.max(0, x-1); col <= Math.min(width-1, x+1); col++) {
+				if (!board.isOpen(row*width + col)) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+	
+	/* Returns the number of tiles the stack of cascade() has room for, for tests. */
+	int getCascadeStackSize() {
+		return cascadeStack.length;
+	}
+	
 	/*
-	 * Opens a tile. If the tile is already open, nothing happens. If the
-	 * tile is a bomb, gameOver == true, and the game is lost. If the tile does not
-	 * contain a bomb, the tiles around will be checked for bombs. If the tile
-	 * next to the original tile does not contain a bomb and has a bombCount equal to
-	 * zero, it will be opened too. 
+	 * Opens every tile around the open tile at (x, y) that is not flagged, if the
+	 * number of flags around it equals its bombCount. The tiles are opened as one
+	 * batch: the tiles with a bombCount of zero among them are all put on the stack
+	 * of cascade() before it runs, so the cascade is only run once, and a cascade
+	 * that reaches a tile from two of them does not open it twice. If a bomb is
+	 * opened, the bombs are revealed once, and the game is checked for a win once.
+	 * Returns the number of tiles that were opened.
 	 */
-	public void openTile(Tile tile) {		
-		if (tile.getIsOpen() == true) {
-			return;
+	public int chord(int x, int y) {
+		int index = y*width + x;
+		if (!isTile(x, y) || !board.isOpen(index) || board.isBomb(index) || board.getBombCount(index) == 0) {
+			return 0;
 		}
-		if (tile.getIsOpen() == false) {
-			tile.setIsOpen(true);
-			tile.setIsFlagged(false);
+		int flags = 0;
+		for (int row = Math.max(0, y-1); row <= Math.min(height-1, y+1); row++) {
+			for (int col = Math.max(0, x-1); col <= Math.min(width-1, x+1); col++) {
+				if (board.isFlagged(row*width + col)) {
+					flags++;
+				}
+			}
 		}
-		if (tile.isBomb()) {
-			gameOver = true;
-			revealAllBombs();
-			return;
+		if (flags != board.getBombCount(index)) {
+			return 0;
 		}
-		if (tile.isEmpty()) {			
-			for (int row = tile.getY()-1; row <= tile.getY()+1; row++) {
-				for (int col = tile.getX()-1; col <= tile.getX()+1; col++) {
-					if (!isTile(col, row) || getTile(col, row).isBomb()) {
-						continue;
-					}
-					if (!board[row][col].getIsOpen() && tile.getBombCount() == 0 && !tile.isBomb()) {
-						openTile(board[row][col]);
-					}
+		int opened = 0;
+		int top = 0;
+		boolean bomb = false;
+		for (int row = Math.max(0, y-1); row <= Math.min(height-1, y+1); row++) {
+			for (int col = Math.max(0, x-1); col <= Math.min(width-1, x+1); col++) {
+				int next = row*width + col;
+				if (board.isOpen(next) || board.isFlagged(next)) {
+					continue;
+				}
+				board.setOpen(next, true);
+				opened++;
+				if (board.isBomb(next)) {
+					bomb = true;
+				}else if (board.getBombCount(next) == 0) {
+					top = push(top, next);
 				}
 			}
 		}
+		opened += cascade(top);
+		if (bomb) {
+			gameOver = true;
+			revealAllBombs();
+		}
+		checkGameWon();
+		return opened;
 	}
 	
 	/*
@@ -169,8 +394,8 @@ public class Game {
 				if (!isTile(col, row) || getTile(col, row).isBomb()) {
 					continue;
 				}
-				if (!board[row][col].getIsOpen() && !board[row][col].isBomb()) {
-					openTile(board[row][col]);
+				if (!getTile(col, row).getIsOpen()) {
+					openTile(getTile(col, row));
 				}
 			}
 		}
@@ -192,60 +417,138 @@ public class Game {
 	
 	/* 
 	 * Checks if game is won. Game is won if all bombs are marked with a flag 
-	 * (isFlagged) or if every tile on the board except the bombs are opened.
+	 * (isFlagged) or if every tile on the board except the bombs are opened. The
+	 * board counts opened and flagged tiles as they change, so this does not need
+	 * to go through the tiles.
 	 */
 	public void checkGameWon() {
-		List<Tile> amountFlagged = new ArrayList<>();
-		List<Tile> amountOpened = new ArrayList<>();
-		for (int y = 0; y < getHeight(); y++) {
-			for (int x = 0; x < getWidth(); x++) {
-				if (board[y][x].getIsOpen() && board[y][x].getType() != '@') {
-					amountOpened.add(board[y][x]);
-				}
-				if (board[y][x].getType() == '@' && board[y][x].getIsFlagged()) {
-					amountFlagged.add(board[y][x]);
-				}
-			}
-		}
-		if (amountFlagged.size() == numberOfBombs && numberOfBombs != 0) {
+		if (board.getFlaggedBombs() == numberOfBombs && numberOfBombs != 0) {
 			gameWon = true;
 		}
-		if ((getWidth() * getHeight()) - numberOfBombs == amountOpened.size()) {
+		if ((getWidth() * getHeight()) - numberOfBombs == board.getOpenedSafe()) {
 			gameWon = true;
 		}
 	}
 	
+	/*
+	 * Same text as before: width, height, the type of every tile, then true or false
+	 * for open and for flagged for every tile. Written by writeSnapshot(Appendable),
+	 * see getDigest() for comparing games without making the text.
+	 */
 	@Override
 	public String toString() {
-		String string = "";
-		string += String.valueOf(width);
-		string += String.valueOf(height);
-
-		for (int y = 0; y < height; y++) {
-			for (int x = 0; x < width; x++) {
-				string += board[y][x].toString();
-			}
+		StringBuilder string = new StringBuilder((int) Math.min(20 + 10L * board.size(), Integer.MAX_VALUE - 8));
+		try {
+			writeSnapshot(string);
+		}catch (IOException e) {
+			throw new UncheckedIOException(e);
 		}
-		for (int y = 0; y < height; y++) {
-			for (int x = 0; x < width; x++) {
-				string += String.valueOf(board[y][x].getIsOpen());
-			}
+		return string.toString();
+	}
+	
+	/* Writes the text of toString() to out, in one pass over the board. */
+	public void writeSnapshot(Appendable out) throws IOException {
+		out.append(String.valueOf(width));
+		out.append(String.valueOf(height));
+		for (int i = 0; i < board.size(); i++) {
+			out.append(board.isBomb(i) ? '@' : 'e');
 		}
-		for (int y = 0; y < height; y++) {
-			for (int x = 0; x < width; x++) {
-				string += String.valueOf(board[y][x].getIsFlagged());
+		for (int i = 0; i < board.size(); i++) {
+			out.append(board.isOpen(i) ? "true" : "false");
+		}
+		for (int i = 0; i < board.size(); i++) {
+			out.append(board.isFlagged(i) ? "true" : "false");
+		}
+	}
+	
+	/*
+	 * The board in a compact binary form: width and height as ints, then one byte per
+	 * tile in row order with bit 0 for bomb, bit 1 for open and bit 2 for flagged.
+	 * Bomb counts are left out, since they follow from the bombs. Two games have the
+	 * same snapshot if and only if their toString() is the same, for games of the
+	 * same size.
+	 */
+	public long getSnapshotSize() {
+		return SNAPSHOT_HEADER_SIZE + board.size();
+	}
+	
+	/* Writes the snapshot to out, through a small buffer. */
+	public void writeSnapshot(OutputStream out) throws IOException {
+		byte[] buffer = new byte[SNAPSHOT_BUFFER_SIZE];
+		ByteBuffer.wrap(buffer).putInt(width).putInt(height);
+		int length = SNAPSHOT_HEADER_SIZE;
+		for (int i = 0; i < board.size(); i++) {
+			if (length == buffer.length) {
+				out.write(buffer, 0, length);
+				length = 0;
 			}
+			buffer[length++] = snapshotByte(i);
+		}
+		out.write(buffer, 0, length);
+	}
+	
+	/* Puts the snapshot in the buffer, which must have getSnapshotSize() bytes left. */
+	public void writeSnapshot(ByteBuffer out) {
+		if (out.remaining() < getSnapshotSize()) {
+			throw new BufferOverflowException();
+		}
+		out.putInt(width);
+		out.putInt(height);
+		for (int i = 0; i < board.size(); i++) {
+			out.put(snapshotByte(i));
 		}
-		
-		return string;
+	}
+	
+	/*
+	 * Returns a 64 bit FNV-1a hash of the snapshot. Games with the same board have the
+	 * same digest, and games with different boards almost never do, so tests and
+	 * replays can compare games with it.
+	 */
+	public long getDigest() {
+		long hash = FNV_OFFSET;
+		hash = digest(hash, width);
+		hash = digest(hash, height);
+		for (int i = 0; i < board.size(); i++) {
+			hash = (hash ^ snapshotByte(i)) * FNV_PRIME;
+		}
+		return hash;
+	}
+	
+	private static long digest(long hash, int value) {
+		for (int shift = 24; shift >= 0; shift -= 8) {
+			hash = (hash ^ ((value >>> shift) & 0xFF)) * FNV_PRIME;
+		}
+		return hash;
+	}
+	
+	/* The bomb, open and flagged bits of a tile, moved down to bits 0, 1 and 2. */
+	private byte snapshotByte(int index) {
+		return (byte) ((board.get(index) & (Board.BOMB | Board.OPEN | Board.FLAGGED)) >> 4);
 	}
 		
 	
-	/* To avoid the bombCount() method running twice when loading a saved game,
-	 * giving a wrong bomb count.
+	/*
+	 * Sets the number of bombs back to the number in the config of the game. Saved
+	 * games are no longer read with this, since they keep their own number of bombs.
 	 */
 	public void setNumberOfBombsToOriginal() {
-		this.numberOfBombs = NUMBER_OF_BOMBS; 
+		this.numberOfBombs = config.getBombs(); 
+	}
+	
+	/*
+	 * Turns on tracking of the tiles that change, so that a view of the game only has
+	 * to draw those again. See takeChangedTiles().
+	 */
+	public void setTrackChanges(boolean trackChanges) {
+		board.setTrackChanges(trackChanges);
+	}
+	
+	/*
+	 * Returns the indices (y*width + x) of the tiles that have changed since the last
+	 * call, or null if every tile should be treated as changed.
+	 */
+	public int[] takeChangedTiles() {
+		return board.takeChanges();
 	}
 	
 	/* Getters for the Game class. */
@@ -261,6 +564,22 @@ public class Game {
 		return this.numberOfBombs;
 	}
 	
+	public long getSeed() {
+		return this.seed;
+	}
+	
+	/*
+	 * Returns the settings of the game. Once the bombs are placed, these are the size,
+	 * number of bombs and seed the game was actually made with.
+	 */
+	public GameConfig getConfig() {
+		if (config != null && numberOfBombs > 0 && numberOfBombs < (long) width * height
+				&& (numberOfBombs != config.getBombs() || seed != config.getSeed())) {
+			return new GameConfig(width, height, numberOfBombs, seed, config.isNoGuess());
+		}
+		return config;
+	}
+	
 	public boolean isGameOver() {
 		return gameOver;
 	}
@@ -269,10 +588,40 @@ public class Game {
 		return gameWon;
 	}
 	
-	public Tile[][] getBoard() {
+	public Board getPackedBoard() {
 		return board;
 	}
 	
+	/*
+	 * Returns every tile of the board as a two-dimensional array of Tile views. The
+	 * tiles are created on each call, so use getTile() or getPackedBoard() instead
+	 * where performance matters.
+	 */
+	public Tile[][] getBoard() {
+		Tile[][] tiles = new Tile[height][width];
+		for (int y = 0; y < height; y++) {
+			for (int x = 0; x < width; x++) {
+				tiles[y][x] = getTile(x, y);
+			}
+		}
+		return tiles;
+	}
+	
+	/* Used when loading a saved game, to keep the seed the bombs came from. */
+	public void setSeed(long seed) {
+		this.seed = seed;
+	}
+	
+	/* Used by ChangeSet, to copy the state of a game that is played on another thread. */
+	void setGameOver(boolean gameOver) {
+		this.gameOver = gameOver;
+	}
+	
+	/* Used by History, to put back the state of the game before or after a move. */
+	void setGameWon(boolean gameWon) {
+		this.gameWon = gameWon;
+	}
+	
 	/*
 	 * Setter made ONLY for test-purposes: testing the setNumberOfBombsToOriginal()-
 	 * method (GameTest)
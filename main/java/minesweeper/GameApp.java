@@ -10,6 +10,7 @@ public class GameApp extends Application {
 
 	@Override
 	public void start(Stage primaryStage) throws Exception {
+		Metrics.registerMBeans();
 		Parent parent = FXMLLoader.load(getClass().getResource("Game.fxml"));
 		primaryStage.setTitle("Minesweeper");
 		primaryStage.setScene(new Scene(parent));
@@ -0,0 +1,93 @@
+package minesweeper;
+
+import java.util.Objects;
+
+
+/*
+ * The settings a game is made from: the size of the board, the number of bombs and
+ * the seed the bombs are placed from. If noGuess is set, the bombs are placed so
+ * that the game can be won without guessing, see NoGuessGenerator.
+ */
+public class GameConfig {
+
+	/* The standard boards, with seed 0. Use withSeed() to get a new board. */
+	public static final GameConfig CLASSIC = new GameConfig(20, 15, 55, 0);
+	public static final GameConfig BEGINNER = new GameConfig(9, 9, 10, 0);
+	public static final GameConfig INTERMEDIATE = new GameConfig(16, 16, 40, 0);
+	public static final GameConfig EXPERT = new GameConfig(30, 16, 99, 0);
+
+	private final int width, height;
+	private final int bombs;
+	private final long seed;
+	private final boolean noGuess;
+
+	public GameConfig(int width, int height, int bombs, long seed) {
+		this(width, height, bombs, seed, false);
+	}
+
+	public GameConfig(int width, int height, int bombs, long seed, boolean noGuess) {
+		if (width <= 0 || height <= 0) {
+			throw new IllegalArgumentException("Board must be at least 1x1");
+		}
+		if (bombs < 0 || bombs >= (long) width * height) {
+			throw new IllegalArgumentException("Number of bombs must be between 0 and the number of tiles - 1");
+		}
+		this.width = width;
+		this.height = height;
+		this.bombs = bombs;
+		this.seed = seed;
+		this.noGuess = noGuess;
+	}
+
+	/* Returns a config for the same board with another seed. */
+	public GameConfig withSeed(long seed) {
+		return new GameConfig(width, height, bombs, seed, noGuess);
+	}
+
+	/* Returns a config for the same board that is, or is not, made without guessing. */
+	public GameConfig withNoGuess(boolean noGuess) {
+		return new GameConfig(width, height, bombs, seed, noGuess);
+	}
+
+	/* Getters for the GameConfig class. */
+	public int getWidth() {
+		return width;
+	}
+
+	public int getHeight() {
+		return height;
+	}
+
+	public int getBombs() {
+		return bombs;
+	}
+
+	public long getSeed() {
+		return seed;
+	}
+
+	public boolean isNoGuess() {
+		return noGuess;
+	}
+
+	/* Two configs are equal if they make the same games. */
+	@Override
+	public boolean equals(Object other) {
+		if (!(other instanceof GameConfig)) {
+			return false;
+		}
+		GameConfig config = (GameConfig) other;
+		return width == config.width && height == config.height && bombs == config.bombs
+				&& seed == config.seed && noGuess == config.noGuess;
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(width, height, bombs, seed, noGuess);
+	}
+
+	@Override
+	public String toString() {
+		return width + "x" + height + ", " + bombs + " bombs, seed " + seed + (noGuess ? ", no guessing" : "");
+	}
+}
@@ -2,37 +2,248 @@ package minesweeper;
 
 
 import java.io.FileNotFoundException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import javafx.application.Platform;
 import javafx.fxml.FXML;
+import javafx.scene.control.Button;
+import javafx.scene.control.CheckBox;
+import javafx.scene.control.ChoiceBox;
+import javafx.scene.control.ProgressBar;
 import javafx.scene.control.TextField;
 import javafx.scene.input.MouseButton;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.layout.ColumnConstraints;
 import javafx.scene.layout.GridPane;
 import javafx.scene.layout.Pane;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.RowConstraints;
+import javafx.scene.layout.StackPane;
 import javafx.scene.paint.Color;
 import javafx.scene.text.Text;
 import javafx.scene.image.Image ;
 import javafx.scene.image.ImageView;
 
 
+/*
+ * The game is played by a GameExecutor on its own thread. The controller sends the
+ * clicks to it, and draws a copy of the game that is kept up to date from the
+ * change sets it sends back, see handleOnChanges(). Saving uses the copy, so the
+ * save has the same moves as the board that is shown. The copy is copied again for
+ * a save on another thread, see copyGame(). Saves and loads run in the background
+ * with an AsyncFileManager, and the game is saved to "autosave" every
+ * AUTOSAVE_MOVES moves.
+ */
 public class GameController {
 	
 	private Game game;
-	private FileManager fileManager = new FileManager();
+	private GameExecutor executor;
+	private Replay replay;
+	private AsyncFileManager fileManager = new AsyncFileManager();
+	private ReplayFileManager replayFileManager = new ReplayFileManager();
+	private List<Move> unsavedMoves = new ArrayList<>();
+	private String savedAs;
+	private CompletableFuture<?> fileTask;
+	private List<Move> unautosavedMoves = new ArrayList<>();
+	private boolean autosaved;
+	private int copying;
+	private List<ChangeSet> heldChanges = new ArrayList<>();
+	
+	private static final String AUTOSAVE_FILENAME = "autosave";
+	private static final int AUTOSAVE_MOVES = 25;
 	
 	@FXML Text gameWonText = new Text();
 	@FXML Text gameLostText = new Text();
 	
+	@FXML StackPane boardArea;
 	@FXML GridPane board;
+	private CanvasBoardView canvasView;
 	
 	@FXML TextField filename;
 	
 	@FXML Text fileNotFoundMessage;
 	@FXML Text fileCantSaveMessage;
+	@FXML ProgressBar fileProgress;
+	@FXML Button cancelFileButton;
+	
+	@FXML ChoiceBox<String> difficulty;
+	@FXML TextField customWidth;
+	@FXML TextField customHeight;
+	@FXML TextField customBombs;
+	@FXML Text configErrorMessage;
+	
+	@FXML CheckBox showMetrics;
+	@FXML Text metricsOverlay;
+	
+	/* The boards that can be picked, in the order they are shown. "Custom" uses the text fields. */
+	private static final String[] DIFFICULTIES = {"Classic", "Beginner", "Intermediate", "Expert", "Custom"};
+	private static final GameConfig[] PRESETS = {GameConfig.CLASSIC, GameConfig.BEGINNER,
+			GameConfig.INTERMEDIATE, GameConfig.EXPERT};
 	
-	/* Initializes game. */
+	/* Custom boards with more tiles than this are not made, since they would not fit in memory. */
+	private static final long MAX_CUSTOM_TILES = 100_000_000;
+	
+	private static final String OPEN_STYLE = "-fx-border-color:#7b68ee; -fx-border-width:1px; "
+			+ "-fx-background-color: " + getTileColor(true) + ";";
+	private static final String CLOSED_STYLE = "-fx-border-color:#7b68ee; -fx-border-width:1px; "
+			+ "-fx-background-color: " + getTileColor(false) + ";";
+	private Pane[] panes;
+	private Text[] texts;
+	private Game drawnGame;
+	private boolean chordReleased;
+	
+	/* Games with more tiles than this are drawn by CanvasBoardView instead of the GridPane. */
+	private static final int CANVAS_TILES = 2000;
+	
+	/* Initializes game, with the board picked in the difficulty box. */
 	@FXML
 	private void initialize() {
-		game = new Game(20, 15);
+		if (difficulty.getItems().isEmpty()) {
+			difficulty.getItems().setAll(DIFFICULTIES);
+			difficulty.setValue(DIFFICULTIES[0]);
+		}
+		GameConfig config;
+		try {
+			config = getSelectedConfig();
+			configErrorMessage.setVisible(false);
+		}catch (IllegalArgumentException e) {
+			configErrorMessage.setText(e instanceof NumberFormatException ? "Size and bombs must be numbers" : e.getMessage());
+			configErrorMessage.setVisible(true);
+			if (game != null) {
+				return;
+			}
+			config = GameConfig.CLASSIC;
+		}
+		GameEngine engine = new GameEngine(config.withSeed(new Random().nextLong()));
+		startGame(engine, new Replay(engine.getConfig()));
+		savedAs = null;
+	}
+	
+	/*
+	 * Starts playing a game on a new GameExecutor, and stops the one of the last
+	 * game. The copy that is drawn has the config of the game, but is empty until
+	 * the first change set arrives.
+	 */
+	private void startGame(GameEngine engine, Replay replay) {
+		if (executor != null) {
+			executor.close();
+		}
+		this.replay = replay;
+		game = new Game(engine.getConfig());
+		unsavedMoves.clear();
+		unautosavedMoves.clear();
+		autosaved = false;
+		copying = 0;
+		heldChanges.clear();
+		executor = new GameExecutor(engine, Platform::runLater, this::handleOnChanges);
+		drawBoard();
+	}
+	
+	/*
+	 * Makes the changes from the executor on the copy of the game, and draws the
+	 * tiles that changed. While the copy is being copied for a save, the changes are
+	 * held back until it is done, see copyGame().
+	 */
+	private void handleOnChanges(ChangeSet changes) {
+		heldChanges.add(changes);
+		if (copying == 0) {
+			applyHeldChanges();
+		}
+	}
+	
+	/*
+	 * Helper for handleOnChanges() and copyGame(). The moves are kept until the game
+	 * is saved. Since the bombs are not in the last save when a move generates them,
+	 * the next save will save the whole game. A loaded game has its bombs already, so
+	 * it keeps adding moves to the file it was loaded from.
+	 */
+	private void applyHeldChanges() {
+		for (ChangeSet changes : heldChanges) {
+			changes.applyTo(game);
+			if (changes.startsGame()) {
+				savedAs = null;
+			}
+			unsavedMoves.addAll(changes.getMoves());
+			unautosavedMoves.addAll(changes.getMoves());
+			if (replay != null) {
+				for (Move move : changes.getMoves()) {
+					replay.add(move);
+				}
+			}
+		}
+		heldChanges.clear();
 		drawBoard();
+		if (unautosavedMoves.size() >= AUTOSAVE_MOVES) {
+			autosave();
+		}
+	}
+	
+	/*
+	 * Copies the copy of the game for a save, on another thread, so that a large
+	 * board is not copied on the FX thread. The changes from the executor are held
+	 * back until the copy is made, so it has exactly the moves that are kept as
+	 * saved when the save starts.
+	 */
+	private CompletableFuture<Game> copyGame() {
+		Game copied = game;
+		copying++;
+		CompletableFuture<Game> copy = CompletableFuture.supplyAsync(() -> new Game(copied));
+		copy.whenComplete((result, e) -> Platform.runLater(() -> {
+			if (game == copied && --copying == 0) {
+				applyHeldChanges();
+			}
+		}));
+		return copy;
+	}
+	
+	/*
+	 * Saves the game to AUTOSAVE_FILENAME in the background. The first autosave of a
+	 * game writes the whole game, and the next only add the moves since the last.
+	 * If an autosave fails, the next one writes the whole game again.
+	 */
+	private void autosave() {
+		if (game.isGameOver() || game.isGameWon() || game.getNumberOfBombs() == 0) {
+			return;
+		}
+		CompletableFuture<Void> save = autosaved
+				? fileManager.appendMovesAsync(AUTOSAVE_FILENAME, unautosavedMoves)
+				: fileManager.writeGameToFileAsync(AUTOSAVE_FILENAME, copyGame(), p -> {});
+		autosaved = true;
+		unautosavedMoves.clear();
+		Game saved = game;
+		save.exceptionally(e -> {
+			Platform.runLater(() -> {
+				if (game == saved) {
+					autosaved = false;
+				}
+			});
+			return null;
+		});
+	}
+	
+	/*
+	 * Helper for initialize(). Returns the config of the picked board. For a custom
+	 * board, it is made from the text fields, and an IllegalArgumentException is
+	 * thrown if they do not make a valid board.
+	 */
+	private GameConfig getSelectedConfig() {
+		for (int i = 0; i < PRESETS.length; i++) {
+			if (DIFFICULTIES[i].equals(difficulty.getValue())) {
+				return PRESETS[i];
+			}
+		}
+		int width = Integer.parseInt(customWidth.getText().trim());
+		int height = Integer.parseInt(customHeight.getText().trim());
+		int bombs = Integer.parseInt(customBombs.getText().trim());
+		if ((long) width * height > MAX_CUSTOM_TILES) {
+			throw new IllegalArgumentException("Board can have at most " + MAX_CUSTOM_TILES + " tiles");
+		}
+		return new GameConfig(width, height, bombs, 0);
 	}
 	
 	/*
@@ -48,36 +259,95 @@ public class GameController {
 	
 	/*
 	 * Saves game by writing game state to file and saving it in designated
-	 * folder(s).
+	 * folder(s). If the game was last saved to or loaded from the same file, only
+	 * the moves made since then are added to the file. Games started here are also
+	 * saved as a replay, so they can be played again from the start.
 	 */
 	@FXML
 	private void handleOnSaveGame() {
 		if (game.isGameOver() || game.isGameWon()) {
 			fileCantSaveMessage.setVisible(true);
-		}else {
-			try {
-				fileManager.writeGameToFile(getFilename(), game);
-				fileNotFoundMessage.setVisible(false);
-			}catch (FileNotFoundException e) {
-				fileNotFoundMessage.setVisible(true);
+			return;
+		}
+		String filename = getFilename();
+		CompletableFuture<Void> save = filename.equals(savedAs)
+				? fileManager.appendMovesAsync(filename, unsavedMoves)
+				: fileManager.writeGameToFileAsync(filename, copyGame(), this::showProgress);
+		savedAs = filename;
+		unsavedMoves.clear();
+		startFileTask(save);
+		save.whenComplete((result, e) -> Platform.runLater(() -> {
+			endFileTask(save);
+			if (e == null) {
+				writeReplay(filename);
+			}else if (savedAs != null && savedAs.equals(filename)) {
+				savedAs = null;
 			}
+			fileNotFoundMessage.setVisible(e != null && !(e instanceof CancellationException));
+		}));
+	}
+	
+	/* Helper for handleOnSaveGame(). Saves the replay of a game started here next to the save. */
+	private void writeReplay(String filename) {
+		if (replay == null) {
+			return;
+		}
+		try {
+			replayFileManager.writeReplay(filename, replay);
+		}catch (FileNotFoundException | UncheckedIOException e) {
+			fileNotFoundMessage.setVisible(true);
 		}
 	}
 	
 	/*
-	 * Loads game if the filename input is correct/exists. Method more or less from
-	 * lecture.
+	 * Loads game if the filename input is correct/exists. The game is read in the
+	 * background, and the current game can be played until it has been read.
 	 */
 	@FXML
 	private void handleOnLoadGame() {
-		try {
-			this.game = fileManager.readGameFromFile(getFilename());
-			fileNotFoundMessage.setVisible(false);
-		}catch (FileNotFoundException e) {
-			fileNotFoundMessage.setVisible(true);
-		}
+		String filename = getFilename();
+		CompletableFuture<Game> load = fileManager.readGameFromFileAsync(filename, this::showProgress);
+		startFileTask(load);
 		fileCantSaveMessage.setVisible(false);
-		drawBoard();
+		load.whenComplete((loaded, e) -> Platform.runLater(() -> {
+			endFileTask(load);
+			if (e == null) {
+				startGame(new GameEngine(loaded), null);
+				savedAs = filename;
+			}
+			Throwable cause = e instanceof CompletionException ? e.getCause() : e;
+			fileNotFoundMessage.setVisible(cause instanceof FileNotFoundException
+					|| cause instanceof UncheckedIOException);
+		}));
+	}
+	
+	/* Stops the save or load that is running, see AsyncFileManager. */
+	@FXML
+	private void handleOnCancelFile() {
+		if (fileTask != null) {
+			fileTask.cancel(false);
+		}
+	}
+	
+	/* Helpers for the progress bar, which is shown while a file task is running. */
+	private void startFileTask(CompletableFuture<?> task) {
+		fileTask = task;
+		fileProgress.setProgress(0);
+		fileProgress.setVisible(true);
+		cancelFileButton.setVisible(true);
+	}
+	
+	private void endFileTask(CompletableFuture<?> task) {
+		if (fileTask == task) {
+			fileTask = null;
+			fileProgress.setVisible(false);
+			cancelFileButton.setVisible(false);
+		}
+	}
+	
+	/* Called on the io thread, so the progress bar is updated on the FX thread. */
+	private void showProgress(double progress) {
+		Platform.runLater(() -> fileProgress.setProgress(progress));
 	}
 	
 	/* 
@@ -93,98 +363,187 @@ public class GameController {
 	    }
 	
 	/*
-	 * Methods for handling left- and right clicks. The first right click will 
-	 * generate bombs so that the player will not loose on first click. Left click
-	 * toggles marker for bomb.
+	 * Sends a click on the tile (x, y) to the handler for its button. A middle click,
+	 * or a click with both buttons, is a chord. When both buttons are used, the click
+	 * of the button that is released last is ignored, since the chord has been made.
+	 */
+	private void handleOnClick(int x, int y, MouseEvent e) {
+		boolean bothButtons = (e.getButton() == MouseButton.PRIMARY && e.isSecondaryButtonDown())
+				|| (e.getButton() == MouseButton.SECONDARY && e.isPrimaryButtonDown());
+		if (chordReleased && !bothButtons) {
+			chordReleased = false;
+			return;
+		}
+		if (game.isGameWon() || game.isGameOver()) {
+			return;
+		}
+		if (e.getButton() == MouseButton.MIDDLE || bothButtons) {
+			chordReleased = bothButtons;
+			handleOnChord(x, y);
+		}else if (e.getButton() == MouseButton.PRIMARY) {
+			handleOnLeftClick(x, y);
+		}else if (e.getButton() == MouseButton.SECONDARY) {
+			handleOnRightClick(x, y);
+		}
+	}
+	
+	/*
+	 * Methods for handling left- and right clicks. The first left click will 
+	 * generate bombs so that the player will not loose on first click. Right click
+	 * toggles marker for bomb. The clicks are sent to the executor, and the board
+	 * is drawn when its changes come back, see handleOnChanges().
 	 */
 	private void handleOnLeftClick(int x, int y) {
-		if (game.getNumberOfBombs() == 0) {
-			game.getTile(x, y).setIsOpen(true);
-			game.generateBombs();
-			game.bombCount();
-			game.firstOpen(game.getTile(x, y));
-		}
-		game.openTile(game.getTile(x, y));
-		game.checkGameWon();
-		drawBoard();
+		executor.open(x, y);
 	}	
 	
+	/* Opens the tiles around a number with as many flags around it, see Game.chord(). */
+	private void handleOnChord(int x, int y) {
+		executor.chord(x, y);
+	}
+	
 	private void handleOnRightClick(int x, int y) {
 		if (!game.getTile(x, y).getIsOpen()) {
-			game.toggleIsFlagged(x, y);
-			game.checkGameWon();
-			drawBoard();
+			executor.toggleFlag(x, y);
 		}
 	}	
 	
 	/* 
 	 * Creates board by adding Pane objects to the GridPane board. The panes are
 	 * are enabled by the setOnMouseClicked() method, and the GridPane coordinates
-	 * are used to locate the panes when the mouse is clicked.
+	 * are used to locate the panes when the mouse is clicked. Every pane also gets
+	 * a Text for the bombCount or the flag. The nodes are only created once per game,
+	 * and are then updated by drawBoard().
 	 */
 	private void createBoard() {
 		board.getChildren().clear();
+		board.getColumnConstraints().clear();
+		board.getRowConstraints().clear();
+		for (int x = 0; x < game.getWidth(); x++) {
+			ColumnConstraints column = new ColumnConstraints();
+			column.setHgrow(Priority.SOMETIMES);
+			column.setMinWidth(10.0);
+			column.setPrefWidth(100.0);
+			board.getColumnConstraints().add(column);
+		}
+		for (int y = 0; y < game.getHeight(); y++) {
+			RowConstraints row = new RowConstraints();
+			row.setVgrow(Priority.SOMETIMES);
+			row.setMinHeight(10.0);
+			row.setPrefHeight(30.0);
+			board.getRowConstraints().add(row);
+		}
+		panes = new Pane[game.getWidth() * game.getHeight()];
+		texts = new Text[game.getWidth() * game.getHeight()];
 		for (int y = 0; y < game.getHeight(); y++) {
 			for (int x = 0; x < game.getWidth(); x++) {
 				Pane pane = new Pane();
 				board.add(pane, x, y);
-				pane.setOnMouseClicked(e -> {
-		            if (e.getButton() == MouseButton.PRIMARY && !game.isGameWon() && !game.isGameOver()) {
-		            	handleOnLeftClick(GridPane.getColumnIndex(pane), GridPane.getRowIndex(pane));
-		            }else if (e.getButton() == MouseButton.SECONDARY && !game.isGameWon() && !game.isGameOver()) {
-		            	handleOnRightClick(GridPane.getColumnIndex(pane), GridPane.getRowIndex(pane));
-		            }else {
-		            	return;
-		            }
-		        });	
+				pane.setOnMouseClicked(e -> handleOnClick(GridPane.getColumnIndex(pane), GridPane.getRowIndex(pane), e));
+				Text text = new Text();
+				text.setStyle("-fx-font-size: 25px");
+				text.setTranslateX(12.0);
+				text.setMouseTransparent(true);
+				text.setVisible(false);
+				board.add(text, x, y);
+				panes[y*game.getWidth() + x] = pane;
+				texts[y*game.getWidth() + x] = text;
 			}
 		}
+		game.setTrackChanges(true);
 	}
 		
 	/* 
 	 * The base of the method is for coloring the board and setting the 
 	 * "Game Won/Over" text. It also sets the number of bombs surrounding an open 
-	 * tile as text. drawBoard() uses createBoard(), to keep the text objects up to 
-	 * date, especially the 'B' for flagging. Method is from lecture. Some of the 
-	 * content in this method is from lecture.
+	 * tile as text, and 'B' for flagging. Only the tiles that the game reports as
+	 * changed since the last call are updated. The board is created the first time
+	 * the method is called for a game. Method is from lecture. Some of the content
+	 * in this method is from lecture. The time it takes and the number of tiles
+	 * updated are kept in Metrics.
 	 */
 	private void drawBoard() {
-		createBoard();
-		for (int y = 0; y < game.getHeight(); y++) {
-			for (int x = 0; x < game.getWidth(); x++) {
-				board.getChildren().get(y*game.getWidth() + x).setStyle("-fx-border-color:#7b68ee; "
-						+ "-fx-border-width:1px; -fx-background-color: " + getTileColor(game.getTile(x, y)) + ";");
-				if (game.getTile(x, y).getIsOpen() && game.getTile(x, y).getBombCount() != 0) {
-					Text bombCount = new Text();
-					bombCount.setText(game.getTile(x, y).getBombCount()+"");
-					bombCount.setStyle("-fx-font-size: 25px");
-					bombCount.setFill(Color.BLACK);
-					bombCount.setTranslateX(12.0);
-					board.add(bombCount, x, y);
-				}
-				if (game.getTile(x, y).getIsFlagged()) {
-					Text text = new Text();
-					text.setText("B");
-					text.setFill(Color.WHITE);
-					text.setTranslateX(12.0);
-					text.setStyle("-fx-font-size: 25px");
-					text.setMouseTransparent(true);
-					board.add(text, x, y);
-					/*
-					 * For flags instead of "B". Takes longer to update board. 
-					 * Comment out text and uncomment image to try
-					 */
-//					Image image = new Image(getClass().getResource("flag.png").toString(), true);
-//					ImageView iv = new ImageView(image);
-//					iv.setFitWidth(30.0);
-//					iv.setFitHeight(30.0);
-//					iv.setTranslateX(2.0);
-//					iv.setMouseTransparent(true);
-//					board.add(iv, x, y);
-				}
+		long start = System.nanoTime();
+		int drawn = game.getWidth() * game.getHeight() > CANVAS_TILES ? drawCanvas() : drawGrid();
+		Metrics.DRAW_TIME.record(System.nanoTime() - start);
+		Metrics.NODES_DRAWN.record(drawn);
+		drawMetrics();
+	}
+	
+	/* Helper for drawBoard(). Draws on the GridPane, and returns the number of tiles updated. */
+	private int drawGrid() {
+		if (canvasView != null) {
+			canvasView.setVisible(false);
+		}
+		board.setVisible(true);
+		if (panes == null || drawnGame != game) {
+			drawnGame = game;
+			createBoard();
+		}
+		int[] changed = game.takeChangedTiles();
+		if (changed == null) {
+			for (int i = 0; i < panes.length; i++) {
+				drawTile(i);
+			}
+		}else {
+			for (int index : changed) {
+				drawTile(index);
 			}
 		}
-		if(game.isGameWon()) {
+		if (game.isGameOver() && !board.getChildren().contains(gameLostText)) {
+			displayBombs();
+		}
+		drawGameEnd(board);
+		return changed == null ? panes.length : changed.length;
+	}
+	
+	/*
+	 * Draws games that are too large for the GridPane on a CanvasBoardView, which is
+	 * made the first time it is needed. The GridPane nodes of the last small game are
+	 * removed, since they are not used. Returns the number of tiles that were drawn.
+	 */
+	private int drawCanvas() {
+		if (canvasView == null) {
+			canvasView = new CanvasBoardView(this::handleOnClick);
+			boardArea.getChildren().add(canvasView);
+		}
+		board.setVisible(false);
+		canvasView.setVisible(true);
+		if (drawnGame != game) {
+			drawnGame = game;
+			board.getChildren().clear();
+			panes = null;
+			texts = null;
+			canvasView.getChildren().removeAll(gameWonText, gameLostText);
+			game.setTrackChanges(true);
+			game.takeChangedTiles();
+			canvasView.setGame(game);
+		}
+		int[] changed = game.takeChangedTiles();
+		canvasView.draw(changed);
+		drawGameEnd(canvasView);
+		return changed == null ? game.getWidth() * game.getHeight() : changed.length;
+	}
+	
+	/*
+	 * Shows the cost of the last move and of drawing it, if "Show metrics" is
+	 * checked. The numbers are from Metrics, see GameEngine.
+	 */
+	@FXML
+	private void drawMetrics() {
+		metricsOverlay.setVisible(showMetrics.isSelected());
+		if (!showMetrics.isSelected()) {
+			return;
+		}
+		metricsOverlay.setText(String.format("Last move %.2f ms, %d tiles opened, drawn in %.2f ms (%d tiles). "
+				+ "p99 move %.2f ms, draw %.2f ms",
+				Metrics.MOVE_TIME.getLast() / 1e6, Metrics.TILES_OPENED.getLast(), Metrics.DRAW_TIME.getLast() / 1e6,
+				Metrics.NODES_DRAWN.getLast(), Metrics.MOVE_TIME.getP99() / 1e6, Metrics.DRAW_TIME.getP99() / 1e6));
+	}
+	
+	/* Helper for drawBoard(). Shows the "Game Won/Over" text on top of the board. */
+	private void drawGameEnd(Pane parent) {
+		if(game.isGameWon() && !parent.getChildren().contains(gameWonText)) {
 			gameWonText.setText("Congratulations!");
 			gameWonText.setStyle("-fx-font: 80px Tahoma;\r\n"
 					+ "    -fx-fill: linear-gradient(from 0% 0% to 100% 200%, repeat, orangered 0%, yellow 50%);\r\n"
@@ -192,9 +551,8 @@ public class GameController {
 					+ "    -fx-stroke-width: 2;");
 			gameWonText.setTranslateX(67.0);
 			gameWonText.setTranslateY(230.0);
-			board.getChildren().add(gameWonText);
-		}else if(game.isGameOver()) {
-			displayBombs();
+			parent.getChildren().add(gameWonText);
+		}else if(game.isGameOver() && !parent.getChildren().contains(gameLostText)) {
 			gameLostText.setText("You lost!");
 			gameLostText.setStyle("-fx-font: 100px Tahoma;\r\n"
 					+ "    -fx-fill: linear-gradient(from 0% 0% to 100% 200%, repeat, orangered 0%, yellow 50%);\r\n"
@@ -202,7 +560,35 @@ public class GameController {
 					+ "    -fx-stroke-width: 2;");
 			gameLostText.setTranslateX(165.0);
 			gameLostText.setTranslateY(230.0);
-			board.getChildren().add(gameLostText);
+			parent.getChildren().add(gameLostText);
+		}
+	}
+	
+	/* Helper for drawBoard(). Updates the pane and text of the tile with the given index. */
+	private void drawTile(int index) {
+		Tile tile = game.getTile(index % game.getWidth(), index / game.getWidth());
+		panes[index].setStyle(tile.getIsOpen() ? OPEN_STYLE : CLOSED_STYLE);
+		Text text = texts[index];
+		if (tile.getIsFlagged()) {
+			text.setText("B");
+			text.setFill(Color.WHITE);
+			text.setVisible(true);
+			/*
+			 * For flags instead of "B". Takes longer to update board. 
+			 * Replace the text with an ImageView to try
+			 */
+//			Image image = new Image(getClass().getResource("flag.png").toString(), true);
+//			ImageView iv = new ImageView(image);
+//			iv.setFitWidth(30.0);
+//			iv.setFitHeight(30.0);
+//			iv.setTranslateX(2.0);
+//			iv.setMouseTransparent(true);
+		}else if (tile.getIsOpen() && tile.getBombCount() != 0) {
+			text.setText(String.valueOf(tile.getBombCount()));
+			text.setFill(Color.BLACK);
+			text.setVisible(true);
+		}else {
+			text.setVisible(false);
 		}
 	}
 	
@@ -211,10 +597,10 @@ public class GameController {
 	 * bomb icons on every tile containing a bomb. 
 	 */
 	private void displayBombs() {
+		Image image = new Image(getClass().getResource("smiley.png").toString(), true);
 		for (int y = 0; y < game.getHeight(); y++) {
 			for (int x = 0; x < game.getWidth(); x++) {
 				if (game.getTile(x, y).isBomb()) {	
-					Image image = new Image(getClass().getResource("smiley.png").toString(), true);
 					ImageView iv = new ImageView(image);
 					iv.setFitWidth(35.0);
 					iv.setFitHeight(35.0);
@@ -225,8 +611,8 @@ public class GameController {
 	}
 	
 	/* Gives tiles color based on if they are open or not. Method from lecture. */
-	private String getTileColor(Tile tile) {
-	  	if (tile.getIsOpen()) {
+	private static String getTileColor(boolean isOpen) {
+	  	if (isOpen) {
 	  		return "#b0e0e6";
 	 	} 
 	  	else {
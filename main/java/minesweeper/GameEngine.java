@@ -0,0 +1,283 @@
+package minesweeper;
+
+
+/*
+ * Runs a game without any user interface. The bombs are placed from the seed of
+ * the config on the first open(), around the tile that is opened, so the first
+ * move never loses. With a no-guess config, the rest of the game can then be won
+ * by logic alone. After every move the engine checks if the game is won, so
+ * isWon() and isLost() are always up to date.
+ *
+ * The moves can be recorded in a Replay, see startRecording(), so the game can be
+ * played again by ReplayPlayer. The time and size of every move is kept in
+ * Metrics, unless setMetered(false) is called, and recorded as a MoveEvent for JFR.
+ *
+ * Moves can be undone and made again once a History is started, see
+ * startHistory(). A replay can not hold undone moves, so undo() stops the
+ * recording.
+ */
+public class GameEngine {
+
+	private final Game game;
+	private final GameConfig config;
+	private int moves;
+	private boolean metered = true;
+	private Replay replay;
+	private History history;
+
+	public GameEngine(GameConfig config) {
+		this.config = config;
+		this.game = new Game(config);
+	}
+
+	/* Continues an existing game, for example one that was loaded from a file. */
+	public GameEngine(Game game) {
+		this.game = game;
+		this.config = game.getConfig();
+	}
+
+	/* Helper for fork(). */
+	private GameEngine(Game game, GameConfig config, int moves, boolean metered) {
+		this.game = game;
+		this.config = config;
+		this.moves = moves;
+		this.metered = metered;
+	}
+
+	/*
+	 * Returns an engine with a copy of the game, which can be played without changing
+	 * this one, for example by a solver that tries a move. The copy has no history and
+	 * does not record its moves.
+	 */
+	public GameEngine fork() {
+		return new GameEngine(game.fork(), config, moves, metered);
+	}
+
+	/*
+	 * Opens the tile at (x, y). The first open generates the bombs and opens the
+	 * area around the tile. Returns the number of tiles that were opened. Opening a
+	 * tile that is already open does nothing, and is not counted as a move.
+	 */
+	public int open(int x, int y) {
+		if (isOver()) {
+			return 0;
+		}
+		long start = System.nanoTime();
+		MoveEvent event = new MoveEvent();
+		event.begin();
+		int opened = 0;
+		if (!isStarted()) {
+			if (config.isNoGuess()) {
+				game.generateNoGuessBombs(config.getBombs(), config.getSeed(), x, y);
+			}else {
+				game.generateBombs(config.getBombs(), config.getSeed(), x, y);
+			}
+			game.bombCount();
+			int before = game.getPackedBoard().getOpenedSafe();
+			game.firstOpen(game.getTile(x, y));
+			opened = game.getPackedBoard().getOpenedSafe() - before;
+		}
+		opened += game.openTile(game.getTile(x, y));
+		if (opened > 0) {
+			moves++;
+			record(Move.OPEN, x, y);
+			checkGameWon();
+			commit();
+			measured(event, Move.OPEN, x, y, opened, start);
+		}
+		return opened;
+	}
+
+	/*
+	 * Toggles the flag on the tile at (x, y) if it is not open. Returns true if the
+	 * tile is flagged afterwards.
+	 */
+	public boolean flag(int x, int y) {
+		if (isOver() || game.getTile(x, y).getIsOpen()) {
+			return game.getTile(x, y).getIsFlagged();
+		}
+		long start = System.nanoTime();
+		MoveEvent event = new MoveEvent();
+		event.begin();
+		moves++;
+		game.toggleIsFlagged(x, y);
+		boolean flagged = game.getTile(x, y).getIsFlagged();
+		record(flagged ? Move.FLAG : Move.UNFLAG, x, y);
+		checkGameWon();
+		commit();
+		measured(event, flagged ? Move.FLAG : Move.UNFLAG, x, y, 0, start);
+		return flagged;
+	}
+
+	/*
+	 * Opens every tile around the open tile at (x, y) that is not flagged, if the
+	 * number of flags around it equals its bombCount, see Game.chord(). Returns the
+	 * number of tiles that were opened.
+	 */
+	public int chord(int x, int y) {
+		if (isOver()) {
+			return 0;
+		}
+		long start = System.nanoTime();
+		MoveEvent event = new MoveEvent();
+		event.begin();
+		int opened = game.chord(x, y);
+		if (opened > 0) {
+			moves++;
+			record(Move.CHORD, x, y);
+			commit();
+			measured(event, Move.CHORD, x, y, opened, start);
+		}
+		return opened;
+	}
+
+	/*
+	 * Turns keeping the moves in Metrics on or off. Simulator turns it off, since it
+	 * measures the games itself. Moves are still recorded as JFR events.
+	 */
+	public void setMetered(boolean metered) {
+		this.metered = metered;
+	}
+
+	/* Checks if the game is won, and keeps the time it took. */
+	private void checkGameWon() {
+		if (!metered) {
+			game.checkGameWon();
+			return;
+		}
+		long start = System.nanoTime();
+		game.checkGameWon();
+		Metrics.CHECK_GAME_WON_TIME.record(System.nanoTime() - start);
+	}
+
+	/* Keeps the time and the number of opened tiles of a move that was made. */
+	private void measured(MoveEvent event, int type, int x, int y, int opened, long start) {
+		if (metered) {
+			Metrics.MOVE_TIME.record(System.nanoTime() - start);
+			Metrics.TILES_OPENED.record(opened);
+		}
+		if (event.shouldCommit()) {
+			event.type = type;
+			event.x = x;
+			event.y = y;
+			event.tilesOpened = opened;
+			event.commit();
+		}
+	}
+
+	/*
+	 * Starts recording the moves of the game, and returns the replay they are added
+	 * to. The recording must start before the first move, since the board is made
+	 * again from the first click.
+	 */
+	public Replay startRecording() {
+		if (isStarted()) {
+			throw new IllegalStateException("Recording must start before the first move");
+		}
+		if (replay == null) {
+			replay = new Replay(config);
+		}
+		return replay;
+	}
+
+	/*
+	 * Starts keeping the moves, so they can be undone. Moves made before this can
+	 * not be undone.
+	 */
+	public History startHistory() {
+		if (history == null) {
+			history = new History(game);
+		}
+		return history;
+	}
+
+	/*
+	 * Undoes the last move, also a move that lost or won the game. Returns false if
+	 * there is no history or no move to undo.
+	 */
+	public boolean undo() {
+		if (history == null || !history.undo()) {
+			return false;
+		}
+		moves--;
+		replay = null;
+		return true;
+	}
+
+	/* Makes the last undone move again. Returns false if there is none. */
+	public boolean redo() {
+		if (history == null || !history.redo()) {
+			return false;
+		}
+		moves++;
+		return true;
+	}
+
+	/*
+	 * Undoes or makes moves again until target moves of the history are made, see
+	 * History.goTo(). Going back stops the recording, as undo() does.
+	 */
+	public void goTo(int target) {
+		if (history == null) {
+			throw new IllegalStateException("The history has not been started");
+		}
+		int position = history.getPosition();
+		history.goTo(target);
+		moves += target - position;
+		if (target < position) {
+			replay = null;
+		}
+	}
+
+	private void commit() {
+		if (history != null) {
+			history.commit();
+		}
+	}
+
+	private void record(int type, int x, int y) {
+		if (replay != null) {
+			replay.add(new Move(type, x, y));
+		}
+	}
+
+	/* Returns true once the bombs have been generated. */
+	public boolean isStarted() {
+		return game.getNumberOfBombs() != 0;
+	}
+
+	public boolean isWon() {
+		return game.isGameWon();
+	}
+
+	public boolean isLost() {
+		return game.isGameOver();
+	}
+
+	public boolean isOver() {
+		return game.isGameWon() || game.isGameOver();
+	}
+
+	/* Getters for the GameEngine class. */
+	public Game getGame() {
+		return game;
+	}
+
+	public GameConfig getConfig() {
+		return config;
+	}
+
+	public int getMoves() {
+		return moves;
+	}
+
+	/* Returns the history of the moves, or null if it has not been started. */
+	public History getHistory() {
+		return history;
+	}
+
+	/* Returns the replay the moves are recorded in, or null if they are not recorded. */
+	public Replay getReplay() {
+		return replay;
+	}
+}
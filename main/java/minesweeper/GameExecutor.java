@@ -0,0 +1,215 @@
+package minesweeper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+
+/*
+ * Plays a game on its own worker thread, so that long moves, such as the first
+ * click on a large board, do not stop the thread that draws the game. Only the
+ * worker touches the GameEngine. Moves are put in a queue and made in the order
+ * they were given, also while the worker is busy with an earlier move.
+ *
+ * Every time the queue is empty, the tiles changed by the moves since the last
+ * time are copied into one ChangeSet, and given to the listener through the ui
+ * executor, for example Platform::runLater. If the ui has not taken the last
+ * change set yet, the new one is merged into it instead, so the ui is never more
+ * than one change set behind, however fast the moves come. The first change set,
+ * and the one with the first move, have every tile of the board, since placing the
+ * bombs and counting them is not tracked tile by tile.
+ *
+ * A click on the same tile as the click before it in the queue is dropped if
+ * making it again can not change anything, which is the case for open and chord.
+ */
+public class GameExecutor implements AutoCloseable {
+
+	private static final int OPEN = 0;
+	private static final int TOGGLE_FLAG = 1;
+	private static final int CHORD = 2;
+	private static final int TASK = 3;
+
+	private final GameEngine engine;
+	private final Executor ui;
+	private final Consumer<ChangeSet> listener;
+	private final LinkedBlockingQueue<Request> queue = new LinkedBlockingQueue<>();
+	private final Thread worker;
+	private final List<Move> moves = new ArrayList<>();
+	private ChangeSet unpublished;
+	private volatile boolean closed;
+
+	/* A move or a task in the queue. */
+	private static class Request {
+
+		final int type, x, y;
+		final Runnable task;
+
+		Request(int type, int x, int y, Runnable task) {
+			this.type = type;
+			this.x = x;
+			this.y = y;
+			this.task = task;
+		}
+
+		boolean repeats(Request previous) {
+			return previous != null && (type == OPEN || type == CHORD) && type == previous.type
+					&& x == previous.x && y == previous.y;
+		}
+	}
+
+	public GameExecutor(GameEngine engine, Executor ui, Consumer<ChangeSet> listener) {
+		this.engine = engine;
+		this.ui = ui;
+		this.listener = listener;
+		this.worker = new Thread(this::work, "game-executor");
+		worker.setDaemon(true);
+		worker.start();
+	}
+
+	public void open(int x, int y) {
+		submit(new Request(OPEN, x, y, null));
+	}
+
+	/* Sets a flag on the tile if it has none, and removes it otherwise. */
+	public void toggleFlag(int x, int y) {
+		submit(new Request(TOGGLE_FLAG, x, y, null));
+	}
+
+	public void chord(int x, int y) {
+		submit(new Request(CHORD, x, y, null));
+	}
+
+	/*
+	 * Runs a task on the worker after the moves given before it, and returns its
+	 * result. The changes of those moves are published before the task runs. The task
+	 * may read the engine and its game, but should not make moves, since they would
+	 * not be in a change set.
+	 */
+	public <T> CompletableFuture<T> call(Function<GameEngine, T> task) {
+		CompletableFuture<T> result = new CompletableFuture<>();
+		submit(new Request(TASK, 0, 0, () -> {
+			try {
+				result.complete(task.apply(engine));
+			}catch (RuntimeException e) {
+				result.completeExceptionally(e);
+			}
+		}));
+		return result;
+	}
+
+	private void submit(Request request) {
+		if (closed) {
+			throw new IllegalStateException("Executor is closed");
+		}
+		queue.add(request);
+	}
+
+	/*
+	 * Stops the worker after the move it is making. Moves still in the queue are not
+	 * made, and change sets are no longer given to the listener.
+	 */
+	@Override
+	public void close() {
+		closed = true;
+		queue.add(new Request(TASK, 0, 0, () -> {}));
+	}
+
+	/* The loop of the worker thread. */
+	private void work() {
+		Game game = engine.getGame();
+		game.setTrackChanges(true);
+		game.takeChangedTiles();
+		publish(ChangeSet.of(game, null, moves, false));
+		boolean started = engine.isStarted();
+		try {
+			while (!closed) {
+				Request request = queue.take();
+				Request previous = null;
+				do {
+					if (request.type == TASK) {
+						started = publishChanges(started);
+						request.task.run();
+					}else if (!request.repeats(previous)) {
+						run(request);
+					}
+					previous = request;
+				}while ((request = queue.poll()) != null && !closed);
+				started = publishChanges(started);
+			}
+		}catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/*
+	 * Helper for work(). Publishes the tiles changed and the moves made since the
+	 * last time, if there are any, and returns if the game has started.
+	 */
+	private boolean publishChanges(boolean started) {
+		Game game = engine.getGame();
+		int[] changed = game.takeChangedTiles();
+		boolean startsGame = !started && engine.isStarted();
+		if (startsGame) {
+			changed = null;
+		}
+		if (changed == null || changed.length > 0 || !moves.isEmpty()) {
+			publish(ChangeSet.of(game, changed, moves, startsGame));
+		}
+		moves.clear();
+		return engine.isStarted();
+	}
+
+	/* Helper for work(). Makes a move, and remembers it if it changed the game. */
+	private void run(Request request) {
+		int before = engine.getMoves();
+		try {
+			if (request.type == OPEN) {
+				engine.open(request.x, request.y);
+			}else if (request.type == CHORD) {
+				engine.chord(request.x, request.y);
+			}else {
+				boolean flagged = engine.flag(request.x, request.y);
+				if (engine.getMoves() != before) {
+					moves.add(new Move(flagged ? Move.FLAG : Move.UNFLAG, request.x, request.y));
+				}
+				return;
+			}
+		}catch (IllegalArgumentException e) {
+			return;
+		}
+		if (engine.getMoves() != before) {
+			moves.add(new Move(request.type == OPEN ? Move.OPEN : Move.CHORD, request.x, request.y));
+		}
+	}
+
+	/*
+	 * Helper for work(). Gives the change set to the ui, or merges it into the one
+	 * the ui has not taken yet.
+	 */
+	private void publish(ChangeSet changes) {
+		synchronized (this) {
+			if (unpublished != null) {
+				unpublished = unpublished.merge(changes);
+				return;
+			}
+			unpublished = changes;
+		}
+		ui.execute(this::deliver);
+	}
+
+	/* Runs on the ui thread. Gives the change set that is waiting to the listener. */
+	private void deliver() {
+		ChangeSet changes;
+		synchronized (this) {
+			changes = unpublished;
+			unpublished = null;
+		}
+		if (changes != null && !closed) {
+			listener.accept(changes);
+		}
+	}
+}
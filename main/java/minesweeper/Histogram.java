@@ -0,0 +1,204 @@
+package minesweeper;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+
+/*
+ * Counts values, such as the nanoseconds a move took or the number of tiles it
+ * opened, in buckets in the way of HdrHistogram. Values below 2*SUB_BUCKETS get a
+ * bucket each. Above that, every power of two is split into SUB_BUCKETS buckets of
+ * the same size, so a value is known to within 1/SUB_BUCKETS (about 3%) of itself,
+ * and every long fits in BUCKETS buckets. Recording a value is a few atomic adds
+ * and does not allocate, so histograms can be kept on all the time.
+ *
+ * So that threads recording at the same time do not fight over the same counters,
+ * the values are kept in a number of stripes, like a LongAdder. A thread records
+ * in the stripe picked by its id, so the threads of a pool nearly always get one
+ * each, and the stripes are added up when the histogram is read. Each stripe is one
+ * array, with its count, total, max and last value in front of the buckets.
+ *
+ * The percentiles are read from the buckets while values may still be recorded,
+ * so they can be slightly out of date, but are never wrong by more than that.
+ */
+public class Histogram implements HistogramMXBean {
+
+	static final int SUB_BUCKETS = 32;
+	static final int BUCKETS = 2 * SUB_BUCKETS + (63 - 6) * SUB_BUCKETS;
+
+	/* The slots in front of the buckets in a stripe. */
+	private static final int COUNT = 0;
+	private static final int TOTAL = 1;
+	private static final int MAX = 2;
+	private static final int LAST = 3;
+	private static final int FIRST_BUCKET = 8;
+
+	/* The power of two at or above the number of processors, but at most 64. */
+	private static final int STRIPES = Math.min(64,
+			Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1));
+
+	private final String name;
+	private final String unit;
+	private final AtomicLongArray[] stripes = new AtomicLongArray[STRIPES];
+	private volatile int lastStripe;
+
+	public Histogram(String name, String unit) {
+		this.name = name;
+		this.unit = unit;
+		for (int i = 0; i < stripes.length; i++) {
+			stripes[i] = new AtomicLongArray(FIRST_BUCKET + BUCKETS);
+		}
+	}
+
+	/* Records a value. Negative values are counted as 0. */
+	public void record(long value) {
+		value = Math.max(0, value);
+		int index = (int) Thread.currentThread().getId() & (STRIPES - 1);
+		AtomicLongArray stripe = stripes[index];
+		stripe.incrementAndGet(FIRST_BUCKET + bucket(value));
+		stripe.incrementAndGet(COUNT);
+		stripe.addAndGet(TOTAL, value);
+		if (value > stripe.get(MAX)) {
+			stripe.accumulateAndGet(MAX, value, Math::max);
+		}
+		stripe.set(LAST, value);
+		if (lastStripe != index) {
+			lastStripe = index;
+		}
+	}
+
+	/* Returns the bucket of a value that is not negative. */
+	static int bucket(long value) {
+		if (value < 2 * SUB_BUCKETS) {
+			return (int) value;
+		}
+		int exponent = 63 - Long.numberOfLeadingZeros(value);
+		int shift = exponent - 5;
+		return 2 * SUB_BUCKETS + (exponent - 6) * SUB_BUCKETS + (int) (value >>> shift) - SUB_BUCKETS;
+	}
+
+	/* Returns the highest value that is counted in the bucket. */
+	static long highestValue(int bucket) {
+		if (bucket < 2 * SUB_BUCKETS) {
+			return bucket;
+		}
+		int exponent = (bucket - 2 * SUB_BUCKETS) / SUB_BUCKETS + 6;
+		long top = (bucket - 2 * SUB_BUCKETS) % SUB_BUCKETS + SUB_BUCKETS;
+		int shift = exponent - 5;
+		return ((top + 1) << shift) - 1;
+	}
+
+	/*
+	 * Returns the value that the given percent of the values are at or below, as the
+	 * highest value of its bucket, but never more than the highest value recorded.
+	 */
+	public long getValueAtPercentile(double percentile) {
+		long[] counts = new long[BUCKETS];
+		long recorded = 0;
+		for (AtomicLongArray stripe : stripes) {
+			for (int i = 0; i < BUCKETS; i++) {
+				counts[i] += stripe.get(FIRST_BUCKET + i);
+			}
+		}
+		for (long count : counts) {
+			recorded += count;
+		}
+		if (recorded == 0) {
+			return 0;
+		}
+		long wanted = Math.max(1, (long) Math.ceil(recorded * Math.min(100, percentile) / 100));
+		long seen = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			seen += counts[i];
+			if (seen >= wanted) {
+				return Math.min(highestValue(i), getMax());
+			}
+		}
+		return getMax();
+	}
+
+	/* Forgets every value that has been recorded. */
+	public void reset() {
+		for (AtomicLongArray stripe : stripes) {
+			for (int i = 0; i < stripe.length(); i++) {
+				stripe.set(i, 0);
+			}
+		}
+	}
+
+	/* Returns the sum of a slot over all the stripes. */
+	private long sum(int slot) {
+		long sum = 0;
+		for (AtomicLongArray stripe : stripes) {
+			sum += stripe.get(slot);
+		}
+		return sum;
+	}
+
+	/* Getters for the Histogram class. */
+	@Override
+	public String getName() {
+		return name;
+	}
+
+	@Override
+	public String getUnit() {
+		return unit;
+	}
+
+	@Override
+	public long getCount() {
+		return sum(COUNT);
+	}
+
+	@Override
+	public long getTotal() {
+		return sum(TOTAL);
+	}
+
+	@Override
+	public long getMax() {
+		long max = 0;
+		for (AtomicLongArray stripe : stripes) {
+			max = Math.max(max, stripe.get(MAX));
+		}
+		return max;
+	}
+
+	/* Returns the last value recorded by the thread that recorded most recently. */
+	@Override
+	public long getLast() {
+		return stripes[lastStripe].get(LAST);
+	}
+
+	@Override
+	public double getMean() {
+		long n = getCount();
+		return n == 0 ? 0 : (double) getTotal() / n;
+	}
+
+	@Override
+	public long getP50() {
+		return getValueAtPercentile(50);
+	}
+
+	@Override
+	public long getP90() {
+		return getValueAtPercentile(90);
+	}
+
+	@Override
+	public long getP99() {
+		return getValueAtPercentile(99);
+	}
+
+	@Override
+	public long getP999() {
+		return getValueAtPercentile(99.9);
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s: %d, mean %.1f, p50 %d, p99 %d, max %d %s", name, getCount(), getMean(),
+				getP50(), getP99(), getMax(), unit);
+	}
+}
@@ -0,0 +1,33 @@
+package minesweeper;
+
+
+/*
+ * The values of a Histogram that are shown over JMX, for example in JConsole or
+ * Java Mission Control. See Metrics.registerMBeans().
+ */
+public interface HistogramMXBean {
+
+	String getName();
+
+	String getUnit();
+
+	long getCount();
+
+	long getTotal();
+
+	long getMax();
+
+	long getLast();
+
+	double getMean();
+
+	long getP50();
+
+	long getP90();
+
+	long getP99();
+
+	long getP999();
+
+	void reset();
+}
@@ -0,0 +1,312 @@
+package minesweeper;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+
+/*
+ * Undo and redo for a game. After every move, commit() stores the tiles the move
+ * changed, with their bytes before and after, and the state of the game before and
+ * after. Undoing a move writes the old bytes back, and redoing it writes the new
+ * ones, so both cost about the same as the move did. A move that changed nothing
+ * is not stored.
+ *
+ * To find the tiles that changed, the history is told about every write to the
+ * board, and keeps its own copy of the board as it was at the last commit. Only
+ * the tiles that were written are compared with the copy. Placing the bombs and
+ * counting them writes the whole board, and is found by comparing all of it.
+ *
+ * The copy is split into chunks of CHUNK_SIZE tiles. Every SNAPSHOT_INTERVAL moves
+ * the chunks are kept as a snapshot, which shares them with the copy until the copy
+ * changes them, so a snapshot only costs the chunks that changed since the last
+ * one. goTo() uses the snapshots to jump far back without undoing every move.
+ *
+ * Moves are undone and made again through GameEngine, which keeps its count of
+ * moves and its replay in step with the history.
+ */
+public class History {
+
+	static final int CHUNK_BITS = 12;
+	static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+	static final int SNAPSHOT_INTERVAL = 64;
+
+	private final Game game;
+	private final Board board;
+	private final byte[][] chunks;
+	private final boolean[] shared;
+	private final List<Step> steps = new ArrayList<>();
+	private final List<Snapshot> snapshots = new ArrayList<>();
+	private int position;
+	private State state;
+	private int[] written = new int[16];
+	private int writtenCount;
+	private boolean allWritten;
+	private final Board.WriteListener listener;
+
+	/* The state of a game apart from its tiles. */
+	private static class State {
+
+		final int numberOfBombs;
+		final long seed;
+		final boolean gameOver, gameWon;
+
+		State(Game game) {
+			this.numberOfBombs = game.getNumberOfBombs();
+			this.seed = game.getSeed();
+			this.gameOver = game.isGameOver();
+			this.gameWon = game.isGameWon();
+		}
+
+		boolean same(State other) {
+			return numberOfBombs == other.numberOfBombs && seed == other.seed && gameOver == other.gameOver
+					&& gameWon == other.gameWon;
+		}
+
+		void applyTo(Game game) {
+			game.setNumberOfBombs(numberOfBombs);
+			game.setSeed(seed);
+			game.setGameOver(gameOver);
+			game.setGameWon(gameWon);
+		}
+	}
+
+	/* The changes of one move. */
+	private static class Step {
+
+		final int[] tiles;
+		final byte[] before, after;
+		final State stateBefore, stateAfter;
+
+		Step(int[] tiles, byte[] before, byte[] after, State stateBefore, State stateAfter) {
+			this.tiles = tiles;
+			this.before = before;
+			this.after = after;
+			this.stateBefore = stateBefore;
+			this.stateAfter = stateAfter;
+		}
+	}
+
+	/* The chunks of the board after the first position moves. */
+	private static class Snapshot {
+
+		final int position;
+		final byte[][] chunks;
+		final State state;
+
+		Snapshot(int position, byte[][] chunks, State state) {
+			this.position = position;
+			this.chunks = chunks;
+			this.state = state;
+		}
+	}
+
+	/* Starts a history of the game as it is now. It can not be undone past this. */
+	public History(Game game) {
+		this.game = game;
+		this.board = game.getPackedBoard();
+		int size = board.size();
+		this.chunks = new byte[(size + CHUNK_SIZE - 1) >> CHUNK_BITS][];
+		this.shared = new boolean[chunks.length];
+		for (int c = 0; c < chunks.length; c++) {
+			chunks[c] = new byte[Math.min(CHUNK_SIZE, size - (c << CHUNK_BITS))];
+			for (int i = 0; i < chunks[c].length; i++) {
+				chunks[c][i] = (byte) board.get((c << CHUNK_BITS) + i);
+			}
+		}
+		this.state = new State(game);
+		takeSnapshot();
+		this.listener = new Board.WriteListener() {
+			@Override
+			public void written(int index) {
+				if (writtenCount == written.length) {
+					written = Arrays.copyOf(written, writtenCount * 2);
+				}
+				written[writtenCount++] = index;
+			}
+
+			@Override
+			public void allWritten() {
+				allWritten = true;
+			}
+		};
+		board.addWriteListener(listener);
+	}
+
+	/*
+	 * Stores the changes made to the game since the last commit as one move, and
+	 * forgets the moves that were undone. Returns false if nothing changed.
+	 */
+	boolean commit() {
+		int[] tiles = new int[allWritten ? 16 : writtenCount];
+		byte[] before = new byte[tiles.length];
+		byte[] after = new byte[tiles.length];
+		int count = 0;
+		int end = allWritten ? board.size() : writtenCount;
+		for (int i = 0; i < end; i++) {
+			int index = allWritten ? i : written[i];
+			byte old = chunks[index >> CHUNK_BITS][index & (CHUNK_SIZE - 1)];
+			byte value = (byte) board.get(index);
+			if (old == value) {
+				continue;
+			}
+			if (count == tiles.length) {
+				tiles = Arrays.copyOf(tiles, count * 2);
+				before = Arrays.copyOf(before, count * 2);
+				after = Arrays.copyOf(after, count * 2);
+			}
+			tiles[count] = index;
+			before[count] = old;
+			after[count] = value;
+			count++;
+			remember(index, value);
+		}
+		clearWritten();
+		State stateAfter = new State(game);
+		if (count == 0 && stateAfter.same(state)) {
+			return false;
+		}
+		steps.subList(position, steps.size()).clear();
+		while (snapshots.get(snapshots.size() - 1).position > position) {
+			snapshots.remove(snapshots.size() - 1);
+		}
+		steps.add(new Step(Arrays.copyOf(tiles, count), Arrays.copyOf(before, count), Arrays.copyOf(after, count),
+				state, stateAfter));
+		position++;
+		state = stateAfter;
+		if (position % SNAPSHOT_INTERVAL == 0) {
+			takeSnapshot();
+		}
+		return true;
+	}
+
+	/* Undoes the last move that has not been undone. Returns false if there is none. */
+	boolean undo() {
+		if (!canUndo()) {
+			return false;
+		}
+		Step step = steps.get(--position);
+		for (int i = step.tiles.length - 1; i >= 0; i--) {
+			write(step.tiles[i], step.before[i]);
+		}
+		restore(step.stateBefore);
+		return true;
+	}
+
+	/* Makes the last move that was undone again. Returns false if there is none. */
+	boolean redo() {
+		if (!canRedo()) {
+			return false;
+		}
+		Step step = steps.get(position++);
+		for (int i = 0; i < step.tiles.length; i++) {
+			write(step.tiles[i], step.after[i]);
+		}
+		restore(step.stateAfter);
+		return true;
+	}
+
+	/*
+	 * Undoes or redoes moves until target moves are made. If a snapshot is closer to
+	 * the target than the current position, the board is first put back to it, which
+	 * only has to look at the chunks that differ from it.
+	 */
+	void goTo(int target) {
+		if (target < 0 || target > steps.size()) {
+			throw new IllegalArgumentException("No move " + target + " in the history");
+		}
+		Snapshot snapshot = snapshots.get(0);
+		for (Snapshot s : snapshots) {
+			if (s.position <= target) {
+				snapshot = s;
+			}
+		}
+		if (target - snapshot.position < Math.abs(target - position)) {
+			restore(snapshot);
+		}
+		while (position > target) {
+			undo();
+		}
+		while (position < target) {
+			redo();
+		}
+	}
+
+	public boolean canUndo() {
+		return position > 0;
+	}
+
+	public boolean canRedo() {
+		return position < steps.size();
+	}
+
+	/* Returns the number of moves that are made, that is, that can be undone. */
+	public int getPosition() {
+		return position;
+	}
+
+	/* Returns the number of moves stored, including those that were undone. */
+	public int size() {
+		return steps.size();
+	}
+
+	/* Returns the number of tiles the move changed, for tests. */
+	int getTileCount(int move) {
+		return steps.get(move).tiles.length;
+	}
+
+	/* Stops listening to the board. The history can not be used after this. */
+	public void close() {
+		board.removeWriteListener(listener);
+	}
+
+	/* Writes a tile of the game and of the copy, without counting it as a new change. */
+	private void write(int index, byte value) {
+		board.put(index, value);
+		remember(index, value);
+	}
+
+	/* Writes a tile of the copy, and copies its chunk first if a snapshot has it. */
+	private void remember(int index, byte value) {
+		int c = index >> CHUNK_BITS;
+		if (shared[c]) {
+			chunks[c] = chunks[c].clone();
+			shared[c] = false;
+		}
+		chunks[c][index & (CHUNK_SIZE - 1)] = value;
+	}
+
+	private void restore(State restored) {
+		restored.applyTo(game);
+		state = restored;
+		clearWritten();
+	}
+
+	/* Puts the board back to a snapshot, writing only the tiles that differ from it. */
+	private void restore(Snapshot snapshot) {
+		for (int c = 0; c < chunks.length; c++) {
+			if (chunks[c] == snapshot.chunks[c]) {
+				continue;
+			}
+			for (int i = 0; i < chunks[c].length; i++) {
+				if (chunks[c][i] != snapshot.chunks[c][i]) {
+					board.put((c << CHUNK_BITS) + i, snapshot.chunks[c][i]);
+				}
+			}
+			chunks[c] = snapshot.chunks[c];
+			shared[c] = true;
+		}
+		position = snapshot.position;
+		restore(snapshot.state);
+	}
+
+	private void takeSnapshot() {
+		Arrays.fill(shared, true);
+		snapshots.add(new Snapshot(position, chunks.clone(), state));
+	}
+
+	private void clearWritten() {
+		writtenCount = 0;
+		allWritten = false;
+	}
+}
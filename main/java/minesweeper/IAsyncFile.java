@@ -0,0 +1,18 @@
+package minesweeper;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.DoubleConsumer;
+
+/*
+ * Saves and reads games without waiting for the file, like IFile. The futures fail
+ * with a FileNotFoundException if the file can not be made or does not exist, and
+ * can be cancelled while they run. Progress is given as a number from 0 to 1, on
+ * the thread that does the work.
+ */
+public interface IAsyncFile {
+
+	CompletableFuture<Void> writeGameToFileAsync(String filename, Game game, DoubleConsumer progress);
+
+	CompletableFuture<Game> readGameFromFileAsync(String filename, DoubleConsumer progress);
+
+}
@@ -0,0 +1,15 @@
+package minesweeper;
+
+import java.io.FileNotFoundException;
+import java.util.List;
+
+/*
+ * A save file that can be extended with the moves made since the game was last
+ * saved, instead of saving the whole game again. writeGameToFile() saves the whole
+ * game, and readGameFromFile() gives the game with all appended moves made.
+ */
+public interface IJournalFile extends IFile {
+	
+	void appendMoves(String filename, Game game, List<Move> moves) throws FileNotFoundException;
+	
+}
@@ -0,0 +1,367 @@
+package minesweeper;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+
+/*
+ * A game on a board without edges. The board is split into chunks of CHUNK_SIZE x
+ * CHUNK_SIZE tiles, which are kept in a LongMap by their chunk coordinates. A chunk
+ * is only made when one of its tiles is first looked at, so the memory grows with
+ * the part of the board that has been explored, not with the size of the board.
+ *
+ * Whether a tile is a bomb is worked out from the seed and its coordinates alone,
+ * see isBomb(), so a chunk can be made in any order and always gets the same bombs,
+ * and the bombs around the edge of a chunk can be counted without making the chunk
+ * next to it. No bombs are placed around the first tile that is opened. The tiles
+ * of a chunk are kept in a Board of their own, in the same packed form as a Game.
+ *
+ * Every EVICT_INTERVAL moves, the chunks that have not been used for COLD_MOVES
+ * moves are removed from memory, if nothing has been opened or flagged on them, or
+ * if every tile on them that is not a bomb is open. Chunks with open or flagged
+ * tiles are saved through the file manager first, as a 64x64 game named
+ * "<name>-chunk-<cx>_<cy>", and read back when they are used again.
+ */
+public class InfiniteGame {
+
+	static final int CHUNK_BITS = 6;
+	static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+	static final int CHUNK_TILES = CHUNK_SIZE * CHUNK_SIZE;
+	static final int EVICT_INTERVAL = 64;
+	static final int COLD_MOVES = 256;
+
+	/*
+	 * With fewer bombs than this, the tiles with no bombs around them are so common
+	 * that a cascade is likely to never end.
+	 */
+	public static final int MIN_DENSITY = 15;
+	public static final int MAX_DENSITY = 80;
+
+	private final long seed;
+	private final int density;
+	private final long threshold;
+	private final String name;
+	private final IFile fileManager;
+	private final LongMap<Chunk> chunks = new LongMap<>();
+	private final LongMap<Boolean> saved = new LongMap<>();
+	private boolean started;
+	private int safeX, safeY;
+	private boolean gameOver;
+	private long moves;
+	private long openedSafe;
+	private long[] cascadeStack = new long[16];
+
+	/* The tiles of one chunk, and when it was last used. */
+	private static class Chunk {
+
+		final Board board = new Board(CHUNK_SIZE, CHUNK_SIZE);
+		long lastUsed;
+		boolean played;
+
+		boolean isResolved() {
+			return board.getOpenedSafe() + board.getBombs() == CHUNK_TILES;
+		}
+	}
+
+	/*
+	 * Makes a game with bombs on about density percent of the tiles. Evicted chunks
+	 * are saved with the file manager under the given name.
+	 */
+	public InfiniteGame(long seed, int density, String name, IFile fileManager) {
+		if (density < MIN_DENSITY || density > MAX_DENSITY) {
+			throw new IllegalArgumentException("Density must be from " + MIN_DENSITY + " to " + MAX_DENSITY + " percent");
+		}
+		this.seed = seed;
+		this.density = density;
+		this.threshold = Long.divideUnsigned(-1L, 100) * density;
+		this.name = name;
+		this.fileManager = fileManager;
+	}
+
+	public InfiniteGame(long seed, int density, String name) {
+		this(seed, density, name, new BinaryFileManager());
+	}
+
+	/*
+	 * Returns true if (x, y) is a bomb. Depends only on the seed, the coordinates and
+	 * the first tile that was opened, which has no bombs around it.
+	 */
+	public boolean isBomb(int x, int y) {
+		if (started && Math.abs((long) x - safeX) <= 1 && Math.abs((long) y - safeY) <= 1) {
+			return false;
+		}
+		long hash = seed ^ (x * 0x9E3779B97F4A7C15L) ^ (y * 0xC2B2AE3D27D4EB4FL);
+		hash = (hash ^ (hash >>> 33)) * 0xFF51AFD7ED558CCDL;
+		hash = (hash ^ (hash >>> 33)) * 0xC4CEB9FE1A85EC53L;
+		hash ^= hash >>> 33;
+		return Long.compareUnsigned(hash, threshold) < 0;
+	}
+
+	public boolean isOpen(int x, int y) {
+		return chunk(x, y).board.isOpen(local(x, y));
+	}
+
+	public boolean isFlagged(int x, int y) {
+		return chunk(x, y).board.isFlagged(local(x, y));
+	}
+
+	public int getBombCount(int x, int y) {
+		return chunk(x, y).board.getBombCount(local(x, y));
+	}
+
+	/*
+	 * Opens the tile at (x, y), and the tiles around it if it has no bombs around it,
+	 * across as many chunks as it takes. Opening a bomb loses the game. Returns the
+	 * number of tiles that were opened.
+	 */
+	public int open(int x, int y) {
+		if (gameOver) {
+			return 0;
+		}
+		if (!started) {
+			started = true;
+			safeX = x;
+			safeY = y;
+			chunks.clear();
+		}
+		moves++;
+		int opened = openTile(x, y);
+		if (opened > 0 && isBomb(x, y)) {
+			gameOver = true;
+		}else if (opened > 0 && getBombCount(x, y) == 0) {
+			opened += cascade(x, y);
+		}
+		openedSafe += gameOver ? opened - 1 : opened;
+		if (moves % EVICT_INTERVAL == 0) {
+			evict(COLD_MOVES);
+		}
+		return opened;
+	}
+
+	/* Toggles the flag on the tile at (x, y) if it is not open. Returns true if it is flagged. */
+	public boolean toggleFlag(int x, int y) {
+		Chunk chunk = chunk(x, y);
+		int index = local(x, y);
+		if (gameOver || chunk.board.isOpen(index)) {
+			return chunk.board.isFlagged(index);
+		}
+		moves++;
+		chunk.board.setFlagged(index, !chunk.board.isFlagged(index));
+		chunk.played = true;
+		return chunk.board.isFlagged(index);
+	}
+
+	/* Helper for open() and cascade(). Opens one tile, and returns 1 if it was closed. */
+	private int openTile(int x, int y) {
+		Chunk chunk = chunk(x, y);
+		int index = local(x, y);
+		if (chunk.board.isOpen(index)) {
+			return 0;
+		}
+		chunk.board.setOpen(index, true);
+		chunk.board.setFlagged(index, false);
+		chunk.played = true;
+		return 1;
+	}
+
+	/*
+	 * Helper for open(). Opens every tile reachable from the open tile at (x, y)
+	 * through tiles with no bombs around them, like Game.cascade(). The coordinates
+	 * are packed into one long on the stack, see key(), and a tile is opened before it
+	 * is pushed, so it is pushed at most once.
+	 */
+	private int cascade(int x, int y) {
+		int opened = 0;
+		int top = 0;
+		cascadeStack[top++] = key(x, y);
+		while (top > 0) {
+			long tile = cascadeStack[--top];
+			int tileX = (int) (tile >> 32);
+			int tileY = (int) tile;
+			for (int row = tileY - 1; row <= tileY + 1; row++) {
+				for (int col = tileX - 1; col <= tileX + 1; col++) {
+					if (isBomb(col, row) || openTile(col, row) == 0) {
+						continue;
+					}
+					opened++;
+					if (getBombCount(col, row) == 0) {
+						if (top == cascadeStack.length) {
+							cascadeStack = Arrays.copyOf(cascadeStack, top * 2);
+						}
+						cascadeStack[top++] = key(col, row);
+					}
+				}
+			}
+		}
+		return opened;
+	}
+
+	/*
+	 * Removes the chunks that have not been used for the given number of moves, and
+	 * have not been played or are resolved, see the class comment. Returns the number
+	 * of chunks that were removed.
+	 */
+	public int evict(long coldMoves) {
+		int evicted = 0;
+		for (long key : chunks.keys()) {
+			Chunk chunk = chunks.get(key);
+			if (moves - chunk.lastUsed < coldMoves || (chunk.played && !chunk.isResolved())) {
+				continue;
+			}
+			if (chunk.played) {
+				save(key, chunk);
+			}
+			chunks.remove(key);
+			evicted++;
+		}
+		return evicted;
+	}
+
+	/*
+	 * Removes every chunk from memory, and saves the ones that have been played,
+	 * resolved or not. The game can go on after this.
+	 */
+	public void saveAll() {
+		for (long key : chunks.keys()) {
+			Chunk chunk = chunks.get(key);
+			if (chunk.played) {
+				save(key, chunk);
+			}
+			chunks.remove(key);
+		}
+	}
+
+	/* Deletes the files of the saved chunks. */
+	public void deleteSavedChunks() {
+		try {
+			for (long key : saved.keys()) {
+				Files.deleteIfExists(BinaryFileManager.getFullPath(chunkName(key)));
+			}
+		}catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		saved.clear();
+	}
+
+	private void save(long key, Chunk chunk) {
+		try {
+			fileManager.writeGameToFile(chunkName(key), new Game(chunk.board));
+		}catch (FileNotFoundException e) {
+			throw new UncheckedIOException(e);
+		}
+		saved.put(key, true);
+	}
+
+	/*
+	 * Returns the chunk with the tile (x, y), and makes it if it is not in memory.
+	 * The bombs are made from the seed, and the tiles that were open or flagged when
+	 * it was saved are read back from its file.
+	 */
+	private Chunk chunk(int x, int y) {
+		long key = key(x >> CHUNK_BITS, y >> CHUNK_BITS);
+		Chunk chunk = chunks.get(key);
+		if (chunk == null) {
+			chunk = generate(x >> CHUNK_BITS, y >> CHUNK_BITS);
+			if (saved.get(key) != null) {
+				load(key, chunk);
+			}
+			chunks.put(key, chunk);
+		}
+		chunk.lastUsed = moves;
+		return chunk;
+	}
+
+	/* Helper for chunk(). Places the bombs of a chunk and counts them, also across its edges. */
+	private Chunk generate(int chunkX, int chunkY) {
+		Chunk chunk = new Chunk();
+		int left = chunkX << CHUNK_BITS;
+		int top = chunkY << CHUNK_BITS;
+		int span = CHUNK_SIZE + 2;
+		boolean[] bombs = new boolean[span * span];
+		for (int row = 0; row < span; row++) {
+			for (int col = 0; col < span; col++) {
+				bombs[row*span + col] = isBomb(left + col - 1, top + row - 1);
+			}
+		}
+		for (int row = 0; row < CHUNK_SIZE; row++) {
+			for (int col = 0; col < CHUNK_SIZE; col++) {
+				int center = (row + 1)*span + col + 1;
+				int cell;
+				if (bombs[center]) {
+					cell = Board.BOMB;
+				}else {
+					cell = 0;
+					for (int around = center - span - 1; around <= center + span - 1; around += span) {
+						cell += (bombs[around] ? 1 : 0) + (bombs[around + 1] ? 1 : 0) + (bombs[around + 2] ? 1 : 0);
+					}
+				}
+				chunk.board.put(row*CHUNK_SIZE + col, cell);
+			}
+		}
+		return chunk;
+	}
+
+	/* Helper for chunk(). Opens and flags the tiles that were open and flagged in the file. */
+	private void load(long key, Chunk chunk) {
+		Board stored;
+		try {
+			stored = fileManager.readGameFromFile(chunkName(key)).getPackedBoard();
+		}catch (FileNotFoundException e) {
+			throw new UncheckedIOException(e);
+		}
+		for (int i = 0; i < CHUNK_TILES; i++) {
+			chunk.board.setOpen(i, stored.isOpen(i));
+			chunk.board.setFlagged(i, stored.isFlagged(i));
+		}
+		chunk.played = true;
+	}
+
+	private String chunkName(long key) {
+		return name + "-chunk-" + (int) (key >> 32) + "_" + (int) key;
+	}
+
+	/* Packs two coordinates into one long, x in the high half. */
+	private static long key(int x, int y) {
+		return ((long) x << 32) | (y & 0xFFFFFFFFL);
+	}
+
+	/* The index of the tile (x, y) in the board of its chunk. */
+	private static int local(int x, int y) {
+		return (y & (CHUNK_SIZE - 1)) * CHUNK_SIZE + (x & (CHUNK_SIZE - 1));
+	}
+
+	/* Getters for the InfiniteGame class. */
+	public boolean isGameOver() {
+		return gameOver;
+	}
+
+	public long getSeed() {
+		return seed;
+	}
+
+	public int getDensity() {
+		return density;
+	}
+
+	public long getMoves() {
+		return moves;
+	}
+
+	/* Returns the number of tiles that are open and not bombs. */
+	public long getOpenedSafe() {
+		return openedSafe;
+	}
+
+	/* Returns the number of chunks in memory. */
+	public int getChunkCount() {
+		return chunks.size();
+	}
+
+	/* Returns the number of chunks that have been saved to disk. */
+	public int getSavedChunkCount() {
+		return saved.size();
+	}
+}
@@ -0,0 +1,176 @@
+package minesweeper;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+
+/*
+ * Saves a game as a snapshot in the binary format of BinaryFileManager, plus a
+ * journal of the moves made after the snapshot. Saving a game that was already
+ * saved only appends the new moves to the journal, so the cost of saving depends
+ * on the number of moves and not on the size of the board. When the journal has
+ * more than compactAfter moves, a new snapshot is written and the journal is
+ * emptied.
+ *
+ * The journal is stored next to the snapshot, in <filename>.msj. It starts with
+ * a magic number and a version (4 bytes each), followed by one record of
+ * RECORD_SIZE bytes per move: the type of the move (1 byte), x (4) and y (4).
+ * Moves are replayed on the snapshot when the game is read, so a game that was
+ * interrupted can be restored up to the last saved move. A record that was only
+ * partly written is ignored.
+ */
+public class JournalFileManager implements IJournalFile {
+
+	static final int MAGIC = 0x4D53574A;
+	static final int VERSION = 1;
+	static final int HEADER_SIZE = 8;
+	static final int RECORD_SIZE = 9;
+	public static final int DEFAULT_COMPACT_AFTER = 1024;
+
+	private final BinaryFileManager snapshots = new BinaryFileManager();
+	private final int compactAfter;
+
+	public JournalFileManager() {
+		this(DEFAULT_COMPACT_AFTER);
+	}
+
+	public JournalFileManager(int compactAfter) {
+		if (compactAfter < 0) {
+			throw new IllegalArgumentException("compactAfter can not be negative");
+		}
+		this.compactAfter = compactAfter;
+	}
+
+	public static Path getJournalPath(String filename) {
+		return FileManager.getUserFolderPath().resolve(filename + ".msj");
+	}
+
+	/*
+	 * Writes a snapshot of the game and deletes the journal. The snapshot is written
+	 * first, so that if the journal is not deleted, it only holds moves that are
+	 * already in the snapshot. Replaying them again does not change the game.
+	 */
+	@Override
+	public void writeGameToFile(String filename, Game game) throws FileNotFoundException {
+		snapshots.writeGameToFile(filename, game);
+		try {
+			Files.deleteIfExists(getJournalPath(filename));
+		}catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/*
+	 * Appends the moves to the journal of a game that has been saved with
+	 * writeGameToFile(). If the journal then has more than compactAfter moves, or
+	 * there is no snapshot in the binary format, the game is saved as a new snapshot
+	 * instead.
+	 */
+	@Override
+	public void appendMoves(String filename, Game game, List<Move> moves) throws FileNotFoundException {
+		append(filename, () -> game, moves);
+	}
+
+	/*
+	 * Appends the moves like appendMoves(), without being given the game. If a new
+	 * snapshot has to be written, the game is read back from the file and the moves
+	 * are made on it, so the game that is being played is never copied or read. Used
+	 * by AsyncFileManager, which appends on another thread.
+	 */
+	public void appendMoves(String filename, List<Move> moves) throws FileNotFoundException {
+		append(filename, () -> {
+			Game game = readGameFromFile(filename);
+			for (Move move : moves) {
+				move.apply(game);
+			}
+			game.checkGameWon();
+			return game;
+		}, moves);
+	}
+
+	/* Gives the game for append() to save when it writes a new snapshot. */
+	private interface GameSource {
+		Game get() throws FileNotFoundException;
+	}
+
+	private void append(String filename, GameSource game, List<Move> moves) throws FileNotFoundException {
+		if (!Files.exists(BinaryFileManager.getFullPath(filename))) {
+			writeGameToFile(filename, game.get());
+			return;
+		}
+		Path path = getJournalPath(filename);
+		try {
+			long size = Files.exists(path) ? Files.size(path) : 0;
+			long recorded = size < HEADER_SIZE ? 0 : (size - HEADER_SIZE) / RECORD_SIZE;
+			if (recorded + moves.size() > compactAfter) {
+				writeGameToFile(filename, game.get());
+				return;
+			}
+			try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+					StandardOpenOption.APPEND)) {
+				ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + moves.size() * RECORD_SIZE);
+				if (size < HEADER_SIZE) {
+					channel.truncate(0);
+					buffer.putInt(MAGIC);
+					buffer.putInt(VERSION);
+				}else if (size != HEADER_SIZE + recorded * RECORD_SIZE) {
+					channel.truncate(HEADER_SIZE + recorded * RECORD_SIZE);
+				}
+				for (Move move : moves) {
+					buffer.put((byte) move.getType());
+					buffer.putInt(move.getX());
+					buffer.putInt(move.getY());
+				}
+				buffer.flip();
+				while (buffer.hasRemaining()) {
+					channel.write(buffer);
+				}
+			}
+		}catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/* Reads the snapshot, and makes the moves in the journal on it. */
+	@Override
+	public Game readGameFromFile(String filename) throws FileNotFoundException {
+		Game game = snapshots.readGameFromFile(filename);
+		for (Move move : readJournal(filename)) {
+			move.apply(game);
+		}
+		game.checkGameWon();
+		return game;
+	}
+
+	/* Returns the moves in the journal of the game, or no moves if it has no journal. */
+	public List<Move> readJournal(String filename) {
+		List<Move> moves = new ArrayList<>();
+		Path path = getJournalPath(filename);
+		if (!Files.exists(path)) {
+			return moves;
+		}
+		try {
+			ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(path));
+			if (buffer.remaining() < HEADER_SIZE) {
+				return moves;
+			}
+			if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+				throw new IOException("Not a minesweeper journal: " + path);
+			}
+			while (buffer.remaining() >= RECORD_SIZE) {
+				moves.add(new Move(buffer.get(), buffer.getInt(), buffer.getInt()));
+			}
+			return moves;
+		}catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+}
@@ -0,0 +1,130 @@
+package minesweeper;
+
+import java.util.Arrays;
+
+
+/*
+ * A hash map from long keys to values, which does not box the keys. Used to find
+ * the chunks of an InfiniteGame from their packed coordinates, see InfiniteGame.key().
+ *
+ * The keys and values are kept in two arrays, and a key that collides is put in the
+ * next free slot (linear probing). The arrays are doubled when they are more than
+ * half full, so a lookup rarely looks at more than a couple of slots. A slot is free
+ * when its value is null, so null can not be stored as a value.
+ */
+final class LongMap<V> {
+
+	private long[] keys = new long[16];
+	private Object[] values = new Object[16];
+	private int size;
+
+	@SuppressWarnings("unchecked")
+	V get(long key) {
+		int mask = keys.length - 1;
+		for (int slot = hash(key) & mask; values[slot] != null; slot = (slot + 1) & mask) {
+			if (keys[slot] == key) {
+				return (V) values[slot];
+			}
+		}
+		return null;
+	}
+
+	/* Puts the value under the key, and returns the value it replaced, or null. */
+	@SuppressWarnings("unchecked")
+	V put(long key, V value) {
+		if (value == null) {
+			throw new IllegalArgumentException("LongMap can not hold null");
+		}
+		if (2 * (size + 1) > keys.length) {
+			grow();
+		}
+		int mask = keys.length - 1;
+		int slot = hash(key) & mask;
+		for (; values[slot] != null; slot = (slot + 1) & mask) {
+			if (keys[slot] == key) {
+				V old = (V) values[slot];
+				values[slot] = value;
+				return old;
+			}
+		}
+		keys[slot] = key;
+		values[slot] = value;
+		size++;
+		return null;
+	}
+
+	/*
+	 * Removes the key, and returns its value, or null if it was not in the map. The
+	 * keys after it that were moved on by collisions are moved back, so no slot has to
+	 * be marked as removed.
+	 */
+	@SuppressWarnings("unchecked")
+	V remove(long key) {
+		int mask = keys.length - 1;
+		int slot = hash(key) & mask;
+		while (values[slot] != null && keys[slot] != key) {
+			slot = (slot + 1) & mask;
+		}
+		if (values[slot] == null) {
+			return null;
+		}
+		V old = (V) values[slot];
+		int free = slot;
+		for (int next = (free + 1) & mask; values[next] != null; next = (next + 1) & mask) {
+			int home = hash(keys[next]) & mask;
+			if (((next - home) & mask) >= ((next - free) & mask)) {
+				keys[free] = keys[next];
+				values[free] = values[next];
+				free = next;
+			}
+		}
+		values[free] = null;
+		size--;
+		return old;
+	}
+
+	int size() {
+		return size;
+	}
+
+	/* Returns the keys in the map, in no particular order. */
+	long[] keys() {
+		long[] result = new long[size];
+		int length = 0;
+		for (int slot = 0; slot < keys.length; slot++) {
+			if (values[slot] != null) {
+				result[length++] = keys[slot];
+			}
+		}
+		return result;
+	}
+
+	void clear() {
+		Arrays.fill(values, null);
+		size = 0;
+	}
+
+	private void grow() {
+		long[] oldKeys = keys;
+		Object[] oldValues = values;
+		keys = new long[oldKeys.length * 2];
+		values = new Object[oldValues.length * 2];
+		int mask = keys.length - 1;
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldValues[i] != null) {
+				int slot = hash(oldKeys[i]) & mask;
+				while (values[slot] != null) {
+					slot = (slot + 1) & mask;
+				}
+				keys[slot] = oldKeys[i];
+				values[slot] = oldValues[i];
+			}
+		}
+	}
+
+	/* Mixes all the bits of the key into the low bits, which pick the slot. */
+	static int hash(long key) {
+		key *= 0x9E3779B97F4A7C15L;
+		return (int) (key ^ (key >>> 32));
+	}
+}
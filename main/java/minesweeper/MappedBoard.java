@@ -0,0 +1,133 @@
+package minesweeper;
+
+import java.nio.MappedByteBuffer;
+import java.nio.file.Path;
+
+
+/*
+ * A board that reads and writes the tiles directly in a memory-mapped save file
+ * in the format of BinaryFileManager. Nothing is decoded when the board is made,
+ * only the counters are found by counting bits in the planes. A tile is decoded
+ * from the three planes when it is read, and its bombCount is counted from the
+ * bomb plane at the same time, so bombCounts are never stored.
+ *
+ * Changes are written to the mapped planes. If the file was mapped for writing,
+ * force() then saves the game without writing the whole file again.
+ */
+public class MappedBoard extends Board {
+
+	private final MappedByteBuffer buffer;
+	private final Path path;
+	private final boolean writeThrough;
+	private final int bombPlane, openPlane, flaggedPlane;
+
+	MappedBoard(int width, int height, MappedByteBuffer buffer, Path path, boolean writeThrough) {
+		super(width, height, false);
+		this.buffer = buffer;
+		this.path = path;
+		this.writeThrough = writeThrough;
+		this.bombPlane = (int) BinaryFileManager.planeOffset(BinaryFileManager.BOMB_PLANE, size());
+		this.openPlane = (int) BinaryFileManager.planeOffset(BinaryFileManager.OPEN_PLANE, size());
+		this.flaggedPlane = (int) BinaryFileManager.planeOffset(BinaryFileManager.FLAGGED_PLANE, size());
+		countTiles();
+	}
+
+	/*
+	 * Helper for the constructor. Finds the counters of the board by counting the
+	 * bits of the planes eight bytes at a time.
+	 */
+	private void countTiles() {
+		int planeSize = (int) BinaryFileManager.planeSize(size());
+		int bombs = 0;
+		int openedSafe = 0;
+		int flaggedBombs = 0;
+		int i = 0;
+		for (; i + 8 <= planeSize; i += 8) {
+			long bomb = buffer.getLong(bombPlane + i);
+			bombs += Long.bitCount(bomb);
+			openedSafe += Long.bitCount(buffer.getLong(openPlane + i) & ~bomb);
+			flaggedBombs += Long.bitCount(buffer.getLong(flaggedPlane + i) & bomb);
+		}
+		for (; i < planeSize; i++) {
+			int bomb = buffer.get(bombPlane + i) & 0xFF;
+			bombs += Integer.bitCount(bomb);
+			openedSafe += Integer.bitCount(buffer.get(openPlane + i) & 0xFF & ~bomb);
+			flaggedBombs += Integer.bitCount(buffer.get(flaggedPlane + i) & bomb);
+		}
+		setCounters(bombs, openedSafe, flaggedBombs);
+	}
+
+	@Override
+	int get(int index) {
+		int cell = 0;
+		if (bit(bombPlane, index)) {
+			cell |= BOMB;
+		}else {
+			cell |= countAround(index);
+		}
+		if (bit(openPlane, index)) {
+			cell |= OPEN;
+		}
+		if (bit(flaggedPlane, index)) {
+			cell |= FLAGGED;
+		}
+		return cell;
+	}
+
+	/* Writes the bomb, open and flagged bits. The bombCount bits are ignored. */
+	@Override
+	void set(int index, int value) {
+		setBit(bombPlane, index, (value & BOMB) != 0);
+		setBit(openPlane, index, (value & OPEN) != 0);
+		setBit(flaggedPlane, index, (value & FLAGGED) != 0);
+	}
+
+	/* The bombCounts are counted when a tile is read, so there is nothing to do. */
+	@Override
+	public void computeBombCounts() {
+	}
+
+	/* Helper for get(). Counts the bombs around the tile with the given index. */
+	private int countAround(int index) {
+		int x = index % getWidth();
+		int y = index / getWidth();
+		int count = 0;
+		for (int row = Math.max(0, y-1); row <= Math.min(getHeight()-1, y+1); row++) {
+			for (int col = Math.max(0, x-1); col <= Math.min(getWidth()-1, x+1); col++) {
+				if (bit(bombPlane, row*getWidth() + col)) {
+					count++;
+				}
+			}
+		}
+		return count;
+	}
+
+	private boolean bit(int plane, int index) {
+		return (buffer.get(plane + (index >>> 3)) & (1 << (index & 7))) != 0;
+	}
+
+	private void setBit(int plane, int index, boolean value) {
+		int position = plane + (index >>> 3);
+		int old = buffer.get(position);
+		int changed = value ? old | (1 << (index & 7)) : old & ~(1 << (index & 7));
+		if (changed != old) {
+			buffer.put(position, (byte) changed);
+		}
+	}
+
+	/*
+	 * Writes numberOfBombs, the configured number of bombs and seed to the header, and
+	 * makes sure all changes are written to the file.
+	 */
+	void force(int numberOfBombs, int configuredBombs, long seed) {
+		buffer.putInt(16, numberOfBombs);
+		buffer.putInt(20, configuredBombs);
+		buffer.putLong(24, seed);
+		buffer.force();
+	}
+
+	/* Returns true if changes go through to the file at the given path. */
+	boolean writesTo(Path path) {
+		return writeThrough && this.path.equals(path);
+	}
+}
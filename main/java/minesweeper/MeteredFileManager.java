@@ -0,0 +1,73 @@
+package minesweeper;
+
+import java.io.FileNotFoundException;
+import java.util.List;
+
+
+/*
+ * Measures how long another file manager takes to save and load games, in
+ * Metrics.SAVE_TIME and Metrics.LOAD_TIME, and records a FileEvent for each. Saves
+ * and loads that fail are measured too.
+ */
+public class MeteredFileManager implements IJournalFile {
+
+	private final IJournalFile files;
+
+	public MeteredFileManager(IJournalFile files) {
+		this.files = files;
+	}
+
+	@Override
+	public void writeGameToFile(String filename, Game game) throws FileNotFoundException {
+		FileEvent event = begin(true, filename, game);
+		long start = System.nanoTime();
+		try {
+			files.writeGameToFile(filename, game);
+		}finally {
+			end(Metrics.SAVE_TIME, start, event);
+		}
+	}
+
+	@Override
+	public void appendMoves(String filename, Game game, List<Move> moves) throws FileNotFoundException {
+		FileEvent event = begin(true, filename, game);
+		long start = System.nanoTime();
+		try {
+			files.appendMoves(filename, game, moves);
+		}finally {
+			end(Metrics.SAVE_TIME, start, event);
+		}
+	}
+
+	@Override
+	public Game readGameFromFile(String filename) throws FileNotFoundException {
+		FileEvent event = begin(false, filename, null);
+		long start = System.nanoTime();
+		Game game = null;
+		try {
+			game = files.readGameFromFile(filename);
+			return game;
+		}finally {
+			if (game != null) {
+				event.tiles = game.getWidth() * game.getHeight();
+			}
+			end(Metrics.LOAD_TIME, start, event);
+		}
+	}
+
+	private static FileEvent begin(boolean save, String filename, Game game) {
+		FileEvent event = new FileEvent();
+		event.begin();
+		event.save = save;
+		event.filename = filename;
+		if (game != null) {
+			event.tiles = game.getWidth() * game.getHeight();
+		}
+		return event;
+	}
+
+	private static void end(Histogram histogram, long start, FileEvent event) {
+		histogram.record(System.nanoTime() - start);
+		event.commit();
+	}
+}
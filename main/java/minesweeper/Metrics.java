@@ -0,0 +1,71 @@
+package minesweeper;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.List;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+
+/*
+ * The histograms that are kept of how the game runs. Moves are measured by
+ * GameEngine, saving and loading by AsyncFileManager and MeteredFileManager, and
+ * drawing by GameController. Times are in nanoseconds. The count and total of a histogram are
+ * also the counters, for example TILES_OPENED.getTotal() is the number of tiles
+ * opened by all moves.
+ *
+ * The histograms can be read over JMX once registerMBeans() has been called, and
+ * every move, save and load is also a JFR event, see MoveEvent and FileEvent.
+ */
+public class Metrics {
+
+	public static final Histogram MOVE_TIME = new Histogram("MoveTime", "ns");
+	public static final Histogram TILES_OPENED = new Histogram("TilesOpened", "tiles");
+	public static final Histogram CHECK_GAME_WON_TIME = new Histogram("CheckGameWonTime", "ns");
+	public static final Histogram DRAW_TIME = new Histogram("DrawTime", "ns");
+	public static final Histogram NODES_DRAWN = new Histogram("NodesDrawn", "nodes");
+	public static final Histogram SAVE_TIME = new Histogram("SaveTime", "ns");
+	public static final Histogram LOAD_TIME = new Histogram("LoadTime", "ns");
+
+	private static final List<Histogram> ALL = Arrays.asList(MOVE_TIME, TILES_OPENED, CHECK_GAME_WON_TIME,
+			DRAW_TIME, NODES_DRAWN, SAVE_TIME, LOAD_TIME);
+	private static boolean registered;
+
+	public static List<Histogram> getHistograms() {
+		return ALL;
+	}
+
+	/* Forgets every value in every histogram. */
+	public static void reset() {
+		for (Histogram histogram : ALL) {
+			histogram.reset();
+		}
+	}
+
+	/*
+	 * Registers every histogram with the platform MBeanServer, as
+	 * minesweeper:type=Metrics,name=<name>. Calling it again does nothing.
+	 */
+	public static synchronized void registerMBeans() {
+		if (registered) {
+			return;
+		}
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		try {
+			for (Histogram histogram : ALL) {
+				ObjectName name = getObjectName(histogram);
+				if (!server.isRegistered(name)) {
+					server.registerMBean(histogram, name);
+				}
+			}
+		}catch (JMException e) {
+			throw new IllegalStateException("Could not register metrics", e);
+		}
+		registered = true;
+	}
+
+	static ObjectName getObjectName(Histogram histogram) throws JMException {
+		return new ObjectName("minesweeper:type=Metrics,name=" + histogram.getName());
+	}
+}
@@ -0,0 +1,72 @@
+package minesweeper;
+
+
+/*
+ * A move made by the player: opening a tile, setting or removing a flag, or a
+ * chord on an open tile. Flag moves hold the state the flag was set to, instead of
+ * being toggles, so applying the same move twice gives the same result as applying
+ * it once. A chord only opens tiles, so it can also be applied twice.
+ */
+public class Move {
+
+	public static final int OPEN = 0;
+	public static final int FLAG = 1;
+	public static final int UNFLAG = 2;
+	public static final int CHORD = 3;
+
+	private final int type;
+	private final int x, y;
+
+	public Move(int type, int x, int y) {
+		if (type < OPEN || type > CHORD) {
+			throw new IllegalArgumentException("Unknown move type " + type);
+		}
+		this.type = type;
+		this.x = x;
+		this.y = y;
+	}
+
+	/* Makes the move on the game. */
+	public void apply(Game game) {
+		if (type == OPEN) {
+			game.openTile(game.getTile(x, y));
+		}else if (type == CHORD) {
+			game.chord(x, y);
+		}else if (game.getTile(x, y).getIsFlagged() != (type == FLAG)) {
+			game.toggleIsFlagged(x, y);
+		}
+	}
+
+	/* Getters for the Move class. */
+	public int getType() {
+		return type;
+	}
+
+	public int getX() {
+		return x;
+	}
+
+	public int getY() {
+		return y;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (!(obj instanceof Move)) {
+			return false;
+		}
+		Move other = (Move) obj;
+		return type == other.type && x == other.x && y == other.y;
+	}
+
+	@Override
+	public int hashCode() {
+		return (type * 31 + x) * 31 + y;
+	}
+
+	@Override
+	public String toString() {
+		return (type == OPEN ? "open" : type == FLAG ? "flag" : type == UNFLAG ? "unflag" : "chord")
+				+ " (" + x + ", " + y + ")";
+	}
+}
@@ -0,0 +1,33 @@
+package minesweeper;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+
+/*
+ * A JFR event for every move made through a GameEngine, with the time it took as
+ * the duration of the event. It is only recorded while a flight recording with the
+ * event enabled is running, and costs almost nothing otherwise.
+ */
+@Name("minesweeper.Move")
+@Label("Move")
+@Category("Minesweeper")
+@Description("A move made in a game of minesweeper")
+class MoveEvent extends Event {
+
+	@Label("Type")
+	@Description("0 open, 1 flag, 2 unflag, 3 chord")
+	int type;
+
+	@Label("X")
+	int x;
+
+	@Label("Y")
+	int y;
+
+	@Label("Tiles Opened")
+	int tilesOpened;
+}
@@ -0,0 +1,12 @@
+package minesweeper;
+
+/*
+ * Decides the moves of a player in a game run by a GameEngine. Every call to move()
+ * should make one move on the engine, by calling open(), flag() or chord(). A
+ * strategy is only used by one thread at a time, so it can keep its own buffers.
+ */
+public interface MoveStrategy {
+	
+	void move(GameEngine engine);
+	
+}
@@ -0,0 +1,244 @@
+package minesweeper;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+/*
+ * Places bombs so that the game can be won from the first click by logic alone,
+ * without ever having to guess. A candidate board is made by BombGenerator, and a
+ * Solver plays it from the first click, opening only tiles it knows are safe. If
+ * the solver gets stuck, a bomb on the frontier that it could not find is moved to
+ * a closed tile away from the open tiles, which only changes the bombCounts around
+ * those two tiles. The solver then goes on from the tiles that are already open
+ * instead of starting over. When the board has been solved this way, it is played
+ * once more from the first click, since the moves may have changed what could be
+ * known early on. If that gets stuck, the repairs go on from there.
+ *
+ * A candidate that needs more than MAX_REPAIRS moves, or that has no bomb on the
+ * frontier to move, is given up early. Candidates are tried in parallel, and the
+ * board of the successful candidate with the lowest number is used, so the result
+ * only depends on the seed and not on the number of threads. At most
+ * MAX_CANDIDATES candidates are tried, which bounds the time a board can take. If
+ * none of them works, the bombs are placed as by BombGenerator.
+ */
+public class NoGuessGenerator {
+
+	static final int MAX_CANDIDATES = 256;
+	static final int MAX_REPAIRS = 64;
+
+	/*
+	 * Places the given number of bombs on a board without bombs, so that it can be
+	 * solved without guessing from the safe tile (safeX, safeY). Returns false if no
+	 * such board was found, and the bombs were placed at random instead.
+	 */
+	public static boolean generate(Board board, int bombs, long seed, int safeX, int safeY) {
+		if (board.getBombs() != 0) {
+			throw new IllegalStateException("Board already has bombs");
+		}
+		if (safeX < 0 || safeY < 0 || safeX >= board.getWidth() || safeY >= board.getHeight()) {
+			throw new IllegalArgumentException("Safe tile must be on the board");
+		}
+		AtomicInteger next = new AtomicInteger();
+		AtomicInteger found = new AtomicInteger(MAX_CANDIDATES);
+		Board[] boards = new Board[MAX_CANDIDATES];
+		int threads = Math.min(ForkJoinPool.getCommonPoolParallelism(), MAX_CANDIDATES);
+		List<Callable<Void>> workers = new ArrayList<>();
+		for (int i = 0; i < Math.max(1, threads); i++) {
+			workers.add(() -> {
+				Worker worker = new Worker(board.getWidth(), board.getHeight(), bombs, safeX, safeY);
+				for (int candidate = next.getAndIncrement(); candidate < found.get(); candidate = next.getAndIncrement()) {
+					Board solved = worker.tryCandidate(Simulator.seed(seed, candidate));
+					if (solved != null) {
+						boards[candidate] = solved;
+						found.accumulateAndGet(candidate, Math::min);
+					}
+				}
+				return null;
+			});
+		}
+		try {
+			for (Future<Void> worker : ForkJoinPool.commonPool().invokeAll(workers)) {
+				worker.get();
+			}
+		}catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Generating was interrupted", e);
+		}catch (ExecutionException e) {
+			throw new IllegalStateException("Generating failed", e.getCause());
+		}
+		if (found.get() == MAX_CANDIDATES) {
+			BombGenerator.generate(board, bombs, seed, safeX, safeY);
+			return false;
+		}
+		Board solved = boards[found.get()];
+		for (int index = 0; index < board.size(); index++) {
+			if (solved.isBomb(index)) {
+				board.setBomb(index, true);
+			}
+		}
+		return true;
+	}
+
+	/* Tries candidates on one thread, reusing its solver and buffers. */
+	static class Worker {
+
+		private final int width, height, bombs, safeX, safeY;
+		private final Solver solver = new Solver();
+		private final int[] frontierMines;
+		private final int[] interior;
+
+		Worker(int width, int height, int bombs, int safeX, int safeY) {
+			this.width = width;
+			this.height = height;
+			this.bombs = bombs;
+			this.safeX = safeX;
+			this.safeY = safeY;
+			this.frontierMines = new int[width * height];
+			this.interior = new int[width * height];
+		}
+
+		/* Returns the board of the candidate with the given seed if it could be made solvable, or null. */
+		Board tryCandidate(long seed) {
+			Game game = new Game(width, height);
+			game.generateBombs(bombs, seed, safeX, safeY);
+			game.bombCount();
+			SplittableRandom rnd = new SplittableRandom(seed);
+			int repairs = 0;
+			boolean fromStart = true;
+			restart(game);
+			while (true) {
+				if (solve(game)) {
+					if (fromStart) {
+						solver.close();
+						return game.getPackedBoard();
+					}
+					restart(game);
+					fromStart = true;
+					continue;
+				}
+				if (repairs++ >= MAX_REPAIRS || !repair(game, rnd)) {
+					return null;
+				}
+				fromStart = false;
+			}
+		}
+
+		/* Closes every tile and opens the first click again, as in GameEngine.open(). */
+		private void restart(Game game) {
+			Board board = game.getPackedBoard();
+			for (int index = 0; index < board.size(); index++) {
+				board.setOpen(index, false);
+			}
+			game.firstOpen(game.getTile(safeX, safeY));
+			game.openTile(game.getTile(safeX, safeY));
+		}
+
+		/*
+		 * Opens the tiles the solver knows are safe, until the board is solved or there
+		 * are none. Tiles that are certain from the number of bombs left also count.
+		 * Returns true if every tile that is not a bomb was opened.
+		 */
+		private boolean solve(Game game) {
+			Board board = game.getPackedBoard();
+			solver.reset(game);
+			while (board.getOpenedSafe() < board.size() - bombs) {
+				solver.deduce();
+				int tile = solver.nextSafe();
+				if (tile < 0) {
+					tile = solver.guess();
+					if (tile < 0 || solver.getGuessChance() > 0 || !solver.isKnownSafe(tile)) {
+						return false;
+					}
+				}
+				for (; tile >= 0; tile = solver.nextSafe()) {
+					game.openTile(game.getTile(tile % width, tile / width));
+				}
+			}
+			return true;
+		}
+
+		/*
+		 * Moves a random bomb the solver could not find from the frontier to a random
+		 * closed tile that is not next to an open tile, and counts the bombs around both
+		 * tiles again. Returns false if there is no such bomb or tile.
+		 */
+		private boolean repair(Game game, SplittableRandom rnd) {
+			Board board = game.getPackedBoard();
+			int mines = 0;
+			int free = 0;
+			for (int index = 0; index < board.size(); index++) {
+				if (board.isOpen(index) || solver.isKnownMine(index)) {
+					continue;
+				}
+				if (nextToOpen(board, index)) {
+					if (board.isBomb(index)) {
+						frontierMines[mines++] = index;
+					}
+				}else if (!board.isBomb(index)) {
+					interior[free++] = index;
+				}
+			}
+			if (mines == 0 || free == 0) {
+				return false;
+			}
+			int from = frontierMines[rnd.nextInt(mines)];
+			int to = interior[rnd.nextInt(free)];
+			board.setBomb(from, false);
+			board.setBomb(to, true);
+			recount(board, from / width);
+			recount(board, to / width);
+			return true;
+		}
+
+		private boolean nextToOpen(Board board, int index) {
+			int x = index % width;
+			int y = index / width;
+			for (int row = Math.max(0, y-1); row <= Math.min(height-1, y+1); row++) {
+				for (int col = Math.max(0, x-1); col <= Math.min(width-1, x+1); col++) {
+					if (board.isOpen(row*width + col)) {
+						return true;
+					}
+				}
+			}
+			return false;
+		}
+
+		/* Counts the bombs again for the rows around row y. */
+		private void recount(Board board, int y) {
+			board.countRows(Math.max(0, y-1), Math.min(height, y+2));
+		}
+	}
+
+	/*
+	 * Reports how long it takes to make boards, from the command line:
+	 * NoGuessGenerator [width height bombs boards seed]
+	 */
+	public static void main(String[] args) {
+		int width = args.length > 0 ? Integer.parseInt(args[0]) : 30;
+		int height = args.length > 1 ? Integer.parseInt(args[1]) : 16;
+		int bombs = args.length > 2 ? Integer.parseInt(args[2]) : 99;
+		int boards = args.length > 3 ? Integer.parseInt(args[3]) : 1000;
+		long seed = args.length > 4 ? Long.parseLong(args[4]) : 1;
+		long[] times = new long[boards];
+		int solved = 0;
+		for (int i = 0; i < boards; i++) {
+			long start = System.nanoTime();
+			if (generate(new Board(width, height), bombs, Simulator.seed(seed, i), width / 2, height / 2)) {
+				solved++;
+			}
+			times[i] = System.nanoTime() - start;
+		}
+		Arrays.sort(times);
+		System.out.printf("%dx%d, %d bombs: %d of %d boards without guessing%n", width, height, bombs, solved, boards);
+		System.out.printf("p50 %.2f ms, p99 %.2f ms, max %.2f ms%n", times[boards / 2] / 1e6,
+				times[(int) (boards * 0.99)] / 1e6, times[boards - 1] / 1e6);
+	}
+}
@@ -0,0 +1,42 @@
+package minesweeper;
+
+import java.util.SplittableRandom;
+
+
+/*
+ * A strategy that opens a random tile that is not open or flagged. Used as a
+ * baseline in simulations.
+ */
+public class RandomStrategy implements MoveStrategy {
+
+	private final SplittableRandom rnd;
+
+	public RandomStrategy(long seed) {
+		this.rnd = new SplittableRandom(seed);
+	}
+
+	/*
+	 * Tries random tiles a few times, which nearly always finds a closed tile. If it
+	 * does not, the first closed tile after a random tile is opened.
+	 */
+	@Override
+	public void move(GameEngine engine) {
+		Game game = engine.getGame();
+		Board board = game.getPackedBoard();
+		int start = rnd.nextInt(board.size());
+		for (int i = 0; i < 16; i++) {
+			int index = rnd.nextInt(board.size());
+			if (!board.isOpen(index) && !board.isFlagged(index)) {
+				engine.open(index % game.getWidth(), index / game.getWidth());
+				return;
+			}
+		}
+		for (int i = 0; i < board.size(); i++) {
+			int index = (start + i) % board.size();
+			if (!board.isOpen(index) && !board.isFlagged(index)) {
+				engine.open(index % game.getWidth(), index / game.getWidth());
+				return;
+			}
+		}
+	}
+}
@@ -0,0 +1,206 @@
+package minesweeper;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+
+/*
+ * A recorded game: the config it was played with, the first tile that was opened
+ * and every move made. The bombs only depend on the config and the first click, so
+ * the board can be made again from the seed and the first click alone, which is
+ * START_SIZE bytes, see getStart() and rebuild().
+ *
+ * The moves are kept as a log of variable-length records, one unsigned LEB128
+ * varint per move: the type of the move in the lowest 2 bits, and above them the
+ * distance from the tile of the move before, zigzag-coded so that small steps in
+ * both directions give small numbers. Most moves are near the one before, so a
+ * move usually takes 1 or 2 bytes.
+ */
+public class Replay {
+
+	public static final int START_SIZE = 16;
+
+	private final GameConfig config;
+	private int firstX = -1, firstY = -1;
+	private byte[] log = new byte[64];
+	private int size;
+	private int moves;
+	private int lastTile;
+
+	public Replay(GameConfig config) {
+		this.config = config;
+	}
+
+	/* Adds a move to the log. The first OPEN move is the first click. */
+	public void add(Move move) {
+		if (move.getX() < 0 || move.getY() < 0 || move.getX() >= config.getWidth() || move.getY() >= config.getHeight()) {
+			throw new IllegalArgumentException("Move must be on the board: " + move);
+		}
+		if (firstX < 0 && move.getType() == Move.OPEN) {
+			firstX = move.getX();
+			firstY = move.getY();
+		}
+		int tile = move.getY() * config.getWidth() + move.getX();
+		int delta = tile - lastTile;
+		lastTile = tile;
+		putVarint(((long) ((delta << 1) ^ (delta >> 31)) & 0xFFFFFFFFL) << 2 | move.getType());
+		moves++;
+	}
+
+	private void putVarint(long value) {
+		if (size + 10 > log.length) {
+			log = Arrays.copyOf(log, log.length * 2);
+		}
+		while ((value & ~0x7FL) != 0) {
+			log[size++] = (byte) ((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		log[size++] = (byte) value;
+	}
+
+	/*
+	 * Reads the moves in the log from the start, one at a time. Used by ReplayPlayer
+	 * to play a game without making Move objects.
+	 */
+	class Cursor {
+
+		private int position;
+		private int tile;
+		private int type;
+
+		/*
+		 * Reads the next move, and returns false if there are no more. A record that
+		 * was only partly written is ignored.
+		 */
+		boolean next() {
+			long value = 0;
+			for (int shift = 0; ; shift += 7) {
+				if (position >= size || shift > 35) {
+					return false;
+				}
+				byte b = log[position++];
+				value |= (long) (b & 0x7F) << shift;
+				if (b >= 0) {
+					break;
+				}
+			}
+			type = (int) (value & 3);
+			int zigzag = (int) (value >>> 2);
+			tile += (zigzag >>> 1) ^ -(zigzag & 1);
+			return true;
+		}
+
+		int getType() {
+			return type;
+		}
+
+		int getX() {
+			return tile % config.getWidth();
+		}
+
+		int getY() {
+			return tile / config.getWidth();
+		}
+	}
+
+	Cursor cursor() {
+		return new Cursor();
+	}
+
+	/* Returns the moves in the log. */
+	public List<Move> getMoves() {
+		List<Move> list = new ArrayList<>(moves);
+		Cursor cursor = cursor();
+		while (cursor.next()) {
+			list.add(new Move(cursor.getType(), cursor.getX(), cursor.getY()));
+		}
+		return list;
+	}
+
+	/* Returns the seed (8 bytes) and the first click x and y (4 bytes each), big-endian. */
+	public byte[] getStart() {
+		return ByteBuffer.allocate(START_SIZE).putLong(config.getSeed()).putInt(firstX).putInt(firstY).array();
+	}
+
+	/*
+	 * Makes the board of a game from the config and the START_SIZE bytes of
+	 * getStart(). The bombs are placed and counted, and no tile is open.
+	 */
+	public static Game rebuild(GameConfig config, byte[] start) {
+		if (start.length != START_SIZE) {
+			throw new IllegalArgumentException("Start must be " + START_SIZE + " bytes");
+		}
+		ByteBuffer buffer = ByteBuffer.wrap(start);
+		GameConfig seeded = config.withSeed(buffer.getLong());
+		int x = buffer.getInt();
+		int y = buffer.getInt();
+		Game game = new Game(seeded);
+		if (seeded.isNoGuess()) {
+			game.generateNoGuessBombs(seeded.getBombs(), seeded.getSeed(), x, y);
+		}else {
+			game.generateBombs(seeded.getBombs(), seeded.getSeed(), x, y);
+		}
+		game.bombCount();
+		return game;
+	}
+
+	/* Makes the board of the recorded game, see rebuild(). */
+	public Game rebuild() {
+		if (firstX < 0) {
+			throw new IllegalStateException("No tile has been opened");
+		}
+		return rebuild(config, getStart());
+	}
+
+	/* Getters for the Replay class. */
+	public GameConfig getConfig() {
+		return config;
+	}
+
+	public int getFirstX() {
+		return firstX;
+	}
+
+	public int getFirstY() {
+		return firstY;
+	}
+
+	public int getMoveCount() {
+		return moves;
+	}
+
+	/* Returns the number of bytes used by the log of moves. */
+	public int getLogSize() {
+		return size;
+	}
+
+	/* Returns a copy of the log of moves, as it is written by ReplayFileManager. */
+	byte[] getLog() {
+		return Arrays.copyOf(log, size);
+	}
+
+	/*
+	 * Makes a replay from a log of moves written by getLog(). A record at the end that
+	 * was only partly written is removed, so new moves can be added after it.
+	 */
+	static Replay fromLog(GameConfig config, byte[] log) {
+		Replay replay = new Replay(config);
+		replay.log = Arrays.copyOf(log, Math.max(64, log.length));
+		replay.size = log.length;
+		Cursor cursor = replay.cursor();
+		int end = 0;
+		while (cursor.next()) {
+			if (replay.firstX < 0 && cursor.getType() == Move.OPEN) {
+				replay.firstX = cursor.getX();
+				replay.firstY = cursor.getY();
+			}
+			replay.moves++;
+			end = cursor.position;
+		}
+		replay.size = end;
+		replay.lastTile = cursor.tile;
+		return replay;
+	}
+}
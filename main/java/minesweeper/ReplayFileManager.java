@@ -0,0 +1,100 @@
+package minesweeper;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+
+
+/*
+ * Saves and reads replays, see Replay. A replay file starts with a header of
+ * HEADER_SIZE bytes:
+ *
+ * magic (4 bytes), version (4), width (4), height (4), bombs (4), flags (4),
+ * seed (8), first click x (4), first click y (4)
+ *
+ * The last 16 bytes are the start of the replay, which is enough to make the board
+ * again. Bit 0 of flags is set if the board was made without guessing. The log of
+ * moves follows the header until the end of the file. Numbers are big-endian.
+ */
+public class ReplayFileManager {
+
+	static final int MAGIC = 0x4D535752;
+	static final int VERSION = 1;
+	static final int HEADER_SIZE = 24 + Replay.START_SIZE;
+	private static final int NO_GUESS = 1;
+
+	public static Path getFullPath(String filename) {
+		return FileManager.getUserFolderPath().resolve(filename + ".msr");
+	}
+
+	public void writeReplay(String filename, Replay replay) throws FileNotFoundException {
+		FileManager.ensureUserFolder();
+		write(getFullPath(filename), replay);
+	}
+
+	public Replay readReplay(String filename) throws FileNotFoundException {
+		return read(getFullPath(filename));
+	}
+
+	static void write(Path path, Replay replay) throws FileNotFoundException {
+		GameConfig config = replay.getConfig();
+		byte[] log = replay.getLog();
+		ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + log.length);
+		buffer.putInt(MAGIC);
+		buffer.putInt(VERSION);
+		buffer.putInt(config.getWidth());
+		buffer.putInt(config.getHeight());
+		buffer.putInt(config.getBombs());
+		buffer.putInt(config.isNoGuess() ? NO_GUESS : 0);
+		buffer.put(replay.getStart());
+		buffer.put(log);
+		try {
+			Files.write(path, buffer.array());
+		}catch (NoSuchFileException e) {
+			throw new FileNotFoundException(path.toString());
+		}catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	static Replay read(Path path) throws FileNotFoundException {
+		try {
+			ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(path));
+			if (buffer.remaining() < HEADER_SIZE || buffer.getInt() != MAGIC) {
+				throw new IOException("Not a minesweeper replay: " + path);
+			}
+			int version = buffer.getInt();
+			if (version != VERSION) {
+				throw new IOException("Unsupported replay version " + version + ": " + path);
+			}
+			int width = buffer.getInt();
+			int height = buffer.getInt();
+			int bombs = buffer.getInt();
+			boolean noGuess = (buffer.getInt() & NO_GUESS) != 0;
+			long seed = buffer.getLong();
+			int firstX = buffer.getInt();
+			int firstY = buffer.getInt();
+			GameConfig config;
+			try {
+				config = new GameConfig(width, height, bombs, seed, noGuess);
+			}catch (IllegalArgumentException e) {
+				throw new IOException("Invalid replay header: " + path, e);
+			}
+			byte[] log = new byte[buffer.remaining()];
+			buffer.get(log);
+			Replay replay = Replay.fromLog(config, log);
+			if (replay.getFirstX() != firstX || replay.getFirstY() != firstY) {
+				throw new IOException("First click does not match the moves: " + path);
+			}
+			return replay;
+		}catch (NoSuchFileException e) {
+			throw new FileNotFoundException(path.toString());
+		}catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+}
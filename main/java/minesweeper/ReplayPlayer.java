@@ -0,0 +1,73 @@
+package minesweeper;
+
+import java.io.FileNotFoundException;
+
+
+/*
+ * Plays a recorded game again through a GameEngine, without drawing anything. The
+ * moves are read straight from the log of the replay, so playing a game again is
+ * as fast as the game logic itself. A game can also be played up to a given move,
+ * to look at the board as it was at that point.
+ */
+public class ReplayPlayer {
+
+	/* Plays every move of the replay on a new game, and returns the engine. */
+	public static GameEngine play(Replay replay) {
+		return play(replay, Integer.MAX_VALUE);
+	}
+
+	/* Plays the first moves of the replay on a new game, and returns the engine. */
+	public static GameEngine play(Replay replay, int moves) {
+		GameEngine engine = new GameEngine(replay.getConfig());
+		Replay.Cursor cursor = replay.cursor();
+		for (int i = 0; i < moves && cursor.next(); i++) {
+			int x = cursor.getX();
+			int y = cursor.getY();
+			if (cursor.getType() == Move.OPEN) {
+				engine.open(x, y);
+			}else if (cursor.getType() == Move.CHORD) {
+				engine.chord(x, y);
+			}else if (engine.getGame().getTile(x, y).getIsFlagged() != (cursor.getType() == Move.FLAG)) {
+				engine.flag(x, y);
+			}
+		}
+		return engine;
+	}
+
+	/* Records a game on the config, played by a SolverStrategy. */
+	static Replay record(GameConfig config) {
+		GameEngine engine = new GameEngine(config);
+		Replay replay = engine.startRecording();
+		MoveStrategy strategy = new SolverStrategy();
+		while (!engine.isOver()) {
+			int before = engine.getMoves();
+			strategy.move(engine);
+			if (engine.getMoves() == before) {
+				break;
+			}
+		}
+		return replay;
+	}
+
+	/*
+	 * Plays a replay many times and reports the speed, from the command line:
+	 * ReplayPlayer [filename times]
+	 * Without a filename, an expert game played by the solver is recorded and used.
+	 */
+	public static void main(String[] args) throws FileNotFoundException {
+		Replay replay = args.length > 0 && !args[0].equals("-")
+				? new ReplayFileManager().readReplay(args[0])
+				: record(GameConfig.EXPERT.withSeed(1));
+		int times = args.length > 1 ? Integer.parseInt(args[1]) : 10_000;
+		GameEngine engine = play(replay);
+		System.out.println(replay.getConfig() + ", first click (" + replay.getFirstX() + ", " + replay.getFirstY() + ")");
+		System.out.printf("%d moves in %d bytes, %s, digest %016x%n", replay.getMoveCount(), replay.getLogSize(),
+				engine.isWon() ? "won" : engine.isLost() ? "lost" : "not finished", engine.getGame().getDigest());
+		long start = System.nanoTime();
+		for (int i = 0; i < times; i++) {
+			play(replay);
+		}
+		double seconds = (System.nanoTime() - start) / 1e9;
+		System.out.printf("%.0f games/s, %.0f moves/s%n", times / seconds, times * (double) replay.getMoveCount() / seconds);
+	}
+}
@@ -0,0 +1,78 @@
+package minesweeper;
+
+
+/*
+ * The result of running a batch of games with a Simulator. Games that were neither
+ * won nor lost are counted as stuck, which happens when the strategy stops making
+ * moves. Allocation is measured per thread, and is -1 if the JVM can not measure it.
+ */
+public class SimulationReport {
+
+	private final int games, wins, losses;
+	private final long moves;
+	private final long elapsedNanos;
+	private final long allocatedBytes;
+
+	SimulationReport(int games, int wins, int losses, long moves, long elapsedNanos, long allocatedBytes) {
+		this.games = games;
+		this.wins = wins;
+		this.losses = losses;
+		this.moves = moves;
+		this.elapsedNanos = elapsedNanos;
+		this.allocatedBytes = allocatedBytes;
+	}
+
+	public double getGamesPerSecond() {
+		return elapsedNanos == 0 ? 0 : games * 1e9 / elapsedNanos;
+	}
+
+	public double getWinRate() {
+		return games == 0 ? 0 : (double) wins / games;
+	}
+
+	public double getMovesPerGame() {
+		return games == 0 ? 0 : (double) moves / games;
+	}
+
+	/* Returns the average number of bytes allocated per game, or -1 if unknown. */
+	public long getBytesPerGame() {
+		return allocatedBytes < 0 || games == 0 ? -1 : allocatedBytes / games;
+	}
+
+	/* Getters for the SimulationReport class. */
+	public int getGames() {
+		return games;
+	}
+
+	public int getWins() {
+		return wins;
+	}
+
+	public int getLosses() {
+		return losses;
+	}
+
+	public int getStuck() {
+		return games - wins - losses;
+	}
+
+	public long getMoves() {
+		return moves;
+	}
+
+	public long getElapsedNanos() {
+		return elapsedNanos;
+	}
+
+	public long getAllocatedBytes() {
+		return allocatedBytes;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%d games (%d won, %d lost, %d stuck), win rate %.1f%%, %.1f moves/game, "
+				+ "%.0f games/s, %s bytes/game", games, wins, losses, getStuck(), getWinRate() * 100,
+				getMovesPerGame(), getGamesPerSecond(),
+				getBytesPerGame() < 0 ? "unknown" : String.valueOf(getBytesPerGame()));
+	}
+}
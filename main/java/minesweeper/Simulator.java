@@ -0,0 +1,139 @@
+package minesweeper;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+
+/*
+ * Plays many games headless with a GameEngine, to measure a MoveStrategy and the
+ * speed of the game logic. The games are shared between a number of threads, and
+ * every thread gets its own strategy from the supplier. Game number i is played
+ * with a seed mixed from the seed of the config and i, so a run with the same
+ * config plays the same boards no matter how many threads are used.
+ *
+ * A game ends when it is won or lost, or when the strategy does not make a move,
+ * which is counted as stuck. The engines do not keep their moves in Metrics, so
+ * the threads do not share any counters while they play.
+ */
+public class Simulator {
+
+	private final GameConfig config;
+	private final Supplier<MoveStrategy> strategies;
+	private final int threads;
+
+	public Simulator(GameConfig config, Supplier<MoveStrategy> strategies, int threads) {
+		if (threads <= 0) {
+			throw new IllegalArgumentException("Need at least one thread");
+		}
+		this.config = config;
+		this.strategies = strategies;
+		this.threads = threads;
+	}
+
+	/* Plays the given number of games, and returns the results. */
+	public SimulationReport run(int games) {
+		AtomicInteger next = new AtomicInteger();
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		long start = System.nanoTime();
+		try {
+			List<Future<long[]>> workers = new ArrayList<>(threads);
+			for (int i = 0; i < threads; i++) {
+				workers.add(executor.submit(() -> play(next, games)));
+			}
+			int wins = 0;
+			int losses = 0;
+			long moves = 0;
+			long allocated = 0;
+			for (Future<long[]> worker : workers) {
+				long[] result = worker.get();
+				wins += result[0];
+				losses += result[1];
+				moves += result[2];
+				allocated = allocated < 0 || result[3] < 0 ? -1 : allocated + result[3];
+			}
+			return new SimulationReport(games, wins, losses, moves, System.nanoTime() - start, allocated);
+		}catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Simulation was interrupted", e);
+		}catch (ExecutionException e) {
+			throw new IllegalStateException("Simulation failed", e.getCause());
+		}finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/*
+	 * Helper for run(). Plays games until there are no more, and returns the wins,
+	 * losses, moves and allocated bytes of this thread.
+	 */
+	private long[] play(AtomicInteger next, int games) {
+		MoveStrategy strategy = strategies.get();
+		long allocatedBefore = allocatedBytes();
+		long wins = 0;
+		long losses = 0;
+		long moves = 0;
+		for (int i = next.getAndIncrement(); i < games; i = next.getAndIncrement()) {
+			GameEngine engine = new GameEngine(config.withSeed(seed(config.getSeed(), i)));
+			engine.setMetered(false);
+			while (!engine.isOver()) {
+				int before = engine.getMoves();
+				strategy.move(engine);
+				if (engine.getMoves() == before) {
+					break;
+				}
+			}
+			if (engine.isWon()) {
+				wins++;
+			}else if (engine.isLost()) {
+				losses++;
+			}
+			moves += engine.getMoves();
+		}
+		long allocatedAfter = allocatedBytes();
+		long allocated = allocatedBefore < 0 ? -1 : allocatedAfter - allocatedBefore;
+		return new long[] {wins, losses, moves, allocated};
+	}
+
+	/* Returns the seed of game number i, mixed so that nearby games get unrelated boards. */
+	static long seed(long seed, int i) {
+		long z = seed + (i + 1) * 0x9E3779B97F4A7C15L;
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+
+	/* Returns the bytes allocated by the current thread so far, or -1 if not supported. */
+	private static long allocatedBytes() {
+		if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean) {
+			com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+			if (bean.isThreadAllocatedMemorySupported() && bean.isThreadAllocatedMemoryEnabled()) {
+				return bean.getThreadAllocatedBytes(Thread.currentThread().getId());
+			}
+		}
+		return -1;
+	}
+
+	/*
+	 * Runs a simulation from the command line:
+	 * Simulator [width height bombs games threads seed]
+	 */
+	public static void main(String[] args) {
+		int width = args.length > 0 ? Integer.parseInt(args[0]) : 30;
+		int height = args.length > 1 ? Integer.parseInt(args[1]) : 16;
+		int bombs = args.length > 2 ? Integer.parseInt(args[2]) : 99;
+		int games = args.length > 3 ? Integer.parseInt(args[3]) : 100_000;
+		int threads = args.length > 4 ? Integer.parseInt(args[4]) : Runtime.getRuntime().availableProcessors();
+		long seed = args.length > 5 ? Long.parseLong(args[5]) : 1;
+		GameConfig config = new GameConfig(width, height, bombs, seed);
+		Simulator simulator = new Simulator(config, () -> new RandomStrategy(seed), threads);
+		System.out.println(config);
+		System.out.println(simulator.run(games));
+	}
+}
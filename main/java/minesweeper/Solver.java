@@ -0,0 +1,837 @@
+package minesweeper;
+
+import java.util.Arrays;
+
+
+/*
+ * Finds the tiles of a game that are certainly safe or certainly bombs, using only
+ * what a player can see: which tiles are open, and their bombCounts. The solver
+ * never looks at where the bombs are.
+ *
+ * Every open tile is a constraint: the closed tiles around it that are not known
+ * yet hold its bombCount minus the known bombs around it. Two rules are used on
+ * the constraints:
+ * - single: if a constraint needs no more bombs, its tiles are safe. If it needs as
+ *   many bombs as it has tiles, they are all bombs.
+ * - pair: for two constraints A and B close to each other, if A needs exactly as
+ *   many more bombs than B as A has tiles that B does not, those tiles are bombs
+ *   and the tiles only in B are safe. This includes the usual subset rule.
+ * Only constraints around tiles that changed are checked again, through a queue of
+ * open tiles, so finding the next move after a click costs little. The solver is
+ * told about every write to the board through a WriteListener, so the tiles opened
+ * since the last call are found without going through the whole board. close()
+ * stops listening, for boards that are used on after solving.
+ *
+ * When no tile is certain, guess() finds the chance of a bomb for every closed
+ * tile. The closed tiles next to open tiles (the frontier) are split into groups
+ * that share no constraints, and every way to place bombs in a group is counted
+ * by backtracking. The groups are then combined, weighting each total number of
+ * bombs by the number of ways to place the rest of the bombs on the tiles away
+ * from the frontier. Groups that are too large to count are given a local guess.
+ *
+ * All state is kept in primitive arrays that are reused between moves and games.
+ */
+public class Solver {
+
+	static final byte UNKNOWN = 0;
+	static final byte SAFE = 1;
+	static final byte MINE = 2;
+	static final byte OPEN = 3;
+
+	/* Groups with more tiles than this, or that need more steps, are not counted exactly. */
+	static final int MAX_GROUP_TILES = 64;
+	static final int MAX_GROUP_STEPS = 1 << 20;
+	/* With more groups than this, the groups are not weighted by the number of bombs. */
+	static final int MAX_WEIGHTED_GROUPS = 32;
+	private static final double CERTAIN = 1e-9;
+
+	private Game game;
+	private Board board;
+	private int width, height;
+	private byte[] state = new byte[0];
+	private int knownMines;
+
+	/*
+	 * Tiles written since the last update(), which may have been opened. If allWritten
+	 * is set, any tile may have been, and the whole board is checked.
+	 */
+	private int[] written = new int[16];
+	private int writtenCount;
+	private boolean allWritten;
+	private final Board.WriteListener listener = new Board.WriteListener() {
+		@Override
+		public void written(int index) {
+			if (allWritten || state[index] == OPEN) {
+				return;
+			}
+			if (writtenCount == written.length) {
+				if (writtenCount >= width * height / 4 + 16) {
+					allWritten();
+					return;
+				}
+				written = Arrays.copyOf(written, writtenCount * 2);
+			}
+			written[writtenCount++] = index;
+		}
+
+		@Override
+		public void allWritten() {
+			allWritten = true;
+			writtenCount = 0;
+		}
+	};
+
+	/* Open tiles whose constraint should be checked, with a bit per tile for those in the queue. */
+	private int[] queue = new int[0];
+	private int queueSize;
+	private long[] queued = new long[0];
+
+	/* Tiles found to be safe that may not have been opened yet. */
+	private int[] safe = new int[0];
+	private int safeSize;
+
+	private final int[] cellsA = new int[8];
+	private final int[] cellsB = new int[8];
+
+	/*
+	 * The constraints and frontier tiles of the last guess(). Frontier tiles get an id
+	 * from 0, tileIds[index] is only valid if tileStamps[index] == stamp.
+	 */
+	private int stamp;
+	private int[] tileStamps = new int[0];
+	private int[] tileIds = new int[0];
+	private int frontierSize;
+	private int[] frontier = new int[0];
+	private int[] tileConstraints = new int[0];
+	private int[] tileConstraintCount = new int[0];
+	private int[] assigned = new int[0];
+	private double[] frontierChance = new double[0];
+	private int constraintCount;
+	private int[] constraintTiles = new int[0];
+	private int[] constraintSize = new int[0];
+	private int[] constraintValue = new int[0];
+	private int[] constraintMines = new int[0];
+	private int[] constraintOpen = new int[0];
+
+	/*
+	 * The groups of the frontier. The tiles of group g are order[groupStart[g]] up to
+	 * order[groupStart[g+1]]. For a group of n tiles, ways holds n+1 counts (by number
+	 * of bombs) from waysOffset[g], and tileWays holds n+1 counts for each tile.
+	 */
+	private int groupCount;
+	private int[] order = new int[0];
+	private int[] groupOf = new int[0];
+	private int[] groupStart = new int[1];
+	private boolean[] groupExact = new boolean[0];
+	private int[] waysOffset = new int[0];
+	private int[] tileWaysOffset = new int[0];
+	private double[] ways = new double[0];
+	private double[] tileWays = new double[0];
+	private int steps;
+	private int remainingMines;
+
+	private double[] logFactorial = new double[1];
+	private double[] distribution = new double[0];
+	private double[] others = new double[0];
+	private double[] scratch = new double[0];
+	private double[] weights = new double[0];
+	private double[] groupWeights = new double[0];
+	private double interiorChance;
+	private double guessChance;
+
+	public Solver() {
+	}
+
+	public Solver(Game game) {
+		reset(game);
+	}
+
+	/* Starts solving a new game. The arrays are only made again if the board is larger. */
+	public void reset(Game game) {
+		close();
+		game.getPackedBoard().addWriteListener(listener);
+		this.game = game;
+		this.board = game.getPackedBoard();
+		this.width = game.getWidth();
+		this.height = game.getHeight();
+		int size = width * height;
+		if (state.length < size) {
+			state = new byte[size];
+			queue = new int[size];
+			queued = new long[(size + 63) >>> 6];
+			safe = new int[size];
+			tileStamps = new int[size];
+			tileIds = new int[size];
+		}else {
+			Arrays.fill(state, 0, size, UNKNOWN);
+			Arrays.fill(queued, 0);
+		}
+		if (logFactorial.length < size + 1) {
+			logFactorial = new double[size + 1];
+			for (int i = 1; i <= size; i++) {
+				logFactorial[i] = logFactorial[i-1] + Math.log(i);
+			}
+		}
+		knownMines = 0;
+		writtenCount = 0;
+		allWritten = true;
+		stamp++;
+		queueSize = 0;
+		safeSize = 0;
+		guessChance = 0;
+	}
+
+	/*
+	 * Uses the rules until nothing more can be found, after looking for tiles that
+	 * have been opened since the last call. Returns the number of tiles found.
+	 */
+	public int deduce() {
+		update();
+		int found = 0;
+		while (queueSize > 0) {
+			int tile = queue[--queueSize];
+			queued[tile >>> 6] &= ~(1L << tile);
+			int sizeA = gather(tile, cellsA);
+			if (sizeA == 0) {
+				continue;
+			}
+			int valueA = remaining(tile);
+			if (valueA == 0 || valueA == sizeA) {
+				for (int i = 0; i < sizeA; i++) {
+					mark(cellsA[i], valueA == 0 ? SAFE : MINE);
+				}
+				found += sizeA;
+				continue;
+			}
+			int x = tile % width;
+			int y = tile / width;
+			search:
+			for (int row = Math.max(0, y-2); row <= Math.min(height-1, y+2); row++) {
+				for (int col = Math.max(0, x-2); col <= Math.min(width-1, x+2); col++) {
+					int other = row*width + col;
+					if (other == tile || state[other] != OPEN) {
+						continue;
+					}
+					int sizeB = gather(other, cellsB);
+					if (sizeB == 0) {
+						continue;
+					}
+					int valueB = remaining(other);
+					int marked = pair(cellsA, sizeA, valueA, cellsB, sizeB, valueB);
+					if (marked == 0) {
+						marked = pair(cellsB, sizeB, valueB, cellsA, sizeA, valueA);
+					}
+					if (marked != 0) {
+						found += marked;
+						queue(tile);
+						break search;
+					}
+				}
+			}
+		}
+		return found;
+	}
+
+	/*
+	 * Helper for deduce(). Marks the tiles of a new game as known, and queues the
+	 * open tiles around tiles that have been opened since the last call. Only the
+	 * tiles written since then are checked, unless the whole board may have changed.
+	 */
+	private void update() {
+		if (allWritten) {
+			allWritten = false;
+			writtenCount = 0;
+			for (int index = 0; index < width * height; index++) {
+				opened(index);
+			}
+			return;
+		}
+		for (int i = 0; i < writtenCount; i++) {
+			opened(written[i]);
+		}
+		writtenCount = 0;
+	}
+
+	/* Helper for update(). Marks the tile as open and queues the constraints around it, if it was opened. */
+	private void opened(int index) {
+		if (state[index] == OPEN || !board.isOpen(index)) {
+			return;
+		}
+		if (state[index] == MINE) {
+			knownMines--;
+		}
+		state[index] = OPEN;
+		queueAround(index);
+		queue(index);
+	}
+
+	/*
+	 * Stops listening to the board of the game, so that it can be used on without
+	 * telling the solver. reset() starts listening again.
+	 */
+	public void close() {
+		if (board != null) {
+			board.removeWriteListener(listener);
+		}
+	}
+
+	/*
+	 * Helper for deduce(). If A needs exactly as many more bombs than B as A has tiles
+	 * that are not in B, marks those tiles as bombs and the tiles only in B as safe.
+	 * Returns the number of tiles marked.
+	 */
+	private int pair(int[] a, int sizeA, int valueA, int[] b, int sizeB, int valueB) {
+		int onlyA = sizeA - shared(a, sizeA, b, sizeB);
+		int onlyB = sizeB - (sizeA - onlyA);
+		if (valueA - valueB != onlyA || onlyA + onlyB == 0) {
+			return 0;
+		}
+		for (int i = 0; i < sizeA; i++) {
+			if (!contains(b, sizeB, a[i])) {
+				mark(a[i], MINE);
+			}
+		}
+		for (int i = 0; i < sizeB; i++) {
+			if (!contains(a, sizeA, b[i])) {
+				mark(b[i], SAFE);
+			}
+		}
+		return onlyA + onlyB;
+	}
+
+	private static int shared(int[] a, int sizeA, int[] b, int sizeB) {
+		int shared = 0;
+		for (int i = 0; i < sizeA; i++) {
+			if (contains(b, sizeB, a[i])) {
+				shared++;
+			}
+		}
+		return shared;
+	}
+
+	private static boolean contains(int[] cells, int size, int cell) {
+		for (int i = 0; i < size; i++) {
+			if (cells[i] == cell) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/* Puts the closed tiles around the tile that are not known yet in cells, and returns how many. */
+	private int gather(int tile, int[] cells) {
+		int x = tile % width;
+		int y = tile / width;
+		int size = 0;
+		for (int row = Math.max(0, y-1); row <= Math.min(height-1, y+1); row++) {
+			for (int col = Math.max(0, x-1); col <= Math.min(width-1, x+1); col++) {
+				if (state[row*width + col] == UNKNOWN) {
+					cells[size++] = row*width + col;
+				}
+			}
+		}
+		return size;
+	}
+
+	/* Returns the bombCount of the open tile minus the known bombs around it. */
+	private int remaining(int tile) {
+		int x = tile % width;
+		int y = tile / width;
+		int value = board.getBombCount(tile);
+		for (int row = Math.max(0, y-1); row <= Math.min(height-1, y+1); row++) {
+			for (int col = Math.max(0, x-1); col <= Math.min(width-1, x+1); col++) {
+				if (state[row*width + col] == MINE) {
+					value--;
+				}
+			}
+		}
+		return value;
+	}
+
+	/* Marks an unknown tile as safe or a bomb, and queues the open tiles around it. */
+	private void mark(int tile, byte known) {
+		if (state[tile] != UNKNOWN) {
+			return;
+		}
+		state[tile] = known;
+		if (known == SAFE) {
+			safe[safeSize++] = tile;
+		}else {
+			knownMines++;
+		}
+		queueAround(tile);
+	}
+
+	private void queueAround(int tile) {
+		int x = tile % width;
+		int y = tile / width;
+		for (int row = Math.max(0, y-1); row <= Math.min(height-1, y+1); row++) {
+			for (int col = Math.max(0, x-1); col <= Math.min(width-1, x+1); col++) {
+				int index = row*width + col;
+				if (index != tile && state[index] == OPEN) {
+					queue(index);
+				}
+			}
+		}
+	}
+
+	private void queue(int tile) {
+		if ((queued[tile >>> 6] & (1L << tile)) == 0) {
+			queued[tile >>> 6] |= 1L << tile;
+			queue[queueSize++] = tile;
+		}
+	}
+
+	/* Returns the index of a closed tile that is known to be safe, or -1 if there is none. */
+	public int nextSafe() {
+		while (safeSize > 0) {
+			int tile = safe[--safeSize];
+			if (!board.isOpen(tile)) {
+				safe[safeSize++] = tile;
+				return tile;
+			}
+		}
+		return -1;
+	}
+
+	/*
+	 * Finds the chance of a bomb for every closed tile that is not known, and returns
+	 * the index of the tile with the lowest chance, or -1 if there are no such tiles.
+	 * Tiles found to be certainly safe or bombs from the counting are marked, so if
+	 * the chance of the returned tile is 0, see getGuessChance(), it was not a guess.
+	 */
+	public int guess() {
+		deduce();
+		int tile = nextSafe();
+		if (tile >= 0) {
+			guessChance = 0;
+			return tile;
+		}
+		int interior = buildConstraints();
+		remainingMines = game.getNumberOfBombs() - knownMines;
+		countGroups();
+		boolean weighted = groupCount <= MAX_WEIGHTED_GROUPS;
+		for (int g = 0; g < groupCount && weighted; g++) {
+			weighted = groupExact[g];
+		}
+		if (!weighted || !weightGroups(interior)) {
+			estimateGroups(interior);
+		}else {
+			markCertain(interior);
+			tile = nextSafe();
+			if (tile >= 0) {
+				guessChance = 0;
+				return tile;
+			}
+		}
+
+		int best = -1;
+		double bestChance = 2;
+		for (int id = 0; id < frontierSize; id++) {
+			if (frontierChance[id] < bestChance && state[frontier[id]] == UNKNOWN) {
+				bestChance = frontierChance[id];
+				best = frontier[id];
+			}
+		}
+		if (interior > 0 && (best < 0 || interiorChance < bestChance)) {
+			for (int index = 0; index < width * height; index++) {
+				if (state[index] == UNKNOWN && tileStamps[index] != stamp) {
+					best = index;
+					bestChance = interiorChance;
+					break;
+				}
+			}
+		}
+		guessChance = best < 0 ? 0 : bestChance;
+		return best;
+	}
+
+	/*
+	 * Helper for guess(). Makes a constraint for every open tile with unknown tiles
+	 * around it, gives the frontier tiles ids, and returns the number of unknown
+	 * tiles that are not on the frontier.
+	 */
+	private int buildConstraints() {
+		stamp++;
+		frontierSize = 0;
+		constraintCount = 0;
+		int unknown = 0;
+		for (int tile = 0; tile < width * height; tile++) {
+			if (state[tile] == UNKNOWN) {
+				unknown++;
+			}
+			if (state[tile] != OPEN) {
+				continue;
+			}
+			int size = gather(tile, cellsA);
+			if (size == 0) {
+				continue;
+			}
+			int c = constraintCount++;
+			if (c == constraintSize.length) {
+				int length = Math.max(16, c * 2);
+				constraintTiles = Arrays.copyOf(constraintTiles, length * 8);
+				constraintSize = Arrays.copyOf(constraintSize, length);
+				constraintValue = Arrays.copyOf(constraintValue, length);
+				constraintMines = Arrays.copyOf(constraintMines, length);
+				constraintOpen = Arrays.copyOf(constraintOpen, length);
+			}
+			constraintSize[c] = size;
+			constraintValue[c] = remaining(tile);
+			for (int i = 0; i < size; i++) {
+				int id = frontierId(cellsA[i]);
+				constraintTiles[c*8 + i] = id;
+				tileConstraints[id*8 + tileConstraintCount[id]++] = c;
+			}
+		}
+		return unknown - frontierSize;
+	}
+
+	/* Helper for buildConstraints(). Returns the id of a frontier tile, giving it one if needed. */
+	private int frontierId(int tile) {
+		if (tileStamps[tile] == stamp) {
+			return tileIds[tile];
+		}
+		int id = frontierSize++;
+		if (id == frontier.length) {
+			int length = Math.max(16, id * 2);
+			frontier = Arrays.copyOf(frontier, length);
+			tileConstraints = Arrays.copyOf(tileConstraints, length * 8);
+			tileConstraintCount = Arrays.copyOf(tileConstraintCount, length);
+			assigned = Arrays.copyOf(assigned, length);
+			frontierChance = Arrays.copyOf(frontierChance, length);
+			order = Arrays.copyOf(order, length);
+			groupOf = Arrays.copyOf(groupOf, length);
+		}
+		tileStamps[tile] = stamp;
+		tileIds[tile] = id;
+		frontier[id] = tile;
+		tileConstraintCount[id] = 0;
+		groupOf[id] = -1;
+		return id;
+	}
+
+	/*
+	 * Helper for guess(). Splits the frontier into groups of tiles connected through
+	 * constraints, and counts the ways to place bombs in each group.
+	 */
+	private void countGroups() {
+		groupCount = 0;
+		int end = 0;
+		int waysSize = 0;
+		int tileWaysSize = 0;
+		for (int id = 0; id < frontierSize; id++) {
+			if (groupOf[id] >= 0) {
+				continue;
+			}
+			int g = groupCount++;
+			if (g + 1 >= groupStart.length) {
+				int length = Math.max(16, g * 2 + 2);
+				groupStart = Arrays.copyOf(groupStart, length);
+				groupExact = Arrays.copyOf(groupExact, length);
+				waysOffset = Arrays.copyOf(waysOffset, length);
+				tileWaysOffset = Arrays.copyOf(tileWaysOffset, length);
+			}
+			int start = end;
+			groupStart[g] = start;
+			groupOf[id] = g;
+			order[end++] = id;
+			for (int i = start; i < end; i++) {
+				int tile = order[i];
+				for (int k = 0; k < tileConstraintCount[tile]; k++) {
+					int c = tileConstraints[tile*8 + k];
+					for (int j = 0; j < constraintSize[c]; j++) {
+						int next = constraintTiles[c*8 + j];
+						if (groupOf[next] < 0) {
+							groupOf[next] = g;
+							order[end++] = next;
+						}
+					}
+				}
+			}
+			int size = end - start;
+			waysOffset[g] = waysSize;
+			tileWaysOffset[g] = tileWaysSize;
+			waysSize += size + 1;
+			tileWaysSize += size * (size + 1);
+		}
+		groupStart[groupCount] = end;
+		if (ways.length < waysSize) {
+			ways = new double[Math.max(waysSize, ways.length * 2)];
+		}
+		if (tileWays.length < tileWaysSize) {
+			tileWays = new double[Math.max(tileWaysSize, tileWays.length * 2)];
+		}
+		Arrays.fill(ways, 0, waysSize, 0);
+		Arrays.fill(tileWays, 0, tileWaysSize, 0);
+		for (int c = 0; c < constraintCount; c++) {
+			constraintMines[c] = 0;
+			constraintOpen[c] = constraintSize[c];
+		}
+		for (int g = 0; g < groupCount; g++) {
+			int size = groupStart[g+1] - groupStart[g];
+			groupExact[g] = size <= MAX_GROUP_TILES;
+			if (groupExact[g]) {
+				steps = 0;
+				groupExact[g] = enumerate(g, 0, 0);
+				normalize(g);
+			}
+		}
+	}
+
+	/*
+	 * Helper for countGroups(). Tries both values for tile number depth of the group,
+	 * and counts every placement that meets all constraints. Returns false if the
+	 * group needed too many steps.
+	 */
+	private boolean enumerate(int g, int depth, int mines) {
+		if (++steps > MAX_GROUP_STEPS) {
+			return false;
+		}
+		int start = groupStart[g];
+		int size = groupStart[g+1] - start;
+		if (depth == size) {
+			ways[waysOffset[g] + mines]++;
+			for (int i = 0; i < size; i++) {
+				if (assigned[order[start + i]] == 1) {
+					tileWays[tileWaysOffset[g] + i*(size+1) + mines]++;
+				}
+			}
+			return true;
+		}
+		int id = order[start + depth];
+		for (int mine = 0; mine <= 1; mine++) {
+			if (mines + mine > remainingMines) {
+				break;
+			}
+			if (assign(id, mine)) {
+				assigned[id] = mine;
+				boolean done = enumerate(g, depth + 1, mines + mine);
+				unassign(id, mine);
+				if (!done) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	/* Helper for enumerate(). Places a value on a tile if no constraint is broken by it. */
+	private boolean assign(int id, int mine) {
+		boolean valid = true;
+		for (int k = 0; k < tileConstraintCount[id]; k++) {
+			int c = tileConstraints[id*8 + k];
+			constraintMines[c] += mine;
+			constraintOpen[c]--;
+			if (constraintMines[c] > constraintValue[c] || constraintMines[c] + constraintOpen[c] < constraintValue[c]) {
+				valid = false;
+			}
+		}
+		if (!valid) {
+			unassign(id, mine);
+		}
+		return valid;
+	}
+
+	private void unassign(int id, int mine) {
+		for (int k = 0; k < tileConstraintCount[id]; k++) {
+			int c = tileConstraints[id*8 + k];
+			constraintMines[c] -= mine;
+			constraintOpen[c]++;
+		}
+	}
+
+	/* Helper for countGroups(). Divides the counts of a group by its number of placements. */
+	private void normalize(int g) {
+		int size = groupStart[g+1] - groupStart[g];
+		double total = 0;
+		for (int k = 0; k <= size; k++) {
+			total += ways[waysOffset[g] + k];
+		}
+		if (total == 0) {
+			groupExact[g] = false;
+			return;
+		}
+		for (int k = 0; k <= size; k++) {
+			ways[waysOffset[g] + k] /= total;
+		}
+		for (int i = 0; i < size * (size + 1); i++) {
+			tileWays[tileWaysOffset[g] + i] /= total;
+		}
+	}
+
+	/*
+	 * Helper for guess(). Combines the groups, weighting every total number K of bombs
+	 * on the frontier by the ways to place the remaining bombs on the interior tiles,
+	 * C(interior, remainingMines - K). Returns false if no total is possible.
+	 */
+	private boolean weightGroups(int interior) {
+		distribution = grow(distribution, frontierSize + 1);
+		others = grow(others, frontierSize + 1);
+		scratch = grow(scratch, frontierSize + 1);
+		weights = grow(weights, frontierSize + 1);
+		groupWeights = grow(groupWeights, MAX_GROUP_TILES + 1);
+
+		double maxLog = Double.NEGATIVE_INFINITY;
+		for (int k = 0; k <= frontierSize; k++) {
+			maxLog = Math.max(maxLog, logWeight(interior, k));
+		}
+		if (maxLog == Double.NEGATIVE_INFINITY) {
+			return false;
+		}
+		for (int k = 0; k <= frontierSize; k++) {
+			weights[k] = Math.exp(logWeight(interior, k) - maxLog);
+		}
+
+		int length = convolve(-1, distribution);
+		double total = 0;
+		double interiorMines = 0;
+		for (int k = 0; k < length; k++) {
+			total += distribution[k] * weights[k];
+			interiorMines += distribution[k] * weights[k] * (remainingMines - k);
+		}
+		if (total == 0) {
+			return false;
+		}
+		interiorChance = interior == 0 ? 1 : interiorMines / total / interior;
+
+		for (int g = 0; g < groupCount; g++) {
+			int start = groupStart[g];
+			int size = groupStart[g+1] - start;
+			int otherLength = convolve(g, others);
+			double groupTotal = 0;
+			for (int k = 0; k <= size; k++) {
+				double weight = 0;
+				for (int r = 0; r < otherLength && k + r <= frontierSize; r++) {
+					weight += others[r] * weights[k + r];
+				}
+				groupWeights[k] = weight;
+				groupTotal += ways[waysOffset[g] + k] * weight;
+			}
+			for (int i = 0; i < size; i++) {
+				double chance = 0;
+				for (int k = 0; k <= size; k++) {
+					chance += tileWays[tileWaysOffset[g] + i*(size+1) + k] * groupWeights[k];
+				}
+				frontierChance[order[start + i]] = groupTotal == 0 ? 1 : chance / groupTotal;
+			}
+		}
+		return true;
+	}
+
+	/* Helper for weightGroups(). The log of C(interior, remainingMines - mines). */
+	private double logWeight(int interior, int mines) {
+		int rest = remainingMines - mines;
+		if (rest < 0 || rest > interior) {
+			return Double.NEGATIVE_INFINITY;
+		}
+		return logFactorial[interior] - logFactorial[rest] - logFactorial[interior - rest];
+	}
+
+	/*
+	 * Helper for weightGroups(). Puts the distribution of the number of bombs in all
+	 * groups except the skipped one in result, and returns its length.
+	 */
+	private int convolve(int skip, double[] result) {
+		result[0] = 1;
+		int length = 1;
+		for (int g = 0; g < groupCount; g++) {
+			if (g == skip) {
+				continue;
+			}
+			int size = groupStart[g+1] - groupStart[g];
+			Arrays.fill(scratch, 0, length + size, 0);
+			for (int a = 0; a < length; a++) {
+				for (int k = 0; k <= size; k++) {
+					scratch[a + k] += result[a] * ways[waysOffset[g] + k];
+				}
+			}
+			length += size;
+			System.arraycopy(scratch, 0, result, 0, length);
+		}
+		return length;
+	}
+
+	/*
+	 * Helper for guess(). Used when the groups can not be weighted: every counted
+	 * group gets its own chances, the others get the highest density of their
+	 * constraints, and the interior gets the bombs that are left.
+	 */
+	private void estimateGroups(int interior) {
+		double frontierMines = 0;
+		for (int g = 0; g < groupCount; g++) {
+			int start = groupStart[g];
+			int size = groupStart[g+1] - start;
+			for (int i = 0; i < size; i++) {
+				int id = order[start + i];
+				double chance = 0;
+				if (groupExact[g]) {
+					for (int k = 0; k <= size; k++) {
+						chance += tileWays[tileWaysOffset[g] + i*(size+1) + k];
+					}
+				}else {
+					for (int k = 0; k < tileConstraintCount[id]; k++) {
+						int c = tileConstraints[id*8 + k];
+						chance = Math.max(chance, (double) constraintValue[c] / constraintSize[c]);
+					}
+				}
+				frontierChance[id] = chance;
+				frontierMines += chance;
+			}
+		}
+		interiorChance = interior == 0 ? 1 : Math.min(1, Math.max(0, (remainingMines - frontierMines) / interior));
+	}
+
+	/* Helper for guess(). Marks the tiles with a chance of exactly 0 or 1. */
+	private void markCertain(int interior) {
+		for (int id = 0; id < frontierSize; id++) {
+			if (frontierChance[id] < CERTAIN) {
+				mark(frontier[id], SAFE);
+			}else if (frontierChance[id] > 1 - CERTAIN) {
+				mark(frontier[id], MINE);
+			}
+		}
+		if (interior > 0 && (interiorChance < CERTAIN || interiorChance > 1 - CERTAIN)) {
+			for (int index = 0; index < width * height; index++) {
+				if (state[index] == UNKNOWN && tileStamps[index] != stamp) {
+					mark(index, interiorChance < CERTAIN ? SAFE : MINE);
+				}
+			}
+		}
+	}
+
+	private static double[] grow(double[] array, int length) {
+		return array.length >= length ? array : new double[Math.max(length, array.length * 2)];
+	}
+
+	/*
+	 * Returns the chance that the tile is a bomb: 0 or 1 for tiles that are known, and
+	 * otherwise the chance found by the last guess().
+	 */
+	public double getMineChance(int index) {
+		if (state[index] == OPEN || state[index] == SAFE) {
+			return 0;
+		}
+		if (state[index] == MINE) {
+			return 1;
+		}
+		return tileStamps[index] == stamp ? frontierChance[tileIds[index]] : interiorChance;
+	}
+
+	/* The chance of a bomb on the tile returned by the last guess(). */
+	public double getGuessChance() {
+		return guessChance;
+	}
+
+	public boolean isKnownSafe(int index) {
+		return state[index] == SAFE || state[index] == OPEN;
+	}
+
+	public boolean isKnownMine(int index) {
+		return state[index] == MINE;
+	}
+
+	public int getKnownMines() {
+		return knownMines;
+	}
+}
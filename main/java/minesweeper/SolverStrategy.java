@@ -0,0 +1,95 @@
+package minesweeper;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+
+/*
+ * A strategy that plays with a Solver: the first move opens the middle of the
+ * board, then every move opens a tile that is known to be safe, or the tile with
+ * the lowest chance of a bomb if there is none. The time the solver takes to pick
+ * each move is counted, so the cost of a decision can be reported.
+ */
+public class SolverStrategy implements MoveStrategy {
+
+	private final Solver solver = new Solver();
+	private Game game;
+	private long decisions;
+	private long guesses;
+	private long nanos;
+
+	@Override
+	public void move(GameEngine engine) {
+		Game game = engine.getGame();
+		if (!engine.isStarted()) {
+			engine.open(game.getWidth() / 2, game.getHeight() / 2);
+			return;
+		}
+		long start = System.nanoTime();
+		if (this.game != game) {
+			this.game = game;
+			solver.reset(game);
+		}
+		solver.deduce();
+		int tile = solver.nextSafe();
+		if (tile < 0) {
+			tile = solver.guess();
+			if (solver.getGuessChance() > 0) {
+				guesses++;
+			}
+		}
+		nanos += System.nanoTime() - start;
+		decisions++;
+		if (tile >= 0) {
+			engine.open(tile % game.getWidth(), tile / game.getWidth());
+		}
+	}
+
+	/* Getters for the SolverStrategy class. */
+	public long getDecisions() {
+		return decisions;
+	}
+
+	public long getGuesses() {
+		return guesses;
+	}
+
+	public long getDecisionNanos() {
+		return nanos;
+	}
+
+	/*
+	 * Reports the solve rate and the time per decision on the standard boards:
+	 * SolverStrategy [games threads seed]
+	 */
+	public static void main(String[] args) {
+		int games = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+		int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+		long seed = args.length > 2 ? Long.parseLong(args[2]) : 1;
+		GameConfig[] configs = {
+				new GameConfig(9, 9, 10, seed),
+				new GameConfig(16, 16, 40, seed),
+				new GameConfig(30, 16, 99, seed)
+		};
+		for (GameConfig config : configs) {
+			Queue<SolverStrategy> strategies = new ConcurrentLinkedQueue<>();
+			SimulationReport report = new Simulator(config, () -> {
+				SolverStrategy strategy = new SolverStrategy();
+				strategies.add(strategy);
+				return strategy;
+			}, threads).run(games);
+			long decisions = 0;
+			long guesses = 0;
+			long nanos = 0;
+			for (SolverStrategy strategy : strategies) {
+				decisions += strategy.getDecisions();
+				guesses += strategy.getGuesses();
+				nanos += strategy.getDecisionNanos();
+			}
+			System.out.println(config);
+			System.out.println("  " + report);
+			System.out.printf("  %.2f us/decision, %.2f guesses/game%n",
+					decisions == 0 ? 0 : nanos / 1000.0 / decisions, (double) guesses / games);
+		}
+	}
+}
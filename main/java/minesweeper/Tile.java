@@ -1,88 +1,104 @@
 package minesweeper;
 
 
+/*
+ * A tile is a view of one position on a Board. The state of the tile is stored in
+ * the board, so tiles from Game.getTile() can be created and thrown away freely.
+ * A tile made with the public constructor gets its own board of one tile.
+ */
 public class Tile {
 
-	private char type;
-	private int x, y;
-	private int bombCount;
-	private boolean isFlagged;
-	private boolean isOpen;
-	
+	private final Board board;
+	private final int index;
+	private final int x, y;
+
 	public Tile(int x, int y) {
+		this(new Board(1, 1), 0, x, y);
+	}
+
+	Tile(Board board, int index, int x, int y) {
 		if (x < 0 || y < 0) {
 			throw new IllegalArgumentException("Tile can not have negative coordinate input");
 		}
+		this.board = board;
+		this.index = index;
 		this.x = x;
 		this.y = y;
-		this.type = 'e';
-		this.bombCount = 0;
-		isFlagged = false;
-		isOpen = false;
-		
 	}
 
 	public void setBomb() {
-		this.type = '@';
+		board.setBomb(index, true);
 	}
-	
+
 	public void setType(char type) {
 		if (type != '@' && type != 'e') {
 			throw new IllegalArgumentException("Type can only be '@' or 'e'");
 		}
-		this.type = type;
+		board.setBomb(index, type == '@');
 	}
-	
+
 	public void setIsFlagged(boolean isFlagged) {
-		this.isFlagged = isFlagged;
+		board.setFlagged(index, isFlagged);
 	}
-	
+
 	public void setIsOpen(boolean isOpen) {
-		this.isOpen = isOpen;
+		board.setOpen(index, isOpen);
 	}
-	
+
 	public boolean isEmpty() {
-		return type == 'e';
+		return !board.isBomb(index);
 	}
-	
+
 	public boolean isBomb() {
-		return type == '@';
+		return board.isBomb(index);
 	}
-	
+
 	public boolean getIsOpen() {
-		return isOpen;
+		return board.isOpen(index);
 	}
-	
+
 	public boolean getIsFlagged( ) {
-		return isFlagged;
+		return board.isFlagged(index);
 	}
-	
+
 	public int getX() {
 		return x;
 	}
-	
+
 	public int getY() {
 		return y;
 	}
-	
+
 	public char getType() {
-		return type;
+		return isBomb() ? '@' : 'e';
 	}
-	
+
 	public int getBombCount() {
-		return bombCount;
+		return board.getBombCount(index);
 	}
-	
+
 	public void incBombCount() {
-		if (bombCount >= 8) {
-			throw new IllegalStateException("bombCount can not exceed maximum number of surrounding tiles.");
+		board.incBombCount(index);
+	}
+
+	/* Two tiles are equal if they are views of the same position on the same board. */
+	@Override
+	public boolean equals(Object obj) {
+		if (!(obj instanceof Tile)) {
+			return false;
 		}
-		this.bombCount += 1;
+		Tile other = (Tile) obj;
+		return board == other.board && index == other.index;
 	}
-	
+
+	@Override
+	public int hashCode() {
+		return System.identityHashCode(board) * 31 + index;
+	}
+
 	@Override
     public String toString() {
-        switch (type) {
+        switch (getType()) {
             case 'e':
                 return "e";
             case '@':
@@ -91,5 +107,5 @@ public class Tile {
                 return " ";
         }
     }
-	
+
 }
@@ -4,4 +4,7 @@ open module todolist {
 	requires javafx.fxml;
 	requires javafx.graphics;
 	requires java.desktop;
+	requires java.management;
+	requires jdk.management;
+	requires jdk.jfr;
 }
@@ -0,0 +1,136 @@
+package minesweeper;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import static minesweeper.GameAssertions.assertSameGame;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicReference;
+
+
+public class AsyncFileManagerTest {
+	
+	private AsyncFileManager fm = new AsyncFileManager();
+	
+	/* Makes a started game where the first click has opened some tiles. */
+	private static Game startedGame(int width, int height, int bombs) {
+		Game game = new Game(width, height);
+		game.generateBombs(bombs, 123456789L, 1, 1);
+		game.bombCount();
+		game.firstOpen(game.getTile(1, 1));
+		game.getTile(width - 1, height - 1).setIsFlagged(true);
+		return game;
+	}
+	
+	@Test
+	@DisplayName("Tester at et stort brett lagres og leses i bakgrunnen, med fremdrift til 1")
+	public void testLargeBoard() throws IOException {
+		Game game = startedGame(3000, 3000, 1000000);
+		double[] saved = {0};
+		fm.writeGameToFileAsync("test-async", game, p -> saved[0] = p).join();
+		assertEquals(1.0, saved[0]);
+		Path path = BinaryFileManager.getFullPath("test-async");
+		assertFalse(Files.exists(path.resolveSibling(path.getFileName() + ".tmp")));
+		
+		double[] read = {0};
+		assertSameGame(game, fm.readGameFromFileAsync("test-async", p -> read[0] = p).join());
+		assertEquals(1.0, read[0]);
+		assertSameGame(game, new BinaryFileManager().readGameFromFile("test-async"));
+	}
+	
+	@Test
+	@DisplayName("Tester at en lagring som avbrytes lar den gamle lagringen vre som den var")
+	public void testCancel() throws IOException {
+		Game old = startedGame(20, 15, 55);
+		fm.writeGameToFileAsync("test-async-cancel", old, p -> {}).join();
+		
+		Game game = startedGame(3000, 3000, 1000000);
+		AtomicReference<CompletableFuture<Void>> save = new AtomicReference<>();
+		CompletableFuture<Void> started = new CompletableFuture<>();
+		save.set(fm.writeGameToFileAsync("test-async-cancel", game, p -> {
+			started.join();
+			save.get().cancel(false);
+		}));
+		started.complete(null);
+		assertThrows(CancellationException.class, () -> save.get().join());
+		
+		assertSameGame(old, fm.readGameFromFileAsync("test-async-cancel", p -> {}).join());
+		Path path = BinaryFileManager.getFullPath("test-async-cancel");
+		assertFalse(Files.exists(path.resolveSibling(path.getFileName() + ".tmp")));
+	}
+	
+	@Test
+	@DisplayName("Tester at trekk lagt til i bakgrunnen spilles av nr spillet leses")
+	public void testAppendMoves() {
+		Game game = startedGame(20, 15, 55);
+		fm.writeGameToFileAsync("test-async-journal", game, p -> {}).join();
+		Move flag = new Move(Move.FLAG, 0, 14);
+		flag.apply(game);
+		fm.appendMovesAsync("test-async-journal", List.of(flag)).join();
+		assertSameGame(game, fm.readGameFromFileAsync("test-async-journal", p -> {}).join());
+	}
+	
+	@Test
+	@DisplayName("Tester at en journal som blir for lang erstattes av et snapshot lest fra filen")
+	public void testAppendCompaction() throws IOException {
+		AsyncFileManager compacting = new AsyncFileManager(new JournalFileManager(1));
+		Game game = startedGame(20, 15, 55);
+		compacting.writeGameToFileAsync("test-async-journal", game, p -> {}).join();
+		Move first = new Move(Move.FLAG, 0, 14);
+		Move second = new Move(Move.FLAG, 19, 0);
+		first.apply(game);
+		second.apply(game);
+		Metrics.reset();
+		compacting.appendMovesAsync("test-async-journal", List.of(first, second)).join();
+		assertEquals(1, Metrics.SAVE_TIME.getCount());
+		assertFalse(Files.exists(JournalFileManager.getJournalPath("test-async-journal")));
+		assertSameGame(game, new BinaryFileManager().readGameFromFile("test-async-journal"));
+	}
+	
+	@Test
+	@DisplayName("Tester at en lagring av en kopi som lages i bakgrunnen venter p kopien, og kommer fr trekkene lagt til etter den")
+	public void testWriteCopy() {
+		Game game = startedGame(20, 15, 55);
+		CompletableFuture<Game> copy = new CompletableFuture<>();
+		CompletableFuture<Void> save = fm.writeGameToFileAsync("test-async-copy", copy, p -> {});
+		Move flag = new Move(Move.FLAG, 0, 14);
+		CompletableFuture<Void> append = fm.appendMovesAsync("test-async-copy", List.of(flag));
+		assertFalse(save.isDone());
+		copy.complete(new Game(game));
+		save.join();
+		append.join();
+		flag.apply(game);
+		assertSameGame(game, fm.readGameFromFileAsync("test-async-copy", p -> {}).join());
+		
+		CompletableFuture<Game> cancelled = new CompletableFuture<>();
+		CompletableFuture<Void> failed = fm.writeGameToFileAsync("test-async-copy", cancelled, p -> {});
+		cancelled.cancel(false);
+		assertThrows(CancellationException.class, () -> failed.join());
+		assertSameGame(game, fm.readGameFromFileAsync("test-async-copy", p -> {}).join());
+	}
+	
+	@Test
+	@DisplayName("Tester at en fil som ikke finnes gir FileNotFoundException")
+	public void testFileNotFound() {
+		CompletionException e = assertThrows(CompletionException.class,
+				() -> fm.readGameFromFileAsync("test-async-missing", p -> {}).join());
+		assertTrue(e.getCause() instanceof FileNotFoundException);
+	}
+	
+	@AfterAll
+	static void deleteTestFiles() throws IOException {
+		for (String filename : new String[] {"test-async", "test-async-cancel", "test-async-journal", "test-async-copy"}) {
+			Files.deleteIfExists(BinaryFileManager.getFullPath(filename));
+			Files.deleteIfExists(JournalFileManager.getJournalPath(filename));
+		}
+	}
+}
@@ -0,0 +1,151 @@
+package minesweeper;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import static minesweeper.GameAssertions.assertSameGame;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Random;
+
+
+public class BinaryFileManagerTest {
+	
+	private Game game;
+	private BinaryFileManager fm;
+	
+	@BeforeEach
+	public void setup() {
+		game = new Game(20, 15);
+		game.generateBombs(Game.NUMBER_OF_BOMBS, 987654321L, 3, 3);
+		game.bombCount();
+		game.firstOpen(game.getTile(3, 3));
+		Random rnd = new Random(987654321L);
+		for (int i = 0; i < 20; i++) {
+			int x = rnd.nextInt(game.getWidth());
+			int y = rnd.nextInt(game.getHeight());
+			if (game.getTile(x, y).isBomb()) {
+				game.toggleIsFlagged(x, y);
+			}else {
+				game.openTile(game.getTile(x, y));
+			}
+		}
+		game.toggleIsFlagged(19, 14);
+		fm = new BinaryFileManager();
+	}
+	
+	@Test
+	@DisplayName("Tester lagring og lesing av spill i binrt format")
+	public void testWriteAndRead() throws IOException {
+		fm.writeGameToFile("test-binary", game);
+		Game loaded = fm.readGameFromFile("test-binary");
+		assertSameGame(game, loaded);
+		assertEquals(987654321L, loaded.getSeed());
+		assertEquals(game.getPackedBoard().getOpenedSafe(), loaded.getPackedBoard().getOpenedSafe());
+		assertEquals(game.getPackedBoard().getFlaggedBombs(), loaded.getPackedBoard().getFlaggedBombs());
+		
+		long size = Files.size(BinaryFileManager.getFullPath("test-binary"));
+		assertEquals(BinaryFileManager.HEADER_SIZE + 3 * ((300 + 7) / 8), size);
+	}
+	
+	@Test
+	@DisplayName("Tester at store brett som ikke gr opp i hele bytes og buffere lagres riktig")
+	public void testLargeBoard() throws IOException {
+		Game large = new Game(1001, 999);
+		large.generateBombs(150000, 42L, 500, 500);
+		large.bombCount();
+		large.firstOpen(large.getTile(500, 500));
+		large.toggleIsFlagged(1000, 998);
+		fm.writeGameToFile("test-binary", large);
+		assertSameGame(large, fm.readGameFromFile("test-binary"));
+	}
+	
+	@Test
+	@DisplayName("Tester at spill lagret i tekstformatet kan leses")
+	public void testReadTextFormat() throws IOException {
+		new FileManager().writeGameToFile("test-text", game);
+		Game loaded = fm.readGameFromFile("test-text");
+		assertSameGame(new FileManager().readGameFromFile("test-text"), loaded);
+		for (int y = 0; y < game.getHeight(); y++) {
+			for (int x = 0; x < game.getWidth(); x++) {
+				assertEquals(game.getTile(x, y).getIsOpen(), loaded.getTile(x, y).getIsOpen());
+				assertEquals(game.getTile(x, y).getType(), loaded.getTile(x, y).getType());
+			}
+		}
+		
+		BinaryFileManager.write(FileManager.getFullPath("test-text"), game);
+		assertSameGame(game, fm.readGameFromFile("test-text"));
+	}
+	
+	@Test
+	@DisplayName("Tester lesing av fil som ikke eksisterer eller ikke er et lagret spill")
+	public void testInvalidFile() throws IOException {
+		assertThrows(FileNotFoundException.class, () -> {
+			fm.readGameFromFile("non-existing");
+		});
+		Files.write(BinaryFileManager.getFullPath("test-binary"), new byte[] {1, 2, 3, 4, 5, 6, 7, 8});
+		assertThrows(UncheckedIOException.class, () -> {
+			fm.readGameFromFile("test-binary");
+		});
+		fm.writeGameToFile("test-binary", game);
+		byte[] bytes = Files.readAllBytes(BinaryFileManager.getFullPath("test-binary"));
+		Files.write(BinaryFileManager.getFullPath("test-binary"), Arrays.copyOf(bytes, bytes.length - 1));
+		assertThrows(UncheckedIOException.class, () -> {
+			fm.readGameFromFile("test-binary");
+		});
+		for (int width : new int[] {-1, 0, 1 << 20}) {
+			ByteBuffer.wrap(bytes).putInt(8, width);
+			Files.write(BinaryFileManager.getFullPath("test-binary"), bytes);
+			assertThrows(UncheckedIOException.class, () -> {
+				fm.readGameFromFile("test-binary");
+			});
+		}
+		ByteBuffer.wrap(bytes).putInt(8, game.getWidth()).putInt(20, 300);
+		Files.write(BinaryFileManager.getFullPath("test-binary"), bytes);
+		assertThrows(UncheckedIOException.class, () -> {
+			fm.readGameFromFile("test-binary");
+		});
+	}
+	
+	@Test
+	@DisplayName("Tester at et spill som ikke er startet beholder antall bomber fra oppsettet nr det lagres og leses")
+	public void testUnstartedConfig() throws IOException {
+		AsyncFileManager async = new AsyncFileManager();
+		for (GameConfig config : new GameConfig[] {GameConfig.BEGINNER, new GameConfig(40, 3, 7, 42L)}) {
+			Game unstarted = new Game(config);
+			fm.writeGameToFile("test-binary", unstarted);
+			assertEquals(config, fm.readGameFromFile("test-binary").getConfig());
+			assertEquals(config, fm.mapGameFromFile("test-binary", false).getConfig());
+			Game cached = fm.openCachedGame("test-binary", 0);
+			assertEquals(config, cached.getConfig());
+			fm.closeCachedGame(cached);
+			
+			async.writeGameToFileAsync("test-binary", unstarted, p -> {}).join();
+			assertEquals(config, async.readGameFromFileAsync("test-binary", p -> {}).join().getConfig());
+			Game mapped = fm.mapGameFromFile("test-binary", true);
+			mapped.toggleIsFlagged(0, 0);
+			fm.writeGameToFile("test-binary", mapped);
+			assertEquals(config, fm.readGameFromFile("test-binary").getConfig());
+		}
+		
+		// Saves from before the number was kept get the number of bombs that were placed
+		fm.writeGameToFile("test-binary", game);
+		byte[] bytes = Files.readAllBytes(BinaryFileManager.getFullPath("test-binary"));
+		ByteBuffer.wrap(bytes).putInt(20, 0);
+		Files.write(BinaryFileManager.getFullPath("test-binary"), bytes);
+		assertEquals(game.getConfig(), fm.readGameFromFile("test-binary").getConfig());
+	}
+	
+	@AfterAll
+	static void deleteTestFiles() throws IOException {
+		Files.deleteIfExists(BinaryFileManager.getFullPath("test-binary"));
+		Files.deleteIfExists(FileManager.getFullPath("test-text"));
+	}
+}
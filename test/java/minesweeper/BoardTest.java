@@ -0,0 +1,192 @@
+package minesweeper;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+public class BoardTest {
+	
+	private Board board;
+	
+	@BeforeEach
+	public void setup() {
+		board = new Board(20, 15);
+	}
+	
+	@Test
+	public void testConstructor() {
+		assertEquals(20, board.getWidth());
+		assertEquals(15, board.getHeight());
+		assertEquals(300, board.size());
+		for (int i = 0; i < board.size(); i++) {
+			assertFalse(board.isBomb(i));
+			assertFalse(board.isOpen(i));
+			assertFalse(board.isFlagged(i));
+			assertEquals(0, board.getBombCount(i));
+		}
+		assertThrows(IllegalArgumentException.class, () -> {
+			new Board(-1, 15);
+		});
+		assertThrows(IllegalArgumentException.class, () -> {
+			new Board(100000, 100000);
+		});
+	}
+	
+	@Test
+	@DisplayName("Tester at bombe, pen, flagg og bombCount lagres uavhengig av hverandre i samme byte")
+	public void testPackedState() {
+		board.setBomb(7, true);
+		board.setFlagged(7, true);
+		assertTrue(board.isBomb(7));
+		assertTrue(board.isFlagged(7));
+		assertFalse(board.isOpen(7));
+		assertFalse(board.isBomb(6));
+		assertFalse(board.isBomb(8));
+		
+		for (int i = 0; i < 8; i++) {
+			board.incBombCount(8);
+		}
+		board.setOpen(8, true);
+		assertEquals(8, board.getBombCount(8));
+		assertTrue(board.isOpen(8));
+		assertFalse(board.isBomb(8));
+		assertThrows(IllegalStateException.class, () -> {
+			board.incBombCount(8);
+		});
+		board.setOpen(8, false);
+		board.setFlagged(7, false);
+		assertEquals(8, board.getBombCount(8));
+		assertFalse(board.isOpen(8));
+		assertTrue(board.isBomb(7));
+		assertFalse(board.isFlagged(7));
+	}
+	
+	@Test
+	@DisplayName("Tester tellerne for bomber, pne tiles som ikke er bomber og flaggede bomber")
+	public void testCounters() {
+		board.setBomb(0, true);
+		board.setBomb(0, true);
+		board.setBomb(1, true);
+		assertEquals(2, board.getBombs());
+		board.setOpen(2, true);
+		board.setOpen(2, true);
+		board.setOpen(1, true);
+		assertEquals(1, board.getOpenedSafe());
+		board.setFlagged(0, true);
+		board.setFlagged(3, true);
+		assertEquals(1, board.getFlaggedBombs());
+		board.setBomb(3, true);
+		assertEquals(2, board.getFlaggedBombs());
+		board.setBomb(1, false);
+		assertEquals(2, board.getOpenedSafe());
+		board.setOpen(2, false);
+		board.setFlagged(0, false);
+		assertEquals(2, board.getBombs());
+		assertEquals(1, board.getOpenedSafe());
+		assertEquals(1, board.getFlaggedBombs());
+	}
+	
+	/*
+	 * The old Game.bombCount(), which incremented the bombCount of the tiles around
+	 * every bomb one at a time.
+	 */
+	private static void incrementBombCounts(Board board) {
+		for (int y = 0; y < board.getHeight(); y++) {
+			for (int x = 0; x < board.getWidth(); x++) {
+				if (!board.isBomb(y*board.getWidth() + x)) {
+					continue;
+				}
+				for (int row = y-1; row <= y+1; row++) {
+					for (int col = x-1; col <= x+1; col++) {
+						if (col < 0 || row < 0 || col >= board.getWidth() || row >= board.getHeight()
+								|| board.isBomb(row*board.getWidth() + col)) {
+							continue;
+						}
+						board.incBombCount(row*board.getWidth() + col);
+					}
+				}
+			}
+		}
+	}
+	
+	@Test
+	@DisplayName("Tester at computeBombCounts() gir samme bombCount som den gamle telle-metoden, ogs for store brett som telles parallelt")
+	public void testComputeBombCounts() {
+		Random rnd = new Random(987654321L);
+		int[][] sizes = {{1, 1}, {1, 7}, {7, 1}, {2, 2}, {20, 15}, {9, 9}, {30, 16}, {1200, 1000}};
+		for (int[] size : sizes) {
+			for (int density : new int[] {0, 15, 50, 100}) {
+				Board counted = new Board(size[0], size[1]);
+				Board incremented = new Board(size[0], size[1]);
+				for (int i = 0; i < counted.size(); i++) {
+					if (rnd.nextInt(100) < density) {
+						counted.setBomb(i, true);
+						incremented.setBomb(i, true);
+					}
+				}
+				counted.computeBombCounts();
+				incrementBombCounts(incremented);
+				for (int i = 0; i < counted.size(); i++) {
+					assertEquals(incremented.getBombCount(i), counted.getBombCount(i));
+				}
+				counted.computeBombCounts();
+				assertEquals(incremented.getBombCount(counted.size() / 2), counted.getBombCount(counted.size() / 2));
+			}
+		}
+	}
+	
+	@Test
+	@DisplayName("Tester at endrede tiles rapporteres, og at alle regnes som endret etter store endringer")
+	public void testTrackChanges() {
+		board.setOpen(0, true);
+		assertNull(board.takeChanges());
+		board.setTrackChanges(true);
+		assertNull(board.takeChanges());
+		assertArrayEquals(new int[0], board.takeChanges());
+		board.setOpen(5, true);
+		board.setOpen(5, true);
+		board.setFlagged(7, true);
+		assertArrayEquals(new int[] {5, 7}, board.takeChanges());
+		assertArrayEquals(new int[0], board.takeChanges());
+		
+		Game game = new Game(100, 100);
+		game.setTrackChanges(true);
+		game.takeChangedTiles();
+		game.getTile(50, 50).setBomb();
+		game.bombCount();
+		assertNull(game.takeChangedTiles());
+		game.openTile(game.getTile(49, 49));
+		assertArrayEquals(new int[] {49*100 + 49}, game.takeChangedTiles());
+		game.openTile(game.getTile(0, 0));
+		assertNull(game.takeChangedTiles());
+	}
+	
+	@Test
+	@DisplayName("Tester at Tile-objekter fra Game er views av samme Board")
+	public void testTileView() {
+		Game game = new Game(20, 15);
+		game.getTile(3, 2).setBomb();
+		game.getTile(3, 2).setIsFlagged(true);
+		assertTrue(game.getPackedBoard().isBomb(2*20 + 3));
+		assertTrue(game.getPackedBoard().isFlagged(2*20 + 3));
+		assertEquals(game.getTile(3, 2), game.getTile(3, 2));
+		assertNotEquals(game.getTile(3, 2), game.getTile(2, 3));
+		assertNotEquals(new Tile(3, 2), game.getTile(3, 2));
+	}
+	
+	@Test
+	@DisplayName("Tester at Board bruker n byte per tile, ogs med alle bitene satt")
+	public void testOneBytePerTile() {
+		Board large = new Board(1000, 1000);
+		assertEquals(1000*1000, large.size());
+		int index = large.size() - 1;
+		large.put(index, Board.BOMB | Board.OPEN | Board.FLAGGED | 8);
+		assertTrue(large.isBomb(index));
+		assertTrue(large.isOpen(index));
+		assertTrue(large.isFlagged(index));
+		assertEquals(8, large.getBombCount(index));
+	}
+}
@@ -0,0 +1,92 @@
+package minesweeper;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BombGeneratorTest {
+	
+	private static int countBombs(Board board) {
+		int bombs = 0;
+		for (int i = 0; i < board.size(); i++) {
+			if (board.isBomb(i)) {
+				bombs++;
+			}
+		}
+		return bombs;
+	}
+	
+	@Test
+	@DisplayName("Tester at riktig antall bomber plasseres for tettheter fra 0 % til fullt brett")
+	public void testExactCount() {
+		for (int bombs = 0; bombs <= 300 - 9; bombs += 13) {
+			Board board = new Board(20, 15);
+			BombGenerator.generate(board, bombs, bombs, 10, 7);
+			assertEquals(bombs, countBombs(board));
+			assertEquals(bombs, board.getBombs());
+		}
+		Board full = new Board(20, 15);
+		BombGenerator.generate(full, 299, 1L, 0, 0);
+		assertEquals(299, countBombs(full));
+		assertFalse(full.isBomb(0));
+	}
+	
+	@Test
+	@DisplayName("Tester at det ikke plasseres bomber rundt frste klikk")
+	public void testSafeArea() {
+		for (long seed = 0; seed < 50; seed++) {
+			Board board = new Board(20, 15);
+			BombGenerator.generate(board, 291, seed, 19, 14);
+			for (int y = 13; y <= 14; y++) {
+				for (int x = 18; x <= 19; x++) {
+					assertFalse(board.isBomb(y*20 + x));
+				}
+			}
+			assertEquals(291, board.getBombs());
+		}
+		Board board = new Board(20, 15);
+		BombGenerator.generate(board, 296, 1L, 19, 14);
+		assertFalse(board.isBomb(14*20 + 19));
+	}
+	
+	@Test
+	@DisplayName("Tester at samme seed gir samme brett, og at bomber kan havne i siste rad og kolonne")
+	public void testSeed() {
+		Board board1 = new Board(20, 15);
+		Board board2 = new Board(20, 15);
+		BombGenerator.generate(board1, 55, 123456789L, 4, 4);
+		BombGenerator.generate(board2, 55, 123456789L, 4, 4);
+		boolean lastRow = false;
+		boolean lastColumn = false;
+		for (int i = 0; i < board1.size(); i++) {
+			assertEquals(board1.isBomb(i), board2.isBomb(i));
+		}
+		for (long seed = 0; seed < 20; seed++) {
+			Board board = new Board(20, 15);
+			BombGenerator.generate(board, 55, seed, -1, -1);
+			for (int i = 0; i < 20; i++) {
+				lastRow |= board.isBomb(14*20 + i);
+			}
+			for (int i = 0; i < 15; i++) {
+				lastColumn |= board.isBomb(i*20 + 19);
+			}
+		}
+		assertTrue(lastRow);
+		assertTrue(lastColumn);
+	}
+	
+	@Test
+	public void testInvalidInput() {
+		assertThrows(IllegalArgumentException.class, () -> {
+			BombGenerator.generate(new Board(20, 15), 300, 1L, 5, 5);
+		});
+		assertThrows(IllegalArgumentException.class, () -> {
+			BombGenerator.generate(new Board(20, 15), -1, 1L, 5, 5);
+		});
+		Board board = new Board(20, 15);
+		BombGenerator.generate(board, 10, 1L, 5, 5);
+		assertThrows(IllegalStateException.class, () -> {
+			BombGenerator.generate(board, 10, 1L, 5, 5);
+		});
+	}
+}
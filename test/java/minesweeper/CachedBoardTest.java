@@ -0,0 +1,99 @@
+package minesweeper;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import static minesweeper.GameAssertions.assertSameGame;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.Files;
+
+
+public class CachedBoardTest {
+	
+	private BinaryFileManager fm = new BinaryFileManager();
+	
+	/* Makes a game with bombs that has not been opened. */
+	private static Game newGame(int width, int height, int bombs) {
+		Game game = new Game(width, height);
+		game.generateBombs(bombs, 987654321L, width / 2, height / 2);
+		game.bombCount();
+		return game;
+	}
+	
+	@Test
+	@DisplayName("Tester at et spill lest gjennom cachen er likt det lagrede spillet, med begrenset minne")
+	public void testReadThroughCache() throws FileNotFoundException {
+		Game game = newGame(1001, 503, 70000);
+		game.firstOpen(game.getTile(500, 251));
+		game.toggleIsFlagged(0, 0);
+		game.toggleIsFlagged(1000, 502);
+		fm.writeGameToFile("test-cached", game);
+		
+		Game cached = fm.openCachedGame("test-cached", 16 * CachedBoard.CHUNK_TILES);
+		CachedBoard board = (CachedBoard) cached.getPackedBoard();
+		assertEquals(16, board.getSlots());
+		assertSameGame(game, cached);
+		assertTrue(board.getCachedChunks() <= board.getSlots());
+		assertTrue(board.getMisses() >= (1001 * 503) / CachedBoard.CHUNK_TILES);
+		assertTrue(board.getEvictions() > 0);
+		assertTrue(board.getHits() > 8 * board.getMisses());
+		assertEquals(0, board.getWriteBacks());
+		fm.closeCachedGame(cached);
+		
+		Game small = fm.openCachedGame("test-cached", 0);
+		assertEquals(CachedBoard.MIN_SLOTS, ((CachedBoard) small.getPackedBoard()).getSlots());
+		assertSameGame(game, small);
+		fm.closeCachedGame(small);
+	}
+	
+	@Test
+	@DisplayName("Tester at en kaskade over hele brettet gr i begrenset minne, og at endrede chunks skrives tilbake")
+	public void testCascadeWriteBack() throws FileNotFoundException {
+		Game game = newGame(2000, 1000, 50);
+		fm.writeGameToFile("test-cached", game);
+		Game cached = fm.openCachedGame("test-cached", 32 * CachedBoard.CHUNK_TILES);
+		CachedBoard board = (CachedBoard) cached.getPackedBoard();
+		
+		int opened = game.openTile(game.getTile(1000, 500));
+		assertEquals(opened, cached.openTile(cached.getTile(1000, 500)));
+		assertTrue(opened > 1900000);
+		assertEquals(32, board.getCachedChunks());
+		assertTrue(board.getWriteBacks() > 2000 * 1000 / CachedBoard.CHUNK_TILES - 32);
+		game.toggleIsFlagged(1999, 999);
+		cached.toggleIsFlagged(1999, 999);
+		
+		fm.writeGameToFile("test-cached", cached);
+		assertSameGame(game, fm.readGameFromFile("test-cached"));
+		cached.toggleIsFlagged(1999, 999);
+		fm.closeCachedGame(cached);
+		game.toggleIsFlagged(1999, 999);
+		assertSameGame(game, fm.readGameFromFile("test-cached"));
+	}
+	
+	@Test
+	@DisplayName("Tester at hele brettet kan pnes gjennom en liten cache uten at stakken til kaskaden vokser forbi grensen")
+	public void testCascadeSmallBudget() throws FileNotFoundException {
+		Game game = newGame(2000, 1000, 50);
+		fm.writeGameToFile("test-cached", game);
+		Game cached = fm.openCachedGame("test-cached", 8 * CachedBoard.CHUNK_TILES);
+		CachedBoard board = (CachedBoard) cached.getPackedBoard();
+		
+		int opened = cached.openTile(cached.getTile(1000, 500));
+		assertEquals(game.openTile(game.getTile(1000, 500)), opened);
+		assertTrue(opened > 1900000);
+		assertEquals(Game.MAX_CASCADE_STACK, cached.getCascadeStackSize());
+		assertEquals(8, board.getCachedChunks());
+		assertSameGame(game, cached);
+		assertThrows(UnsupportedOperationException.class, () -> cached.fork());
+		fm.closeCachedGame(cached);
+		assertSameGame(game, fm.readGameFromFile("test-cached"));
+	}
+	
+	@AfterAll
+	static void deleteTestFiles() throws IOException {
+		Files.deleteIfExists(BinaryFileManager.getFullPath("test-cached"));
+	}
+}
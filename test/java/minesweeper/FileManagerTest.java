@@ -159,11 +159,15 @@ public class FileManagerTest {
 	}
 	
 	@Test
-	@DisplayName("Spill et spill og lagre som 'filename' (default) for at testen skal fungere. Tester lesing av spillet til fil")
+	@DisplayName("Tester lesing av et nytt spill lagret i tekstformatet")
 	public void testReadGameFromFile() {
+		Game fresh = new Game(20, 15);
+		fresh.generateBombs();
+		fresh.bombCount();
 		Game game2 = null;
 		try {
-			game2 = fm.readGameFromFile("filename");
+			fm.writeGameToFile("test-game4", fresh);
+			game2 = fm.readGameFromFile("test-game4");
 		} catch (FileNotFoundException e) {
 			fail("Was not able to load game");
 		}
@@ -183,11 +187,30 @@ public class FileManagerTest {
 	}
 		
 
+	@Test
+	@DisplayName("Tester at antall bomber blir lagret nyaktig")
+	public void testNumberOfBombsIsKept() throws FileNotFoundException {
+		Game small = new Game(GameConfig.BEGINNER);
+		small.generateBombs(10, 123L, 4, 4);
+		small.bombCount();
+		small.openTile(small.getTile(4, 4));
+		fm.writeGameToFile("test-game3", small);
+		Game loaded = fm.readGameFromFile("test-game3");
+		assertEquals(10, loaded.getNumberOfBombs());
+		assertEquals(10, loaded.getConfig().getBombs());
+		assertEquals(9, loaded.getConfig().getWidth());
+		assertFalse(loaded.isGameWon());
+	}
+	
 	@AfterAll
 	static void deleteTestFiles() {
 		File testFile1 = new File(FileManager.getFullPath("test-game1").toString());
 		testFile1.delete();
 		File testFile2 = new File(FileManager.getFullPath("test-game2").toString());
 		testFile2.delete();
+		File testFile3 = new File(FileManager.getFullPath("test-game3").toString());
+		testFile3.delete();
+		File testFile4 = new File(FileManager.getFullPath("test-game4").toString());
+		testFile4.delete();
 	}
 }
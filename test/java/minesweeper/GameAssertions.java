@@ -0,0 +1,37 @@
+package minesweeper;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/*
+ * Assertions for comparing games, shared by the tests that save, read or replay
+ * games.
+ */
+final class GameAssertions {
+	
+	private GameAssertions() {
+	}
+	
+	/*
+	 * Checks that two games have the same size, numberOfBombs, seed and counters, and
+	 * that every tile has the same packed byte, which holds if it is a bomb, open or
+	 * flagged, and its bombCount.
+	 */
+	static void assertSameGame(Game expected, Game actual) {
+		assertEquals(expected.getWidth(), actual.getWidth());
+		assertEquals(expected.getHeight(), actual.getHeight());
+		assertEquals(expected.getNumberOfBombs(), actual.getNumberOfBombs());
+		assertEquals(expected.getSeed(), actual.getSeed());
+		Board board = expected.getPackedBoard();
+		assertEquals(board.getBombs(), actual.getPackedBoard().getBombs());
+		assertEquals(board.getOpenedSafe(), actual.getPackedBoard().getOpenedSafe());
+		assertEquals(board.getFlaggedBombs(), actual.getPackedBoard().getFlaggedBombs());
+		for (int i = 0; i < board.size(); i++) {
+			if (board.get(i) != actual.getPackedBoard().get(i)) {
+				fail("Tile " + i % expected.getWidth() + "," + i / expected.getWidth() + " differs");
+			}
+		}
+		assertEquals(expected.isGameWon(), actual.isGameWon());
+		assertEquals(expected.isGameOver(), actual.isGameOver());
+	}
+}
@@ -0,0 +1,91 @@
+package minesweeper;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GameEngineTest {
+	
+	@Test
+	@DisplayName("Tester at frste trekk aldri taper, og at samme seed gir samme brett")
+	public void testFirstOpen() {
+		for (long seed = 0; seed < 20; seed++) {
+			GameEngine engine1 = new GameEngine(new GameConfig(9, 9, 10, seed));
+			GameEngine engine2 = new GameEngine(new GameConfig(9, 9, 10, seed));
+			assertFalse(engine1.isStarted());
+			assertTrue(engine1.open(4, 4) > 0);
+			engine2.open(4, 4);
+			assertTrue(engine1.isStarted());
+			assertFalse(engine1.isLost());
+			assertEquals(10, engine1.getGame().getNumberOfBombs());
+			assertEquals(engine1.getGame().getDigest(), engine2.getGame().getDigest());
+			assertEquals(1, engine1.getMoves());
+		}
+	}
+	
+	@Test
+	@DisplayName("Tester flagging, og at pne ruter ikke kan flagges")
+	public void testFlag() {
+		GameEngine engine = new GameEngine(new GameConfig(9, 9, 10, 1L));
+		engine.open(4, 4);
+		assertFalse(engine.flag(4, 4));
+		int x = 0;
+		while (engine.getGame().getTile(x, 0).getIsOpen()) {
+			x++;
+		}
+		assertTrue(engine.flag(x, 0));
+		assertTrue(engine.getGame().getTile(x, 0).getIsFlagged());
+		assertFalse(engine.flag(x, 0));
+		assertEquals(3, engine.getMoves());
+	}
+	
+	@Test
+	@DisplayName("Tester at akkord pner naboene nr riktig antall flagg er satt")
+	public void testChord() {
+		Game game = new Game(3, 3);
+		game.getTile(0, 0).setBomb();
+		game.getTile(2, 2).setBomb();
+		game.bombCount();
+		game.setNumberOfBombs(2);
+		GameEngine engine = new GameEngine(game);
+		assertTrue(engine.isStarted());
+		engine.open(1, 1);
+		assertEquals(0, engine.chord(1, 1));
+		engine.flag(0, 0);
+		assertEquals(0, engine.chord(1, 1));
+		engine.flag(2, 2);
+		assertTrue(engine.isWon());
+		
+		game = new Game(3, 3);
+		game.getTile(0, 0).setBomb();
+		game.getTile(2, 2).setBomb();
+		game.bombCount();
+		game.setNumberOfBombs(3);
+		engine = new GameEngine(game);
+		engine.open(1, 1);
+		engine.flag(0, 0);
+		engine.flag(2, 2);
+		assertEquals(6, engine.chord(1, 1));
+		assertFalse(engine.isLost());
+		assertEquals(7, game.getPackedBoard().getOpenedSafe());
+	}
+	
+	@Test
+	@DisplayName("Tester at en kopi av motoren kan spilles videre uten  endre originalen")
+	public void testFork() {
+		GameEngine engine = new GameEngine(new GameConfig(16, 16, 40, 7L));
+		engine.open(8, 8);
+		GameEngine fork = engine.fork();
+		assertEquals(engine.getMoves(), fork.getMoves());
+		assertTrue(fork.isStarted());
+		long digest = engine.getGame().getDigest();
+		
+		SolverStrategy solver = new SolverStrategy();
+		while (!fork.isOver()) {
+			solver.move(fork);
+		}
+		assertTrue(fork.getMoves() > engine.getMoves());
+		assertEquals(digest, engine.getGame().getDigest());
+		assertFalse(engine.isOver());
+	}
+}
@@ -0,0 +1,202 @@
+package minesweeper;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import static minesweeper.GameAssertions.assertSameGame;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+
+
+public class GameExecutorTest {
+	
+	private final ConcurrentLinkedQueue<Runnable> ui = new ConcurrentLinkedQueue<>();
+	private final List<ChangeSet> received = new ArrayList<>();
+	
+	/* Runs what the executor has given to the ui, as Platform.runLater() would. */
+	private int runUi() {
+		int runs = 0;
+		for (Runnable task = ui.poll(); task != null; task = ui.poll()) {
+			task.run();
+			runs++;
+		}
+		return runs;
+	}
+	
+	private static byte[] tiles(Game game) {
+		byte[] tiles = new byte[game.getPackedBoard().size()];
+		for (int i = 0; i < tiles.length; i++) {
+			tiles[i] = (byte) game.getPackedBoard().get(i);
+		}
+		return tiles;
+	}
+	
+	@Test
+	@DisplayName("Tester at trekk gjres i rekkeflge og sls sammen til n endring")
+	public void testMovesInOrder() {
+		GameEngine engine = new GameEngine(GameConfig.INTERMEDIATE.withSeed(11));
+		Game copy = new Game(16, 16);
+		try (GameExecutor executor = new GameExecutor(engine, ui::add, received::add)) {
+			CountDownLatch busy = new CountDownLatch(1);
+			executor.call(e -> {
+				try {
+					busy.await();
+				}catch (InterruptedException ex) {
+					Thread.currentThread().interrupt();
+				}
+				return null;
+			});
+			executor.open(8, 8);
+			executor.open(8, 8);
+			executor.open(8, 8);
+			executor.toggleFlag(0, 0);
+			executor.toggleFlag(0, 0);
+			executor.toggleFlag(0, 0);
+			busy.countDown();
+			byte[] expected = executor.call(e -> tiles(e.getGame())).join();
+			
+			assertEquals(1, runUi());
+			assertEquals(1, received.size());
+			ChangeSet changes = received.get(0);
+			assertTrue(changes.isFull());
+			assertTrue(changes.startsGame());
+			boolean opened = changes.getMoves().get(0).equals(new Move(Move.OPEN, 8, 8));
+			assertTrue(opened);
+			changes.applyTo(copy);
+			assertArrayEquals(expected, tiles(copy));
+			assertEquals(engine.getGame().getNumberOfBombs(), copy.getNumberOfBombs());
+			if (copy.getTile(0, 0).getIsOpen()) {
+				assertEquals(1, changes.getMoves().size());
+			}else {
+				assertEquals(Arrays.asList(new Move(Move.OPEN, 8, 8), new Move(Move.FLAG, 0, 0),
+						new Move(Move.UNFLAG, 0, 0), new Move(Move.FLAG, 0, 0)), changes.getMoves());
+				assertTrue(copy.getTile(0, 0).getIsFlagged());
+			}
+		}
+	}
+	
+	@Test
+	@DisplayName("Tester at kopien flger spillet nr ui-en tar endringene underveis")
+	public void testCopyFollowsGame() {
+		for (long seed = 1; seed <= 10; seed++) {
+			GameEngine engine = new GameEngine(GameConfig.EXPERT.withSeed(seed));
+			Game copy = new Game(30, 16);
+			copy.setTrackChanges(true);
+			received.clear();
+			try (GameExecutor executor = new GameExecutor(engine, ui::add, received::add)) {
+				Replay replay = ReplayPlayer.record(GameConfig.EXPERT.withSeed(seed));
+				for (Move move : replay.getMoves()) {
+					if (move.getType() == Move.OPEN) {
+						executor.open(move.getX(), move.getY());
+					}else {
+						executor.toggleFlag(move.getX(), move.getY());
+					}
+					if (move.getX() % 3 == 0) {
+						runUi();
+						for (ChangeSet changes : received) {
+							changes.applyTo(copy);
+						}
+						received.clear();
+					}
+				}
+				byte[] expected = executor.call(e -> tiles(e.getGame())).join();
+				runUi();
+				for (ChangeSet changes : received) {
+					changes.applyTo(copy);
+				}
+				assertArrayEquals(expected, tiles(copy));
+				assertEquals(engine.isWon(), copy.isGameWon());
+				assertEquals(engine.isLost(), copy.isGameOver());
+			}
+		}
+	}
+	
+	@Test
+	@DisplayName("Tester at en lukket executor ikke sender flere endringer")
+	public void testClose() {
+		GameExecutor executor = new GameExecutor(new GameEngine(GameConfig.BEGINNER), ui::add, received::add);
+		executor.open(4, 4);
+		executor.call(e -> null).join();
+		executor.close();
+		runUi();
+		assertTrue(received.isEmpty());
+		assertThrows(IllegalStateException.class, () -> executor.open(1, 1));
+	}
+	
+	@Test
+	@DisplayName("Tester sammensling av endringer")
+	public void testMerge() {
+		Game game = new Game(5, 5);
+		game.setTrackChanges(true);
+		game.takeChangedTiles();
+		ChangeSet full = ChangeSet.of(game, null, new ArrayList<>(), false);
+		game.generateBombs(3, 1L, 2, 2);
+		game.bombCount();
+		ChangeSet bombs = ChangeSet.of(game, null, new ArrayList<>(), true);
+		game.openTile(game.getTile(2, 2));
+		ChangeSet opened = ChangeSet.of(game, game.takeChangedTiles(), Arrays.asList(new Move(Move.OPEN, 2, 2)), false);
+		game.toggleIsFlagged(0, 0);
+		ChangeSet flagged = ChangeSet.of(game, game.takeChangedTiles(), Arrays.asList(new Move(Move.FLAG, 0, 0)), false);
+		
+		for (ChangeSet changes : new ChangeSet[] {full.merge(bombs).merge(opened).merge(flagged),
+				bombs.merge(opened.merge(flagged)), full.merge(bombs.merge(opened)).merge(flagged)}) {
+			Game copy = new Game(5, 5);
+			changes.applyTo(copy);
+			assertArrayEquals(tiles(game), tiles(copy));
+			assertEquals(2, changes.getMoves().size());
+			assertTrue(changes.startsGame());
+			assertEquals(game.getPackedBoard().getOpenedSafe(), copy.getPackedBoard().getOpenedSafe());
+			assertEquals(game.getPackedBoard().getFlaggedBombs(), copy.getPackedBoard().getFlaggedBombs());
+		}
+		assertFalse(flagged.merge(flagged).isFull());
+		assertFalse(flagged.merge(flagged).startsGame());
+	}
+	
+	@Test
+	@DisplayName("Tester at trekk i et lastet spill bare legges til i journalen, uten  skrive hele spillet igjen")
+	public void testLoadedGameAppends() throws IOException {
+		AsyncFileManager fm = new AsyncFileManager();
+		GameEngine engine = new GameEngine(GameConfig.INTERMEDIATE.withSeed(5));
+		engine.open(8, 8);
+		fm.writeGameToFileAsync("test-executor", engine.getGame(), p -> {}).join();
+		byte[] saved = Files.readAllBytes(BinaryFileManager.getFullPath("test-executor"));
+		Game loaded = fm.readGameFromFileAsync("test-executor", p -> {}).join();
+		int closed = 0;
+		while (loaded.getPackedBoard().isOpen(closed)) {
+			closed++;
+		}
+		
+		GameEngine played = new GameEngine(loaded);
+		Game copy = new Game(played.getConfig());
+		List<Move> moves = new ArrayList<>();
+		try (GameExecutor executor = new GameExecutor(played, ui::add, received::add)) {
+			executor.toggleFlag(closed % 16, closed / 16);
+			executor.call(e -> null).join();
+			runUi();
+		}
+		for (ChangeSet changes : received) {
+			assertFalse(changes.startsGame());
+			changes.applyTo(copy);
+			moves.addAll(changes.getMoves());
+		}
+		assertEquals(Arrays.asList(new Move(Move.FLAG, closed % 16, closed / 16)), moves);
+		
+		fm.appendMovesAsync("test-executor", moves).join();
+		assertArrayEquals(saved, Files.readAllBytes(BinaryFileManager.getFullPath("test-executor")));
+		assertTrue(Files.size(JournalFileManager.getJournalPath("test-executor")) > 0);
+		assertSameGame(copy, fm.readGameFromFileAsync("test-executor", p -> {}).join());
+	}
+	
+	@AfterAll
+	static void deleteTestFiles() throws IOException {
+		Files.deleteIfExists(BinaryFileManager.getFullPath("test-executor"));
+		Files.deleteIfExists(JournalFileManager.getJournalPath("test-executor"));
+	}
+}
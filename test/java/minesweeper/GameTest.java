@@ -5,6 +5,11 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.DisplayName;
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
@@ -47,6 +52,91 @@ public class GameTest {
 		}
 	}
 	
+	/*
+	 * The recursive openTile() that the explicit stack in Game.cascade() replaced,
+	 * made through the Tile views only. Used as a reference for which tiles are
+	 * opened. Returns true if a bomb was opened, after opening every bomb.
+	 */
+	private static boolean openRecursive(Game game, Tile tile) {
+		if (tile.getIsOpen()) {
+			return false;
+		}
+		tile.setIsOpen(true);
+		tile.setIsFlagged(false);
+		if (tile.isBomb()) {
+			for (int y = 0; y < game.getHeight(); y++) {
+				for (int x = 0; x < game.getWidth(); x++) {
+					if (game.getTile(x, y).isBomb()) {
+						game.getTile(x, y).setIsOpen(true);
+					}
+				}
+			}
+			return true;
+		}
+		if (tile.getBombCount() == 0) {
+			for (int row = tile.getY()-1; row <= tile.getY()+1; row++) {
+				for (int col = tile.getX()-1; col <= tile.getX()+1; col++) {
+					if (game.isTile(col, row) && !game.getTile(col, row).isBomb()) {
+						openRecursive(game, game.getTile(col, row));
+					}
+				}
+			}
+		}
+		return false;
+	}
+	
+	/*
+	 * Opens the safe tile with the given index and every tile reachable from it
+	 * through tiles with a bombCount of zero, breadth first with an unbounded queue.
+	 * Used as a reference for boards that are too large for openRecursive().
+	 */
+	private static void openBreadthFirst(Board board, int index) {
+		ArrayDeque<Integer> queue = new ArrayDeque<>();
+		board.setOpen(index, true);
+		board.setFlagged(index, false);
+		queue.add(index);
+		while (!queue.isEmpty()) {
+			int tile = queue.poll();
+			if (board.getBombCount(tile) != 0) {
+				continue;
+			}
+			int x = tile % board.getWidth();
+			int y = tile / board.getWidth();
+			for (int row = Math.max(0, y-1); row <= Math.min(board.getHeight()-1, y+1); row++) {
+				for (int col = Math.max(0, x-1); col <= Math.min(board.getWidth()-1, x+1); col++) {
+					int next = row*board.getWidth() + col;
+					if (!board.isOpen(next) && !board.isBomb(next)) {
+						board.setOpen(next, true);
+						board.setFlagged(next, false);
+						queue.add(next);
+					}
+				}
+			}
+		}
+	}
+	
+	/*
+	 * The old checkGameWon(), which went through every tile. Used to check the
+	 * counters on Board. Returns {opened, flagged, won}.
+	 */
+	private static int[] scanGameWon(Game game) {
+		int opened = 0;
+		int flagged = 0;
+		for (int y = 0; y < game.getHeight(); y++) {
+			for (int x = 0; x < game.getWidth(); x++) {
+				if (game.getTile(x, y).getIsOpen() && game.getTile(x, y).getType() != '@') {
+					opened++;
+				}
+				if (game.getTile(x, y).getType() == '@' && game.getTile(x, y).getIsFlagged()) {
+					flagged++;
+				}
+			}
+		}
+		boolean won = (flagged == game.getNumberOfBombs() && game.getNumberOfBombs() != 0)
+				|| (game.getWidth() * game.getHeight()) - game.getNumberOfBombs() == opened;
+		return new int[] {opened, flagged, won ? 1 : 0};
+	}
+	
 	@Test
 	public void testConstructor() {
 		assertEquals(game.getHeight(), 15);
@@ -127,6 +217,21 @@ public class GameTest {
 		assertEquals(Game.NUMBER_OF_BOMBS, bombCount);
 	}
 	
+	@Test
+	@DisplayName("Tester at generateBombs() ikke legger bomber p tiles som allerede er pne")
+	public void testGenerateBombsSkipsOpen() {
+		for (int i = 0; i < 50; i++) {
+			Game small = new Game(new GameConfig(5, 5, 20, 0));
+			small.getTile(0, 0).setIsOpen(true);
+			small.getTile(4, 2).setIsOpen(true);
+			small.generateBombs();
+			assertFalse(small.getTile(0, 0).isBomb());
+			assertFalse(small.getTile(4, 2).isBomb());
+			assertEquals(20, small.getPackedBoard().getBombs());
+			assertEquals(20, small.getNumberOfBombs());
+		}
+	}
+	
 	@Test
 	@DisplayName("Tester at alle Tile-objekter har riktig bombCount, at bombCount ikke er strre enn 8, at den er 0 p bomber og >0 rundt bomber")
 	public void testBombCount() {
@@ -214,6 +319,116 @@ public class GameTest {
 		}
 	}
 	
+	@Test
+	@DisplayName("Tester at openTile() kan pne et stort brett uten bomber i ett klikk, og returnerer antall pnede tiles")
+	public void testOpenTileLargeBoard() {
+		Game large = new Game(2000, 2000);
+		assertEquals(2000*2000, large.openTile(large.getTile(0, 0)));
+		assertTrue(large.getTile(1999, 1999).getIsOpen());
+		assertEquals(0, large.openTile(large.getTile(1000, 1000)));
+		
+		game.getTile(5, 5).setBomb();
+		game.bombCount();
+		assertEquals(1, game.openTile(game.getTile(4, 4)));
+		assertEquals(20*15 - 2, game.openTile(game.getTile(0, 0)));
+		assertFalse(game.getTile(5, 5).getIsOpen());
+	}
+	
+	@Test
+	@DisplayName("Sammenligner openTile() med den rekursive versjonen p tilfeldige brett, med flagg og bomber")
+	public void testOpenTileAgainstRecursive() {
+		for (int seed = 0; seed < 40; seed++) {
+			Random rnd = new Random(seed);
+			Game actual = new Game(30, 16);
+			actual.generateBombs(5 + rnd.nextInt(60), seed, -1, -1);
+			actual.bombCount();
+			for (int i = 0; i < 25; i++) {
+				actual.toggleIsFlagged(rnd.nextInt(30), rnd.nextInt(16));
+			}
+			Game expected = new Game(actual);
+			while (!actual.isGameOver()) {
+				int x = rnd.nextInt(30);
+				int y = rnd.nextInt(16);
+				int before = expected.getPackedBoard().getOpenedSafe();
+				boolean lost = openRecursive(expected, expected.getTile(x, y));
+				int opened = actual.openTile(actual.getTile(x, y));
+				assertEquals(lost, actual.isGameOver());
+				if (!lost) {
+					assertEquals(expected.getPackedBoard().getOpenedSafe() - before, opened);
+				}
+				for (int i = 0; i < 30*16; i++) {
+					assertEquals(expected.getPackedBoard().isOpen(i), actual.getPackedBoard().isOpen(i), "seed " + seed);
+					assertEquals(expected.getPackedBoard().isFlagged(i), actual.getPackedBoard().isFlagged(i), "seed " + seed);
+				}
+			}
+		}
+	}
+	
+	@Test
+	@DisplayName("Tester at en kaskade som er strre enn stakken pner de samme rutene, og at stakken ikke vokser forbi grensen")
+	public void testBoundedCascade() {
+		int width = 1000;
+		int height = 700;
+		for (int seed = 0; seed < 6; seed++) {
+			Random rnd = new Random(seed);
+			Game actual = new Game(width, height);
+			actual.generateBombs(100 + rnd.nextInt(4000), seed, -1, -1);
+			actual.bombCount();
+			for (int i = 0; i < 1000; i++) {
+				actual.toggleIsFlagged(rnd.nextInt(width), rnd.nextInt(height));
+			}
+			Game expected = new Game(actual);
+			for (int i = 0; i < 20; i++) {
+				int index = rnd.nextInt(width * height);
+				if (actual.getPackedBoard().isBomb(index) || actual.getPackedBoard().isOpen(index)) {
+					continue;
+				}
+				int before = expected.getPackedBoard().getOpenedSafe();
+				openBreadthFirst(expected.getPackedBoard(), index);
+				int opened = actual.openTile(actual.getTile(index % width, index / width));
+				assertEquals(expected.getPackedBoard().getOpenedSafe() - before, opened, "seed " + seed);
+				assertTrue(actual.getCascadeStackSize() <= Game.MAX_CASCADE_STACK);
+			}
+			for (int i = 0; i < width * height; i++) {
+				assertEquals(expected.getPackedBoard().isOpen(i), actual.getPackedBoard().isOpen(i), "seed " + seed);
+				assertEquals(expected.getPackedBoard().isFlagged(i), actual.getPackedBoard().isFlagged(i), "seed " + seed);
+			}
+		}
+		Game empty = new Game(width, height);
+		assertEquals(width * height, empty.openTile(empty.getTile(0, 0)));
+		assertEquals(Game.MAX_CASCADE_STACK, empty.getCascadeStackSize());
+	}
+	
+	@Test
+	@DisplayName("Tester at chord() pner naboene til et tall med riktig antall flagg i n kaskade")
+	public void testChord() {
+		Game chord = new Game(10, 10);
+		chord.getTile(0, 0).setBomb();
+		chord.bombCount();
+		chord.setNumberOfBombs(1);
+		chord.openTile(chord.getTile(1, 0));
+		assertEquals(0, chord.chord(1, 0));
+		assertEquals(0, chord.chord(5, 5));
+		chord.toggleIsFlagged(0, 0);
+		assertEquals(100 - 2, chord.chord(1, 0));
+		assertTrue(chord.isGameWon());
+		assertFalse(chord.isGameOver());
+		assertEquals(0, chord.chord(1, 0));
+		
+		Game wrong = new Game(10, 10);
+		wrong.getTile(0, 0).setBomb();
+		wrong.getTile(2, 0).setBomb();
+		wrong.bombCount();
+		wrong.setNumberOfBombs(2);
+		wrong.openTile(wrong.getTile(1, 0));
+		wrong.toggleIsFlagged(0, 0);
+		wrong.toggleIsFlagged(1, 1);
+		assertTrue(wrong.chord(1, 0) > 0);
+		assertTrue(wrong.isGameOver());
+		assertTrue(wrong.getTile(2, 0).getIsOpen());
+		assertFalse(wrong.getTile(1, 1).getIsOpen());
+	}
+	
 	@Test
 	@DisplayName("Tester firstOpen() som egentlig er et spesialtilfelle av openTile()")
 	public void testFirstOpen() {
@@ -273,6 +488,34 @@ public class GameTest {
 		assertTrue(game2.isGameWon());
 	}
 	
+	@Test
+	@DisplayName("Spiller tilfeldige spill og sjekker tellerne for pne og flaggede tiles mot en full gjennomgang av brettet")
+	public void testGameWonCounters() {
+		Random rnd = new Random(987654321L);
+		for (int i = 0; i < 200; i++) {
+			Game random = new Game(20, 15);
+			random.generateBombs();
+			random.bombCount();
+			while (!random.isGameOver() && !random.isGameWon()) {
+				int x = rnd.nextInt(random.getWidth());
+				int y = rnd.nextInt(random.getHeight());
+				int move = rnd.nextInt(10);
+				if (move < 3) {
+					random.toggleIsFlagged(x, y);
+				}else if (move < 4) {
+					random.getTile(x, y).setIsFlagged(!random.getTile(x, y).getIsFlagged());
+				}else if (random.getTile(x, y).isEmpty() || move == 9) {
+					random.openTile(random.getTile(x, y));
+				}
+				int[] scan = scanGameWon(random);
+				assertEquals(scan[0], random.getPackedBoard().getOpenedSafe());
+				assertEquals(scan[1], random.getPackedBoard().getFlaggedBombs());
+				random.checkGameWon();
+				assertEquals(scan[2] == 1, random.isGameWon());
+			}
+		}
+	}
+	
 	@Test
 	public void testSetNumberOfBombsToOriginal() {
 		assertEquals(game.getNumberOfBombs(), 0);
@@ -291,4 +534,88 @@ public class GameTest {
 		game.setNumberOfBombsToOriginal();
 		assertEquals(game.getNumberOfBombs(), Game.NUMBER_OF_BOMBS);
 	}
+	
+	@Test
+	@DisplayName("Tester spill laget fra en GameConfig")
+	public void testGameConfig() {
+		Game expert = new Game(GameConfig.EXPERT);
+		assertEquals(30, expert.getWidth());
+		assertEquals(16, expert.getHeight());
+		expert.generateBombs();
+		assertEquals(99, expert.getNumberOfBombs());
+		assertEquals(99, expert.getPackedBoard().getBombs());
+		
+		Game custom = new Game(new GameConfig(40, 3, 7, 0));
+		custom.generateBombs(7, 42L, 1, 1);
+		assertEquals(new GameConfig(40, 3, 7, 42L), custom.getConfig());
+		custom.setNumberOfBombs(0);
+		custom.setNumberOfBombsToOriginal();
+		assertEquals(7, custom.getNumberOfBombs());
+		
+		assertEquals(3, new Game(2, 2).getConfig().getBombs());
+		assertThrows(IllegalArgumentException.class, () -> new GameConfig(3, 3, 9, 0));
+	}
+	
+	@Test
+	@DisplayName("Tester at snapshot som tekst, strm og buffer gir samme brett, og at digest flger brettet")
+	public void testSnapshot() throws IOException {
+		Game small = new Game(3, 2);
+		small.getTile(1, 0).setBomb();
+		small.getTile(0, 1).setIsOpen(true);
+		small.getTile(1, 0).setIsFlagged(true);
+		assertEquals("32e@eeee" + "falsefalsefalsetruefalsefalse" + "falsetruefalsefalsefalsefalse", small.toString());
+		
+		game.generateBombs(Game.NUMBER_OF_BOMBS, 987654321L, 3, 3);
+		game.bombCount();
+		game.firstOpen(game.getTile(3, 3));
+		ByteArrayOutputStream stream = new ByteArrayOutputStream();
+		game.writeSnapshot(stream);
+		ByteBuffer buffer = ByteBuffer.allocate((int) game.getSnapshotSize());
+		game.writeSnapshot(buffer);
+		assertArrayEquals(buffer.array(), stream.toByteArray());
+		assertEquals(20, buffer.getInt(0));
+		assertEquals(15, buffer.getInt(4));
+		assertEquals(2, buffer.get(8 + 3 * 20 + 3));
+		assertThrows(BufferOverflowException.class, () -> game.writeSnapshot(ByteBuffer.allocate(10)));
+		
+		Game copy = new Game(game.getPackedBoard().copy());
+		assertEquals(game.getDigest(), copy.getDigest());
+		int x = 0;
+		while (copy.getTile(x, 0).getIsOpen()) {
+			x++;
+		}
+		copy.getTile(x, 0).setIsFlagged(true);
+		assertNotEquals(game.getDigest(), copy.getDigest());
+		assertNotEquals(new Game(2, 3).getDigest(), new Game(3, 2).getDigest());
+		assertEquals(new Game(2, 3).toString(), new Game(3, 2).toString().replace("32", "23"));
+	}
+	
+	@Test
+	@DisplayName("Tester at en kopi av spillet ikke deler brettet med originalen, og har samme tilstand")
+	public void testFork() {
+		game.generateBombs(Game.NUMBER_OF_BOMBS, 987654321L, 3, 3);
+		game.bombCount();
+		game.firstOpen(game.getTile(3, 3));
+		Game fork = game.fork();
+		assertEquals(game.getDigest(), fork.getDigest());
+		assertEquals(game.getNumberOfBombs(), fork.getNumberOfBombs());
+		assertEquals(game.getSeed(), fork.getSeed());
+		assertEquals(game.getConfig(), fork.getConfig());
+		assertNotSame(game.getPackedBoard(), fork.getPackedBoard());
+		
+		long digest = game.getDigest();
+		int x = 0;
+		while (!fork.getTile(x, 0).isBomb()) {
+			x++;
+		}
+		fork.openTile(fork.getTile(x, 0));
+		assertTrue(fork.isGameOver());
+		assertFalse(game.isGameOver());
+		assertEquals(digest, game.getDigest());
+		
+		Game lost = new Game(fork);
+		assertTrue(lost.isGameOver());
+		assertEquals(fork.getDigest(), lost.getDigest());
+		assertEquals(fork.getPackedBoard().getOpenedSafe(), lost.getPackedBoard().getOpenedSafe());
+	}
 }
@@ -0,0 +1,170 @@
+package minesweeper;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import javax.management.MBeanServer;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+
+public class HistogramTest {
+	
+	@Test
+	@DisplayName("Tester at hver verdi havner i en btte som inneholder den")
+	public void testBuckets() {
+		long[] values = {0, 1, 63, 64, 65, 127, 128, 1000, 123456789, Integer.MAX_VALUE, Long.MAX_VALUE / 3, Long.MAX_VALUE};
+		for (long value : values) {
+			int bucket = Histogram.bucket(value);
+			assertTrue(bucket >= 0 && bucket < Histogram.BUCKETS);
+			assertTrue(Histogram.highestValue(bucket) >= value);
+			assertTrue(bucket == 0 || Histogram.highestValue(bucket - 1) < value);
+		}
+		for (long value = 0; value < 100_000; value++) {
+			assertTrue(Histogram.highestValue(Histogram.bucket(value)) - value <= value / Histogram.SUB_BUCKETS);
+		}
+	}
+	
+	@Test
+	@DisplayName("Tester persentiler mot en sortert liste")
+	public void testPercentiles() {
+		Histogram histogram = new Histogram("test", "ns");
+		assertEquals(0, histogram.getP99());
+		Random rnd = new Random(42);
+		long[] values = new long[100_000];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = (long) Math.exp(rnd.nextDouble() * 20);
+			histogram.record(values[i]);
+		}
+		Arrays.sort(values);
+		for (double percentile : new double[] {1, 50, 90, 99, 99.9, 100}) {
+			long exact = values[(int) Math.ceil(values.length * percentile / 100) - 1];
+			long value = histogram.getValueAtPercentile(percentile);
+			assertTrue(value >= exact && value - exact <= exact / Histogram.SUB_BUCKETS, percentile + ": " + value + " " + exact);
+		}
+		assertEquals(values[values.length - 1], histogram.getMax());
+		assertEquals(values.length, histogram.getCount());
+		assertEquals(Arrays.stream(values).sum(), histogram.getTotal());
+		histogram.reset();
+		assertEquals(0, histogram.getCount());
+		assertEquals(0, histogram.getP50());
+	}
+	
+	@Test
+	@DisplayName("Tester at verdier fra flere trder blir lagt sammen")
+	public void testThreads() throws InterruptedException {
+		Histogram histogram = new Histogram("test", "ns");
+		Thread[] threads = new Thread[8];
+		for (int t = 0; t < threads.length; t++) {
+			long offset = t;
+			threads[t] = new Thread(() -> {
+				for (int i = 0; i < 10_000; i++) {
+					histogram.record(i + offset);
+				}
+			});
+			threads[t].start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		assertEquals(80_000, histogram.getCount());
+		assertEquals(8 * (9_999L * 10_000 / 2) + 10_000L * 28, histogram.getTotal());
+		assertEquals(10_006, histogram.getMax());
+		assertTrue(histogram.getLast() >= 9_999);
+		histogram.record(5);
+		assertEquals(5, histogram.getLast());
+	}
+	
+	@Test
+	@DisplayName("Tester at trekk og lagring blir mlt og kan leses over JMX")
+	public void testMetrics() throws Exception {
+		Metrics.reset();
+		GameEngine engine = new GameEngine(GameConfig.BEGINNER.withSeed(5));
+		int opened = engine.open(4, 4);
+		engine.flag(0, 0);
+		assertEquals(2, Metrics.MOVE_TIME.getCount());
+		assertEquals(opened, Metrics.TILES_OPENED.getTotal());
+		assertEquals(2, Metrics.CHECK_GAME_WON_TIME.getCount());
+		
+		GameEngine unmetered = new GameEngine(GameConfig.BEGINNER.withSeed(5));
+		unmetered.setMetered(false);
+		unmetered.open(4, 4);
+		assertEquals(2, Metrics.MOVE_TIME.getCount());
+		assertEquals(2, Metrics.CHECK_GAME_WON_TIME.getCount());
+		
+		IJournalFile files = new MeteredFileManager(new JournalFileManager());
+		files.writeGameToFile("test-metrics", engine.getGame());
+		files.readGameFromFile("test-metrics");
+		assertThrows(java.io.FileNotFoundException.class, () -> files.readGameFromFile("non-existing"));
+		assertEquals(1, Metrics.SAVE_TIME.getCount());
+		assertEquals(2, Metrics.LOAD_TIME.getCount());
+		Files.deleteIfExists(BinaryFileManager.getFullPath("test-metrics"));
+		
+		Metrics.registerMBeans();
+		Metrics.registerMBeans();
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		assertEquals(2L, server.getAttribute(Metrics.getObjectName(Metrics.MOVE_TIME), "Count"));
+		assertEquals(Metrics.MOVE_TIME.getMax(), server.getAttribute(Metrics.getObjectName(Metrics.MOVE_TIME), "Max"));
+	}
+	
+	@Test
+	@DisplayName("Tester at trekk blir JFR-hendelser")
+	public void testMoveEvents() throws IOException {
+		Path path = Files.createTempFile("moves", ".jfr");
+		try (Recording recording = new Recording()) {
+			recording.enable("minesweeper.Move");
+			recording.start();
+			GameEngine engine = new GameEngine(GameConfig.BEGINNER.withSeed(5));
+			engine.open(4, 4);
+			engine.flag(0, 0);
+			recording.stop();
+			recording.dump(path);
+			List<RecordedEvent> events = RecordingFile.readAllEvents(path);
+			events.removeIf(event -> !event.getEventType().getName().equals("minesweeper.Move"));
+			events.sort(Comparator.comparing(RecordedEvent::getStartTime));
+			assertEquals(2, events.size());
+			assertEquals(Move.OPEN, events.get(0).getInt("type"));
+			assertEquals(Move.FLAG, events.get(1).getInt("type"));
+			assertEquals(0, events.get(1).getInt("x"));
+		}finally {
+			Files.deleteIfExists(path);
+		}
+	}
+	
+	@Test
+	@DisplayName("Tester at lagring og lesing i bakgrunnen blir JFR-hendelser")
+	public void testFileEvents() throws IOException {
+		Path path = Files.createTempFile("files", ".jfr");
+		try (Recording recording = new Recording()) {
+			recording.enable("minesweeper.File");
+			recording.start();
+			AsyncFileManager files = new AsyncFileManager();
+			Game game = new Game(GameConfig.BEGINNER.withSeed(5));
+			files.writeGameToFileAsync("test-metrics", game, p -> {}).join();
+			files.readGameFromFileAsync("test-metrics", p -> {}).join();
+			recording.stop();
+			recording.dump(path);
+			List<RecordedEvent> events = RecordingFile.readAllEvents(path);
+			events.removeIf(event -> !event.getEventType().getName().equals("minesweeper.File"));
+			events.sort(Comparator.comparing(RecordedEvent::getStartTime));
+			assertEquals(2, events.size());
+			assertTrue(events.get(0).getBoolean("save"));
+			assertFalse(events.get(1).getBoolean("save"));
+			assertEquals("test-metrics", events.get(1).getString("filename"));
+			assertEquals(81, events.get(1).getInt("tiles"));
+		}finally {
+			Files.deleteIfExists(path);
+			Files.deleteIfExists(BinaryFileManager.getFullPath("test-metrics"));
+		}
+	}
+}
@@ -0,0 +1,165 @@
+package minesweeper;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+
+public class HistoryTest {
+	
+	/*
+	 * Makes random moves that do not lose, until count moves that change the game are
+	 * made or the game is won, and returns the digest after each of them.
+	 */
+	private static List<Long> play(GameEngine engine, Random rnd, int count) {
+		List<Long> digests = new ArrayList<>();
+		Game game = engine.getGame();
+		while (digests.size() < count && !engine.isOver()) {
+			int x = rnd.nextInt(game.getWidth());
+			int y = rnd.nextInt(game.getHeight());
+			int before = engine.getHistory().size();
+			if (rnd.nextInt(3) == 0) {
+				engine.flag(x, y);
+			}else if (!game.getTile(x, y).isBomb() || !engine.isStarted()) {
+				engine.open(x, y);
+			}
+			if (engine.getHistory().size() != before) {
+				digests.add(game.getDigest());
+			}
+		}
+		return digests;
+	}
+	
+	@Test
+	@DisplayName("Tester at angre og gjr om gir samme brett som fr og etter hvert trekk")
+	public void testUndoRedo() {
+		GameEngine engine = new GameEngine(new GameConfig(30, 16, 99, 5L));
+		History history = engine.startHistory();
+		long empty = engine.getGame().getDigest();
+		List<Long> digests = play(engine, new Random(5L), 40);
+		assertEquals(digests.size(), history.size());
+		assertEquals(digests.size(), engine.getMoves());
+		Game game = engine.getGame();
+		int opened = game.getPackedBoard().getOpenedSafe();
+		
+		for (int i = digests.size() - 2; i >= 0; i--) {
+			assertTrue(engine.undo());
+			assertEquals((long) digests.get(i), game.getDigest());
+		}
+		assertTrue(engine.undo());
+		assertEquals(empty, game.getDigest());
+		assertFalse(engine.isStarted());
+		assertEquals(0, game.getPackedBoard().getBombs());
+		assertFalse(engine.undo());
+		assertEquals(0, engine.getMoves());
+		
+		for (long digest : digests) {
+			assertTrue(engine.redo());
+			assertEquals(digest, game.getDigest());
+		}
+		assertFalse(engine.redo());
+		assertEquals(digests.size(), engine.getMoves());
+		assertEquals(opened, game.getPackedBoard().getOpenedSafe());
+		assertEquals(99, game.getNumberOfBombs());
+	}
+	
+	@Test
+	@DisplayName("Tester at et trekk som ikke endrer noe ikke telles, s antall trekk stemmer etter angring")
+	public void testMovesAfterUndo() {
+		GameEngine engine = new GameEngine(GameConfig.BEGINNER.withSeed(5));
+		engine.startHistory();
+		engine.open(4, 4);
+		assertEquals(0, engine.open(4, 4));
+		assertEquals(1, engine.getMoves());
+		assertTrue(engine.undo());
+		assertFalse(engine.isStarted());
+		assertEquals(0, engine.getMoves());
+		assertFalse(engine.undo());
+	}
+	
+	@Test
+	@DisplayName("Tester at et tapt spill kan angres, og at et nytt trekk glemmer trekkene som ble angret")
+	public void testUndoLoss() {
+		GameEngine engine = new GameEngine(new GameConfig(9, 9, 10, 3L));
+		engine.startHistory();
+		engine.open(4, 4);
+		Game game = engine.getGame();
+		long started = game.getDigest();
+		int x = 0;
+		int y = 0;
+		while (!game.getTile(x, y).isBomb()) {
+			x = (x + 1) % 9;
+			y = x == 0 ? y + 1 : y;
+		}
+		engine.open(x, y);
+		assertTrue(engine.isLost());
+		assertTrue(engine.undo());
+		assertFalse(engine.isLost());
+		assertEquals(started, game.getDigest());
+		
+		engine.flag(x, y);
+		assertFalse(engine.redo());
+		assertEquals(2, engine.getHistory().size());
+		assertTrue(game.getTile(x, y).getIsFlagged());
+	}
+	
+	@Test
+	@DisplayName("Tester at angring av en stor kaskade bare lagrer rutene som endret seg")
+	public void testLargeCascade() {
+		GameEngine engine = new GameEngine(new GameConfig(1000, 1000, 20000, 1L));
+		History history = engine.startHistory();
+		engine.open(0, 0);
+		Board board = engine.getGame().getPackedBoard();
+		int written = 0;
+		for (int i = 0; i < board.size(); i++) {
+			written += board.get(i) != 0 ? 1 : 0;
+		}
+		assertEquals(written, history.getTileCount(0));
+		
+		int index = 0;
+		while (board.isOpen(index) || board.isBomb(index) || board.getBombCount(index) != 0) {
+			index++;
+		}
+		int before = board.getOpenedSafe();
+		long digest = engine.getGame().getDigest();
+		int opened = engine.open(index % 1000, index / 1000);
+		assertTrue(opened > 1);
+		assertEquals(opened, history.getTileCount(1));
+		assertTrue(engine.undo());
+		assertEquals(before, board.getOpenedSafe());
+		assertEquals(digest, engine.getGame().getDigest());
+		assertTrue(engine.redo());
+		assertEquals(before + opened, board.getOpenedSafe());
+	}
+	
+	@Test
+	@DisplayName("Tester hopp langt tilbake og frem med snapshots")
+	public void testGoTo() {
+		GameEngine engine = new GameEngine(new GameConfig(100, 100, 2000, 9L));
+		History history = engine.startHistory();
+		List<Long> digests = play(engine, new Random(9L), 3 * History.SNAPSHOT_INTERVAL + 5);
+		assertEquals(digests.size(), history.size());
+		assertTrue(digests.size() > 2 * History.SNAPSHOT_INTERVAL);
+		Game game = engine.getGame();
+		
+		for (int target : new int[] {History.SNAPSHOT_INTERVAL + 1, 1, digests.size(), 2 * History.SNAPSHOT_INTERVAL, 3}) {
+			engine.goTo(target);
+			assertEquals(target, history.getPosition());
+			assertEquals(target, engine.getMoves());
+			assertEquals((long) digests.get(target - 1), game.getDigest());
+		}
+		engine.goTo(History.SNAPSHOT_INTERVAL + 3);
+		engine.flag(0, 0);
+		engine.flag(0, 0);
+		assertEquals(History.SNAPSHOT_INTERVAL + 5, history.size());
+		engine.goTo(History.SNAPSHOT_INTERVAL + 2);
+		assertEquals(History.SNAPSHOT_INTERVAL + 2, engine.getMoves());
+		assertEquals((long) digests.get(History.SNAPSHOT_INTERVAL + 1), game.getDigest());
+		assertThrows(IllegalArgumentException.class, () -> engine.goTo(History.SNAPSHOT_INTERVAL + 6));
+		assertThrows(IllegalStateException.class, () -> new GameEngine(GameConfig.BEGINNER).goTo(0));
+	}
+}
@@ -0,0 +1,129 @@
+package minesweeper;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+
+public class InfiniteGameTest {
+	
+	private InfiniteGame game;
+	
+	@AfterEach
+	public void deleteTestFiles() {
+		if (game != null) {
+			game.deleteSavedChunks();
+		}
+	}
+	
+	/* Finds a tile with no bombs around it that is not open, searching right from (x, y). */
+	private static int findZero(InfiniteGame game, int x, int y) {
+		while (game.isBomb(x, y) || game.getBombCount(x, y) != 0 || game.isOpen(x, y)) {
+			x++;
+		}
+		return x;
+	}
+	
+	@Test
+	@DisplayName("Tester at samme seed gir samme bomber, og at bombetallene stemmer over kanten av en chunk")
+	public void testGeneration() {
+		game = new InfiniteGame(42L, 20, "test-infinite");
+		InfiniteGame other = new InfiniteGame(42L, 20, "test-infinite-other");
+		int bombs = 0;
+		for (int y = -70; y < 70; y++) {
+			for (int x = -70; x < 70; x++) {
+				assertEquals(game.isBomb(x, y), other.isBomb(x, y));
+				bombs += game.isBomb(x, y) ? 1 : 0;
+				if (!game.isBomb(x, y)) {
+					int count = 0;
+					for (int row = y - 1; row <= y + 1; row++) {
+						for (int col = x - 1; col <= x + 1; col++) {
+							count += game.isBomb(col, row) ? 1 : 0;
+						}
+					}
+					assertEquals(count, game.getBombCount(x, y));
+				}
+			}
+		}
+		assertTrue(bombs > 140 * 140 * 15 / 100 && bombs < 140 * 140 * 25 / 100);
+		assertThrows(IllegalArgumentException.class, () -> new InfiniteGame(42L, 5, "test-infinite"));
+	}
+	
+	@Test
+	@DisplayName("Tester at en kaskade over flere chunks pner de samme rutene som p et vanlig brett")
+	public void testCascade() {
+		game = new InfiniteGame(6L, 15, "test-infinite");
+		int x = 60;
+		int opened = game.open(x, 60);
+		assertTrue(opened > 300);
+		assertTrue(game.getChunkCount() >= 4);
+		
+		int size = 1024;
+		int left = x - size / 2;
+		int top = 60 - size / 2;
+		Game finite = new Game(size, size);
+		for (int row = 0; row < size; row++) {
+			for (int col = 0; col < size; col++) {
+				if (game.isBomb(left + col, top + row)) {
+					finite.getPackedBoard().setBomb(row*size + col, true);
+				}
+			}
+		}
+		finite.bombCount();
+		assertEquals(opened, finite.openTile(finite.getTile(size / 2, size / 2)));
+		for (int row = 1; row < size - 1; row++) {
+			for (int col = 1; col < size - 1; col++) {
+				assertEquals(finite.getTile(col, row).getIsOpen(), game.isOpen(left + col, top + row));
+			}
+		}
+		assertFalse(finite.getTile(0, 0).getIsOpen());
+		assertEquals(opened, game.getOpenedSafe());
+	}
+	
+	@Test
+	@DisplayName("Tester at minnet vokser med omrdet som er utforsket, og at kalde chunks lagres og leses igjen")
+	public void testEviction() {
+		game = new InfiniteGame(3L, 25, "test-infinite");
+		game.open(0, 0);
+		int near = game.getChunkCount();
+		game.toggleFlag(1000000, -1000000);
+		assertEquals(near + 1, game.getChunkCount());
+		game.open(findZero(game, -5000, 5000), 5000);
+		int farX = findZero(game, 2000, 0);
+		game.open(farX, 0);
+		long opened = game.getOpenedSafe();
+		assertTrue(game.getChunkCount() < 40);
+		
+		for (int i = 0; i < InfiniteGame.COLD_MOVES + InfiniteGame.EVICT_INTERVAL; i++) {
+			game.toggleFlag(farX + 20, 40);
+		}
+		assertTrue(game.isFlagged(1000000, -1000000));
+		assertFalse(game.isFlagged(farX + 20, 40));
+		assertTrue(game.getChunkCount() < near + 10);
+		
+		game.saveAll();
+		assertEquals(0, game.getChunkCount());
+		assertTrue(game.getSavedChunkCount() > 3);
+		assertTrue(game.isOpen(0, 0));
+		assertTrue(game.isOpen(farX, 0));
+		assertTrue(game.isFlagged(1000000, -1000000));
+		assertEquals(opened, game.getOpenedSafe());
+		assertEquals(0, game.open(farX, 0));
+	}
+	
+	@Test
+	@DisplayName("Tester at frste trekk aldri taper, og at en bombe taper spillet")
+	public void testLose() {
+		game = new InfiniteGame(11L, 80, "test-infinite");
+		assertTrue(game.open(-100, -100) >= 1);
+		assertFalse(game.isGameOver());
+		int x = -100;
+		while (!game.isBomb(x, -90)) {
+			x++;
+		}
+		assertEquals(1, game.open(x, -90));
+		assertTrue(game.isGameOver());
+		assertEquals(0, game.open(x + 1, -90));
+	}
+}
@@ -0,0 +1,104 @@
+package minesweeper;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import static minesweeper.GameAssertions.assertSameGame;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+
+public class JournalFileManagerTest {
+	
+	private Game game;
+	private JournalFileManager fm;
+	private Random rnd;
+	
+	@BeforeEach
+	public void setup() throws IOException {
+		game = new Game(20, 15);
+		game.generateBombs(Game.NUMBER_OF_BOMBS, 987654321L, 3, 3);
+		game.bombCount();
+		game.firstOpen(game.getTile(3, 3));
+		fm = new JournalFileManager(50);
+		rnd = new Random(987654321L);
+		fm.writeGameToFile("test-journal", game);
+	}
+	
+	/* Makes random moves that do not lose the game, and returns them. */
+	private List<Move> play(int count) {
+		List<Move> moves = new ArrayList<>();
+		while (moves.size() < count) {
+			int x = rnd.nextInt(game.getWidth());
+			int y = rnd.nextInt(game.getHeight());
+			Move move;
+			if (game.getTile(x, y).isBomb() || rnd.nextInt(4) == 0) {
+				move = new Move(game.getTile(x, y).getIsFlagged() ? Move.UNFLAG : Move.FLAG, x, y);
+			}else {
+				move = new Move(Move.OPEN, x, y);
+			}
+			move.apply(game);
+			moves.add(move);
+		}
+		return moves;
+	}
+	
+	@Test
+	@DisplayName("Tester at trekk legges til i journalen og spilles av nr spillet leses")
+	public void testAppendMoves() throws IOException {
+		List<Move> first = play(10);
+		fm.appendMoves("test-journal", game, first);
+		List<Move> second = play(5);
+		fm.appendMoves("test-journal", game, second);
+		
+		List<Move> journal = fm.readJournal("test-journal");
+		assertEquals(15, journal.size());
+		assertEquals(first, journal.subList(0, 10));
+		assertEquals(second, journal.subList(10, 15));
+		assertEquals(JournalFileManager.HEADER_SIZE + 15 * JournalFileManager.RECORD_SIZE,
+				Files.size(JournalFileManager.getJournalPath("test-journal")));
+		assertSameGame(game, fm.readGameFromFile("test-journal"));
+	}
+	
+	@Test
+	@DisplayName("Tester at journalen erstattes av et nytt snapshot nr den blir for lang")
+	public void testCompaction() throws IOException {
+		for (int i = 0; i < 6; i++) {
+			fm.appendMoves("test-journal", game, play(10));
+		}
+		assertTrue(fm.readJournal("test-journal").size() <= 50);
+		assertSameGame(game, fm.readGameFromFile("test-journal"));
+		assertSameGame(game, new BinaryFileManager().readGameFromFile("test-journal"));
+		assertTrue(fm.readJournal("test-journal").isEmpty());
+	}
+	
+	@Test
+	@DisplayName("Tester at en journal som ble avbrutt midt i et trekk, eller spilles av to ganger, gir riktig spill")
+	public void testInterruptedJournal() throws IOException {
+		fm.appendMoves("test-journal", game, play(20));
+		byte[] journal = Files.readAllBytes(JournalFileManager.getJournalPath("test-journal"));
+		Files.write(JournalFileManager.getJournalPath("test-journal"), Arrays.copyOf(journal, journal.length + 4));
+		assertSameGame(game, fm.readGameFromFile("test-journal"));
+		
+		new BinaryFileManager().writeGameToFile("test-journal", game);
+		assertSameGame(game, fm.readGameFromFile("test-journal"));
+		
+		List<Move> more = play(3);
+		fm.appendMoves("test-journal", game, more);
+		assertEquals(23, fm.readJournal("test-journal").size());
+		assertSameGame(game, fm.readGameFromFile("test-journal"));
+	}
+	
+	@AfterAll
+	static void deleteTestFiles() throws IOException {
+		Files.deleteIfExists(BinaryFileManager.getFullPath("test-journal"));
+		Files.deleteIfExists(JournalFileManager.getJournalPath("test-journal"));
+	}
+}
@@ -0,0 +1,78 @@
+package minesweeper;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+
+public class LongMapTest {
+	
+	/* Returns count keys that all start in the given slot of a map with the given number of slots. */
+	private static long[] collidingKeys(int count, int slots, int home) {
+		long[] keys = new long[count];
+		int found = 0;
+		for (long key = 0; found < count; key++) {
+			if ((LongMap.hash(key) & (slots - 1)) == home) {
+				keys[found++] = key;
+			}
+		}
+		return keys;
+	}
+	
+	@Test
+	@DisplayName("Tester at nkler som kolliderer kan fjernes, og at de andre fortsatt finnes")
+	public void testRemoveColliding() {
+		// From slot 13, the last keys wrap around to the start of the table
+		for (int home : new int[] {3, 13}) {
+			checkRemove(collidingKeys(6, 16, home));
+		}
+	}
+	
+	private static void checkRemove(long[] keys) {
+		for (int removed = 0; removed < keys.length; removed++) {
+			LongMap<String> map = new LongMap<>();
+			for (long key : keys) {
+				map.put(key, "v" + key);
+			}
+			assertEquals("v" + keys[removed], map.remove(keys[removed]));
+			assertNull(map.remove(keys[removed]));
+			assertEquals(keys.length - 1, map.size());
+			for (long key : keys) {
+				assertEquals(key == keys[removed] ? null : "v" + key, map.get(key));
+			}
+		}
+	}
+	
+	@Test
+	@DisplayName("Tester put, get og remove mot HashMap, ogs nr tabellen vokser")
+	public void testAgainstHashMap() {
+		LongMap<Long> map = new LongMap<>();
+		Map<Long, Long> expected = new HashMap<>();
+		Random rnd = new Random(24L);
+		for (int i = 0; i < 100_000; i++) {
+			long key = rnd.nextInt(5000) - 2500L + ((long) rnd.nextInt(3) << 32);
+			if (rnd.nextInt(3) == 0) {
+				assertEquals(expected.remove(key), map.remove(key));
+			}else {
+				assertEquals(expected.put(key, (long) i), map.put(key, (long) i));
+			}
+			assertEquals(expected.size(), map.size());
+		}
+		for (Map.Entry<Long, Long> entry : expected.entrySet()) {
+			assertEquals(entry.getValue(), map.get(entry.getKey()));
+		}
+		long[] keys = map.keys();
+		Arrays.sort(keys);
+		assertArrayEquals(expected.keySet().stream().mapToLong(Long::longValue).sorted().toArray(), keys);
+		
+		map.clear();
+		assertEquals(0, map.size());
+		assertNull(map.get(keys[0]));
+		assertThrows(IllegalArgumentException.class, () -> map.put(1, null));
+	}
+}
@@ -0,0 +1,110 @@
+package minesweeper;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import static minesweeper.GameAssertions.assertSameGame;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+
+public class MappedBoardTest {
+	
+	private Game game;
+	private BinaryFileManager fm;
+	
+	@BeforeEach
+	public void setup() throws IOException {
+		game = new Game(203, 101);
+		game.generateBombs(3000, 987654321L, 100, 50);
+		game.bombCount();
+		game.firstOpen(game.getTile(100, 50));
+		game.toggleIsFlagged(0, 0);
+		game.toggleIsFlagged(202, 100);
+		fm = new BinaryFileManager();
+		fm.writeGameToFile("test-mapped", game);
+	}
+	
+	@Test
+	@DisplayName("Tester at et memory-mappet spill er likt det lagrede spillet")
+	public void testMapGame() throws IOException {
+		Game mapped = fm.mapGameFromFile("test-mapped", false);
+		assertTrue(mapped.getPackedBoard() instanceof MappedBoard);
+		assertSameGame(game, mapped);
+	}
+	
+	@Test
+	@DisplayName("Tester at endringer skrives til filen, og at lagring til samme fil ikke skriver filen p nytt")
+	public void testWriteThrough() throws IOException {
+		Path path = BinaryFileManager.getFullPath("test-mapped");
+		byte[] trailer = {1, 2, 3, 4, 5, 6, 7, 8};
+		Files.write(path, trailer, StandardOpenOption.APPEND);
+		long size = Files.size(path);
+		Game mapped = fm.mapGameFromFile("test-mapped", true);
+		for (int y = 0; y < game.getHeight(); y += 7) {
+			for (int x = 0; x < game.getWidth(); x += 5) {
+				if (game.getTile(x, y).isBomb()) {
+					game.toggleIsFlagged(x, y);
+					mapped.toggleIsFlagged(x, y);
+				}else {
+					game.openTile(game.getTile(x, y));
+					mapped.openTile(mapped.getTile(x, y));
+				}
+			}
+		}
+		assertSameGame(game, mapped);
+		
+		// A new file would be truncated to the planes, and lose the bytes after them
+		fm.writeGameToFile("test-mapped", mapped);
+		assertSameGame(game, fm.readGameFromFile("test-mapped"));
+		assertEquals(size, Files.size(path));
+		byte[] bytes = Files.readAllBytes(path);
+		assertArrayEquals(trailer, Arrays.copyOfRange(bytes, bytes.length - trailer.length, bytes.length));
+		assertFalse(Files.exists(path.resolveSibling(path.getFileName() + ".tmp")));
+	}
+	
+	@Test
+	@DisplayName("Tester at et spill som ikke er mappet for skriving ikke endrer filen")
+	public void testCopyOnWrite() throws IOException {
+		Game mapped = fm.mapGameFromFile("test-mapped", false);
+		mapped.openTile(mapped.getTile(0, 1));
+		mapped.toggleIsFlagged(0, 0);
+		assertFalse(mapped.getTile(0, 0).getIsFlagged());
+		assertSameGame(game, fm.readGameFromFile("test-mapped"));
+		
+		fm.writeGameToFile("test-mapped-copy", mapped);
+		assertSameGame(mapped, fm.readGameFromFile("test-mapped-copy"));
+	}
+	
+	@Test
+	@DisplayName("Tester at et stort brett pnes uten  lese alle tiles")
+	public void testLargeBoard() throws IOException {
+		Game large = new Game(5000, 5000);
+		large.generateBombs(250000, 42L, 2500, 2500);
+		large.bombCount();
+		large.firstOpen(large.getTile(2500, 2500));
+		fm.writeGameToFile("test-mapped", large);
+		
+		Game mapped = fm.mapGameFromFile("test-mapped", false);
+		assertEquals(large.getPackedBoard().getOpenedSafe(), mapped.getPackedBoard().getOpenedSafe());
+		assertEquals(250000, mapped.getPackedBoard().getBombs());
+		for (int y = 2490; y < 2510; y++) {
+			for (int x = 2490; x < 2510; x++) {
+				assertEquals(large.getTile(x, y).getBombCount(), mapped.getTile(x, y).getBombCount());
+				assertEquals(large.getTile(x, y).getIsOpen(), mapped.getTile(x, y).getIsOpen());
+			}
+		}
+	}
+	
+	@AfterAll
+	static void deleteTestFiles() throws IOException {
+		Files.deleteIfExists(BinaryFileManager.getFullPath("test-mapped"));
+		Files.deleteIfExists(BinaryFileManager.getFullPath("test-mapped-copy"));
+	}
+}
@@ -0,0 +1,67 @@
+package minesweeper;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class NoGuessGeneratorTest {
+	
+	/* Plays the game with the solver from the first click, opening only tiles that are certainly safe. */
+	private static boolean solvesWithoutGuessing(GameConfig config, int x, int y) {
+		GameEngine engine = new GameEngine(config);
+		engine.open(x, y);
+		Solver solver = new Solver(engine.getGame());
+		while (!engine.isOver()) {
+			solver.deduce();
+			int tile = solver.nextSafe();
+			if (tile < 0) {
+				tile = solver.guess();
+				if (tile < 0 || solver.getGuessChance() > 0) {
+					return false;
+				}
+			}
+			engine.open(tile % config.getWidth(), tile / config.getWidth());
+		}
+		return engine.isWon();
+	}
+	
+	@Test
+	@DisplayName("Tester at brett uten gjetting kan lses helt med logikk fra frste klikk")
+	public void testSolvable() {
+		for (long seed = 0; seed < 20; seed++) {
+			assertTrue(solvesWithoutGuessing(new GameConfig(30, 16, 99, seed, true), 15, 8));
+			assertTrue(solvesWithoutGuessing(new GameConfig(9, 9, 10, seed, true), 0, 0));
+		}
+	}
+	
+	@Test
+	@DisplayName("Tester antall bomber, trygt omrde og at samme seed gir samme brett")
+	public void testGenerate() {
+		Board board1 = new Board(30, 16);
+		Board board2 = new Board(30, 16);
+		assertTrue(NoGuessGenerator.generate(board1, 99, 5L, 3, 3));
+		assertTrue(NoGuessGenerator.generate(board2, 99, 5L, 3, 3));
+		assertEquals(99, board1.getBombs());
+		for (int index = 0; index < board1.size(); index++) {
+			assertEquals(board1.isBomb(index), board2.isBomb(index));
+			assertFalse(board1.isOpen(index));
+		}
+		for (int y = 2; y <= 4; y++) {
+			for (int x = 2; x <= 4; x++) {
+				assertFalse(board1.isBomb(y*30 + x));
+			}
+		}
+		assertThrows(IllegalStateException.class, () -> NoGuessGenerator.generate(board1, 10, 1L, 3, 3));
+		assertThrows(IllegalArgumentException.class, () -> NoGuessGenerator.generate(new Board(9, 9), 10, 1L, -1, -1));
+	}
+	
+	@Test
+	@DisplayName("Tester at et brett som ikke kan lses uten gjetting fr tilfeldige bomber")
+	public void testFallback() {
+		// The bomb is always in the last column, and the open tiles can not tell where
+		Board board = new Board(3, 2);
+		assertFalse(NoGuessGenerator.generate(board, 1, 1L, 0, 0));
+		assertEquals(1, board.getBombs());
+		assertTrue(board.isBomb(2) || board.isBomb(5));
+	}
+}
@@ -0,0 +1,106 @@
+package minesweeper;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import static minesweeper.GameAssertions.assertSameGame;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+
+
+public class ReplayTest {
+	
+	@Test
+	@DisplayName("Tester at trekk blir kodet og lest tilbake")
+	public void testMoves() {
+		Replay replay = new Replay(new GameConfig(1000, 1000, 10, 0));
+		List<Move> moves = Arrays.asList(new Move(Move.OPEN, 500, 500), new Move(Move.FLAG, 501, 500),
+				new Move(Move.UNFLAG, 501, 500), new Move(Move.CHORD, 0, 0), new Move(Move.OPEN, 999, 999),
+				new Move(Move.FLAG, 0, 1), new Move(Move.OPEN, 0, 0));
+		for (Move move : moves) {
+			replay.add(move);
+		}
+		assertEquals(moves, replay.getMoves());
+		assertEquals(moves.size(), replay.getMoveCount());
+		assertEquals(500, replay.getFirstX());
+		assertEquals(500, replay.getFirstY());
+		assertThrows(IllegalArgumentException.class, () -> replay.add(new Move(Move.OPEN, 1000, 0)));
+		
+		Replay near = new Replay(GameConfig.EXPERT);
+		near.add(new Move(Move.OPEN, 0, 0));
+		near.add(new Move(Move.FLAG, 1, 0));
+		near.add(new Move(Move.OPEN, 0, 1));
+		near.add(new Move(Move.OPEN, 0, 0));
+		assertEquals(1 + 1 + 2 + 2, near.getLogSize());
+	}
+	
+	@Test
+	@DisplayName("Tester at et spill spilles av likt")
+	public void testPlay() {
+		for (long seed = 1; seed <= 20; seed++) {
+			Replay replay = ReplayPlayer.record(GameConfig.INTERMEDIATE.withSeed(seed));
+			GameEngine played = ReplayPlayer.play(replay);
+			assertEquals(replay.getMoveCount(), played.getMoves());
+			assertSameGame(ReplayPlayer.play(replay).getGame(), played.getGame());
+			
+			GameEngine again = ReplayPlayer.play(Replay.fromLog(replay.getConfig(), replay.getLog()));
+			assertSameGame(played.getGame(), again.getGame());
+			
+			Game rebuilt = Replay.rebuild(replay.getConfig(), replay.getStart());
+			for (int index = 0; index < rebuilt.getPackedBoard().size(); index++) {
+				assertEquals(played.getGame().getPackedBoard().isBomb(index), rebuilt.getPackedBoard().isBomb(index));
+			}
+		}
+	}
+	
+	@Test
+	@DisplayName("Tester avspilling fram til et gitt trekk")
+	public void testPlayTo() {
+		GameEngine engine = new GameEngine(GameConfig.BEGINNER.withSeed(7));
+		Replay replay = engine.startRecording();
+		engine.open(4, 4);
+		Game afterFirst = ReplayPlayer.play(replay).getGame();
+		engine.flag(0, 0);
+		engine.flag(0, 0);
+		engine.flag(1, 0);
+		assertEquals(4, replay.getMoveCount());
+		
+		assertSameGame(afterFirst, ReplayPlayer.play(replay, 1).getGame());
+		assertTrue(ReplayPlayer.play(replay, 2).getGame().getTile(0, 0).getIsFlagged());
+		assertFalse(ReplayPlayer.play(replay, 3).getGame().getTile(0, 0).getIsFlagged());
+		assertSameGame(engine.getGame(), ReplayPlayer.play(replay).getGame());
+		assertThrows(IllegalStateException.class, () -> engine.startRecording());
+	}
+	
+	@Test
+	@DisplayName("Tester lagring og lesing av opptak")
+	public void testReplayFile() throws IOException {
+		Replay replay = ReplayPlayer.record(GameConfig.EXPERT.withSeed(3).withNoGuess(true));
+		ReplayFileManager fm = new ReplayFileManager();
+		fm.writeReplay("test-replay", replay);
+		assertEquals(ReplayFileManager.HEADER_SIZE + replay.getLogSize(),
+				Files.size(ReplayFileManager.getFullPath("test-replay")));
+		Replay read = fm.readReplay("test-replay");
+		assertEquals(replay.getConfig(), read.getConfig());
+		assertEquals(replay.getMoves(), read.getMoves());
+		assertTrue(ReplayPlayer.play(read).isWon());
+		
+		byte[] bytes = Files.readAllBytes(ReplayFileManager.getFullPath("test-replay"));
+		bytes = Arrays.copyOf(bytes, bytes.length + 1);
+		bytes[bytes.length - 1] = (byte) 0x80;
+		Files.write(ReplayFileManager.getFullPath("test-replay"), bytes);
+		assertEquals(replay.getMoves(), fm.readReplay("test-replay").getMoves());
+		
+		assertThrows(FileNotFoundException.class, () -> fm.readReplay("non-existing"));
+	}
+	
+	@AfterAll
+	static void deleteTestFiles() throws IOException {
+		Files.deleteIfExists(ReplayFileManager.getFullPath("test-replay"));
+	}
+}
@@ -0,0 +1,46 @@
+package minesweeper;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SimulatorTest {
+	
+	@Test
+	@DisplayName("Tester at alle spill i en simulering blir spilt ferdig og telt")
+	public void testRun() {
+		GameConfig config = new GameConfig(9, 9, 10, 42L);
+		SimulationReport report = new Simulator(config, () -> new RandomStrategy(1L), 4).run(500);
+		assertEquals(500, report.getGames());
+		assertEquals(500, report.getWins() + report.getLosses());
+		assertEquals(0, report.getStuck());
+		assertTrue(report.getMoves() >= 500);
+		assertTrue(report.getGamesPerSecond() > 0);
+		
+		report = new Simulator(new GameConfig(5, 5, 1, 42L), () -> new RandomStrategy(1L), 2).run(100);
+		assertTrue(report.getWins() > 0);
+	}
+	
+	@Test
+	@DisplayName("Tester at en strategi som ikke gjr trekk gir spill som sitter fast")
+	public void testStuck() {
+		GameConfig config = new GameConfig(9, 9, 10, 42L);
+		SimulationReport report = new Simulator(config, () -> engine -> { }, 2).run(10);
+		assertEquals(10, report.getStuck());
+		assertEquals(0, report.getMoves());
+	}
+	
+	@Test
+	@DisplayName("Tester at spill nummer i fr samme seed uansett antall trder")
+	public void testSeed() {
+		assertNotEquals(Simulator.seed(42L, 7), Simulator.seed(42L, 8));
+		// SolverStrategy only depends on the board, so the results only depend on the seeds
+		GameConfig config = new GameConfig(9, 9, 10, 42L);
+		SimulationReport one = new Simulator(config, SolverStrategy::new, 1).run(300);
+		SimulationReport four = new Simulator(config, SolverStrategy::new, 4).run(300);
+		assertEquals(one.getWins(), four.getWins());
+		assertEquals(one.getLosses(), four.getLosses());
+		assertEquals(one.getMoves(), four.getMoves());
+		assertTrue(one.getWins() > 0 && one.getLosses() > 0);
+	}
+}
@@ -0,0 +1,163 @@
+package minesweeper;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+public class SolverTest {
+	
+	/* Makes a game from rows of text, where '*' is a bomb and 'o' an open tile. */
+	private static Game makeGame(String... rows) {
+		Game game = new Game(rows[0].length(), rows.length);
+		int bombs = 0;
+		for (int y = 0; y < rows.length; y++) {
+			for (int x = 0; x < rows[y].length(); x++) {
+				if (rows[y].charAt(x) == '*') {
+					game.getTile(x, y).setBomb();
+					bombs++;
+				}
+			}
+		}
+		game.bombCount();
+		game.setNumberOfBombs(bombs);
+		for (int y = 0; y < rows.length; y++) {
+			for (int x = 0; x < rows[y].length(); x++) {
+				if (rows[y].charAt(x) == 'o') {
+					game.getTile(x, y).setIsOpen(true);
+				}
+			}
+		}
+		return game;
+	}
+	
+	@Test
+	@DisplayName("Tester at en pen rute med like mange lukkede naboer som bomber gir bomber")
+	public void testSingleRule() {
+		Game game = makeGame(
+				"*.o",
+				"ooo");
+		Solver solver = new Solver(game);
+		assertEquals(2, solver.deduce());
+		assertTrue(solver.isKnownMine(0));
+		assertTrue(solver.isKnownSafe(1));
+		assertEquals(1, solver.nextSafe());
+	}
+	
+	@Test
+	@DisplayName("Tester 1-2-1-mnsteret, som bare kan lses ved  sammenligne naboruter")
+	public void testPairRule() {
+		Game game = makeGame(
+				"*.*",
+				"ooo",
+				"ooo");
+		Solver solver = new Solver(game);
+		assertTrue(solver.deduce() > 0);
+		assertTrue(solver.isKnownMine(0));
+		assertTrue(solver.isKnownSafe(1));
+		assertTrue(solver.isKnownMine(2));
+		
+		game = makeGame(
+				".*..",
+				"oooo",
+				"oooo");
+		solver = new Solver(game);
+		solver.deduce();
+		assertTrue(solver.isKnownMine(1));
+		assertTrue(solver.isKnownSafe(0));
+		assertTrue(solver.isKnownSafe(2));
+		assertTrue(solver.isKnownSafe(3));
+	}
+	
+	@Test
+	@DisplayName("Tester sannsynligheter nr ingen rute er sikker")
+	public void testGuess() {
+		Game game = makeGame(
+				"*.",
+				"oo");
+		Solver solver = new Solver(game);
+		assertEquals(0, solver.deduce());
+		assertEquals(-1, solver.nextSafe());
+		int tile = solver.guess();
+		assertTrue(tile == 0 || tile == 1);
+		assertEquals(0.5, solver.getGuessChance(), 1e-9);
+		assertEquals(0.5, solver.getMineChance(0), 1e-9);
+		assertEquals(0.5, solver.getMineChance(1), 1e-9);
+		
+		// The bomb next to the open tile is one of three tiles, the other is one of two
+		game = makeGame(
+				"*.*",
+				"o..");
+		solver = new Solver(game);
+		solver.deduce();
+		tile = solver.guess();
+		assertEquals(1.0 / 3, solver.getGuessChance(), 1e-9);
+		assertEquals(1.0 / 3, solver.getMineChance(4), 1e-9);
+		assertEquals(0.5, solver.getMineChance(2), 1e-9);
+		double total = 0;
+		for (int i = 0; i < 6; i++) {
+			total += solver.getMineChance(i);
+		}
+		assertEquals(2.0, total, 1e-9);
+	}
+	
+	@Test
+	@DisplayName("Tester at tellingen av bomber gjr gjenvrende ruter sikre")
+	public void testGlobalCount() {
+		Game game = makeGame(
+				"*..",
+				"o..");
+		Solver solver = new Solver(game);
+		solver.deduce();
+		assertEquals(-1, solver.nextSafe());
+		int tile = solver.guess();
+		assertEquals(0, solver.getGuessChance(), 1e-9);
+		assertTrue(tile == 2 || tile == 5);
+		assertTrue(solver.isKnownSafe(2));
+		assertTrue(solver.isKnownSafe(5));
+	}
+	
+	@Test
+	@DisplayName("Tester at lseren vinner de fleste nybegynnerspill")
+	public void testSolveRate() {
+		SolverStrategy strategy = new SolverStrategy();
+		SimulationReport report = new Simulator(new GameConfig(9, 9, 10, 7L), () -> strategy, 1).run(300);
+		assertEquals(0, report.getStuck());
+		assertTrue(report.getWinRate() > 0.85, report.toString());
+		assertTrue(strategy.getDecisions() > 0);
+	}
+	
+	@Test
+	@DisplayName("Tester at lseren som flger med p endringene finner det samme som en ny lser for hele brettet")
+	public void testIncrementalUpdate() {
+		for (long seed = 1; seed <= 20; seed++) {
+			GameEngine engine = new GameEngine(new GameConfig(30, 16, 99, seed));
+			engine.startHistory();
+			Game game = engine.getGame();
+			Board board = game.getPackedBoard();
+			Random random = new Random(seed);
+			engine.open(15, 8);
+			Solver solver = new Solver(game);
+			while (!engine.isOver()) {
+				solver.deduce();
+				Solver full = new Solver(game);
+				full.deduce();
+				for (int index = 0; index < board.size(); index++) {
+					assertEquals(full.isKnownSafe(index), solver.isKnownSafe(index));
+					assertEquals(full.isKnownMine(index), solver.isKnownMine(index));
+				}
+				full.close();
+				int tile = solver.nextSafe();
+				while (tile < 0) {
+					int index = random.nextInt(board.size());
+					if (!board.isOpen(index) && !board.isBomb(index)) {
+						tile = index;
+					}
+				}
+				engine.open(tile % game.getWidth(), tile / game.getWidth());
+			}
+			assertTrue(engine.isWon());
+		}
+	}
+}